@@ -0,0 +1,125 @@
+package bench;
+
+import graph.util.CsrGraph;
+
+import java.util.Random;
+
+/**
+ * Seeded synthetic graph families used by the benchmarks.
+ * Every family is sized by its target edge count m.
+ */
+public enum GraphFamilies {
+
+    /** Uniform random edges, average out-degree 4. */
+    SPARSE_RANDOM {
+        @Override
+        CsrGraph build(int m, Random rnd) {
+            int n = Math.max(2, m / 4);
+            Edges e = new Edges(m);
+            for (int i = 0; i < m; i++) {
+                e.add(rnd.nextInt(n), rnd.nextInt(n), weight(rnd));
+            }
+            return e.toGraph(n);
+        }
+    },
+
+    /** Uniform random edges on few vertices (about half of all pairs). */
+    DENSE {
+        @Override
+        CsrGraph build(int m, Random rnd) {
+            int n = Math.max(2, (int) Math.ceil(Math.sqrt(2.0 * m)));
+            Edges e = new Edges(m);
+            while (e.size < m) {
+                int u = rnd.nextInt(n);
+                int v = rnd.nextInt(n);
+                if (u != v) e.add(u, v, weight(rnd));
+            }
+            return e.toGraph(n);
+        }
+    },
+
+    /** One path 0 → 1 → ... → m (deepest possible DFS). */
+    LONG_CHAIN {
+        @Override
+        CsrGraph build(int m, Random rnd) {
+            Edges e = new Edges(m);
+            for (int i = 0; i < m; i++) {
+                e.add(i, i + 1, weight(rnd));
+            }
+            return e.toGraph(m + 1);
+        }
+    },
+
+    /** A Hamiltonian cycle plus random chords: a single SCC. */
+    GIANT_SCC {
+        @Override
+        CsrGraph build(int m, Random rnd) {
+            int n = Math.max(2, m / 4);
+            Edges e = new Edges(m);
+            for (int i = 0; i < n; i++) {
+                e.add(i, (i + 1) % n, weight(rnd));
+            }
+            while (e.size < m) {
+                e.add(rnd.nextInt(n), rnd.nextInt(n), weight(rnd));
+            }
+            return e.toGraph(n);
+        }
+    },
+
+    /** Triangles (3-vertex SCCs) linked by forward edges into a DAG. */
+    TINY_SCCS {
+        @Override
+        CsrGraph build(int m, Random rnd) {
+            int triangles = Math.max(2, m / 6);
+            int n = 3 * triangles;
+            Edges e = new Edges(m);
+            for (int t = 0; t < triangles && e.size + 3 <= m; t++) {
+                int b = 3 * t;
+                e.add(b, b + 1, weight(rnd));
+                e.add(b + 1, b + 2, weight(rnd));
+                e.add(b + 2, b, weight(rnd));
+            }
+            while (e.size < m) {
+                int a = rnd.nextInt(triangles - 1);
+                int b = a + 1 + rnd.nextInt(triangles - a - 1);
+                e.add(3 * a + rnd.nextInt(3), 3 * b + rnd.nextInt(3), weight(rnd));
+            }
+            return e.toGraph(n);
+        }
+    };
+
+    abstract CsrGraph build(int m, Random rnd);
+
+    /** Builds the family member with about m edges from a fixed seed. */
+    public CsrGraph generate(int m, long seed) {
+        return build(m, new Random(seed));
+    }
+
+    private static int weight(Random rnd) {
+        return 1 + rnd.nextInt(100);
+    }
+
+    private static final class Edges {
+        final int[] us;
+        final int[] vs;
+        final int[] ws;
+        int size;
+
+        Edges(int capacity) {
+            us = new int[capacity];
+            vs = new int[capacity];
+            ws = new int[capacity];
+        }
+
+        void add(int u, int v, int w) {
+            us[size] = u;
+            vs[size] = v;
+            ws[size] = w;
+            size++;
+        }
+
+        CsrGraph toGraph(int n) {
+            return CsrGraph.fromEdges(n, us, vs, ws, size);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package bench;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.NoopMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for every stage of SCC → condensation → topo → DAG-SP,
+ * on each {@link GraphFamilies} member from 10^3 to 10^7 edges.
+ * Inputs of a stage are prepared once per trial from the previous stages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g"})
+public class PipelineBenchmark {
+
+    @Param({"SPARSE_RANDOM", "DENSE", "LONG_CHAIN", "GIANT_SCC", "TINY_SCCS"})
+    public GraphFamilies family;
+
+    @Param({"1000", "100000", "10000000"})
+    public int edges;
+
+    private CsrGraph graph;
+    private SccResult scc;
+    private CsrGraph dag;
+    private int[] topo;
+    private int source;
+    private int[] sources64;
+
+    // list-based inputs for the list API of CondensationBuilder
+    private List<List<Integer>> adj;
+    private List<List<int[]>> adjW;
+    private List<List<Integer>> comps;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        graph = family.generate(edges, 42L);
+        scc = new TarjanSCC(graph, NoopMetrics.INSTANCE, true).decompose();
+        dag = CondensationBuilder.buildCondensation(graph, scc);
+        topo = KahnTopologicalSort.topo(dag, NoopMetrics.INSTANCE);
+        source = topo.length > 0 ? topo[0] : 0;
+        sources64 = Arrays.copyOf(topo, Math.min(64, topo.length));
+        adj = graph.toAdjacency();
+        adjW = graph.toWeightedAdjacency();
+        comps = scc.toLists();
+    }
+
+    @Benchmark
+    public SccResult tarjanScc() {
+        return new TarjanSCC(graph, NoopMetrics.INSTANCE, true).decompose();
+    }
+
+    @Benchmark
+    public CsrGraph condensationCsr() {
+        return CondensationBuilder.buildCondensation(graph, scc);
+    }
+
+    @Benchmark
+    public List<List<Integer>> buildCondensation() {
+        return CondensationBuilder.buildCondensation(adj, comps);
+    }
+
+    @Benchmark
+    public List<List<int[]>> buildWeightedCondensation() {
+        return CondensationBuilder.buildWeightedCondensation(adj, adjW, comps);
+    }
+
+    @Benchmark
+    public int[] kahnTopo() {
+        return KahnTopologicalSort.topo(dag, NoopMetrics.INSTANCE);
+    }
+
+    @Benchmark
+    public KahnTopologicalSort.LevelOrder kahnTopoLevels() {
+        return KahnTopologicalSort.topoLevels(dag, NoopMetrics.INSTANCE,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public int[] shortestFrom() {
+        return DAGShortestPath.shortestFrom(source, topo, dag, NoopMetrics.INSTANCE);
+    }
+
+    @Benchmark
+    public DAGShortestPath.DistanceMatrix shortestFromMany64() {
+        return DAGShortestPath.shortestFromMany(sources64, topo, dag, NoopMetrics.INSTANCE);
+    }
+
+    @Benchmark
+    public DAGLongestPath.LongestResult longestFrom() {
+        return DAGLongestPath.longestFrom(source, topo, dag, NoopMetrics.INSTANCE);
+    }
+}
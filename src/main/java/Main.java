@@ -1,16 +1,44 @@
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import graph.batch.BatchRunner;
+import graph.dagsp.CriticalPathAnalysis;
 import graph.dagsp.DAGLongestPath;
 import graph.dagsp.DAGShortestPath;
+import graph.dagsp.KPaths;
+import graph.dagsp.LevelRelaxation;
+import graph.gen.GraphGenerator;
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphFiles;
+import graph.io.LoadedGraph;
+import graph.io.TextResultWriter;
+import graph.query.PreparedGraph;
+import graph.query.QueryServer;
 import graph.scc.CondensationBuilder;
+import graph.scc.ParallelSCC;
+import graph.scc.SccResult;
 import graph.scc.TarjanSCC;
+import graph.scc.TransitiveReduction;
 import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
 import graph.util.SCCUtils;
+import metrics.Metrics;
+import metrics.MetricsExporter;
 import metrics.MetricsTracker;
+import metrics.NoopMetrics;
+import metrics.Phase;
+import metrics.PipelineMetrics;
+import metrics.jfr.PipelineRecording;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Command line runner for SCC, Topo, and DAG shortest/longest path algorithms.
@@ -19,99 +47,600 @@ import java.util.*;
  *   java Main scc data/small1.json
  *   java Main topo data/small1.json
  *   java Main dagsp data/small1.json 0
+ *   java Main dagsp data/small1.json 0 3 5      (several sources, results cached per SCC)
+ *   java Main dagsp data/small1.json 0 --to=7   (one target: only the paths 0 → 7)
+ *   java Main cpm data/small1.json              (earliest/latest start, slack, critical paths)
+ *   java Main convert data/small1.json data/small1.bin
+ *   java Main scc-scaling data/large3.bin 64
+ *   java Main dagsp-levels data/large3.bin 0 --threads=8
+ *   java Main generate data/gen.json --n=1000000 --m=5000000 --scc-max=50 --depth=100
+ *   java Main batch data/ --threads=8 --out=results/   (every dataset of a directory, concurrently)
+ *   java Main serve data/large3.bin --port=7070        (resident query server; see QueryServer)
+ *
+ * Options (anywhere on the command line):
+ *   --scc=tarjan|recursive|parallel   SCC engine (default: tarjan, iterative)
+ *   --threads=N                       worker threads for parallel engines
+ *   --long                            dagsp with long weights and distances (no int overflow)
+ *   --to=V                            dagsp to a single target vertex
+ *   --k=K                             dagsp: K longest / shortest paths (to --to, or to every end
+ *                                     component); cpm: K longest chains from start to end components
+ *   --csv                             scc / topo / single-source dagsp as CSV rows with a header
+ *   --reduce                          transitive reduction of the condensation before the topological
+ *                                     sort (and levels / reachability); paths still use every edge
+ *   --node-agg=sum|max                component duration in the "node" weight model (default: sum)
+ *   --metrics[=out.json]              per-phase time, counters and allocations (stderr, or JSON file)
+ *   --jfr[=out.jfr]                   flight recording with SCC / condensation / topo / path events
+ *                                     (default file: pipeline.jfr)
+ *
+ * Graph files may be JSON datasets or binary files written by "convert".
  */
 public class Main {
 
-    public static void main(String[] args) throws Exception {
+    public static void main(String[] rawArgs) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        String[] args = parseOptions(rawArgs, opts);
         if (args.length < 2) {
-            System.out.println("Usage: scc|topo|dagsp <file> [source]");
+            System.out.println("Usage: scc|topo|dagsp|cpm <file> [source] [--scc=tarjan|recursive|parallel] [--threads=N] [--long] [--to=V] [--k=K] [--csv] [--reduce] [--metrics[=out.json]] [--jfr[=out.jfr]]");
+            System.out.println("       convert <in.json> <out.bin>");
+            System.out.println("       scc-scaling <file> [maxThreads]");
+            System.out.println("       dagsp-levels <file> [source] [--threads=N] [--reduce]");
+            System.out.println("       batch <dir> [--threads=N] [--out=dir]");
+            System.out.println("       serve <file> [--port=N | --socket=path] [--scc=...] [--cache=N] [--reduce]   (default: stdin/stdout)");
+            System.out.println("       generate <out.json> [--n=N] [--m=M] [--scc-min=A] [--scc-max=B]"
+                    + " [--scc-dist=uniform|geometric] [--depth=D] [--intra=R]"
+                    + " [--w-min=X] [--w-max=Y] [--seed=S] [--shuffle]");
             return;
         }
 
+        String jfr = opts.get("jfr");
+        if (jfr == null) {
+            run(args, opts);
+            return;
+        }
+        Path recording = Paths.get(jfr.equals("true") ? "pipeline.jfr" : jfr);
+        PipelineRecording rec = PipelineRecording.start(recording);
+        try {
+            run(args, opts);
+        } finally {
+            rec.close();
+        }
+        System.err.println("Flight recording written to " + recording);
+    }
+
+    /** Dispatches on the mode (first positional argument). */
+    private static void run(String[] args, Map<String, String> opts) throws Exception {
         String mode = args[0];
         Path file = Paths.get(args[1]);
 
-        ObjectMapper om = new ObjectMapper();
-        JsonNode root = om.readTree(file.toFile());
-
-        int n = root.get("n").asInt();
-        JsonNode edges = root.get("edges");
+        if (mode.equals("convert")) {
+            if (args.length < 3) {
+                System.out.println("Usage: convert <in.json> <out.bin>");
+                return;
+            }
+            convert(file, Paths.get(args[2]));
+            return;
+        }
+        if (mode.equals("generate")) {
+            generate(file, opts);
+            return;
+        }
+        if (mode.equals("batch")) {
+            batch(file, opts);
+            return;
+        }
+        if (mode.equals("serve")) {
+            serve(file, opts);
+            return;
+        }
+        if (mode.equals("scc-scaling")) {
+            int maxThreads = (args.length >= 3)
+                    ? Integer.parseInt(args[2])
+                    : Runtime.getRuntime().availableProcessors();
+            sccScaling(file, maxThreads);
+            return;
+        }
 
-        // Build graph
-        List<List<Integer>> adj = new ArrayList<>();
-        List<List<int[]>> adjW = new ArrayList<>();
-        for (int i = 0; i < n; i++) {
-            adj.add(new ArrayList<>());
-            adjW.add(new ArrayList<>());
+        PipelineMetrics pm = PipelineMetrics.concurrent();
+        TextResultWriter out = TextResultWriter.to(System.out);
+        try {
+            analyze(mode, file, args, opts, pm, out);
+        } finally {
+            out.flush();
         }
-        for (JsonNode e : edges) {
-            int u = e.get("u").asInt();
-            int v = e.get("v").asInt();
-            int w = e.get("w").asInt();
-            if (w == 0) w = 1;
-            adj.get(u).add(v);
-            adjW.get(u).add(new int[]{v, w});
+        String report = opts.get("metrics");
+        if (report != null) writeMetrics(report, pm);
+    }
+
+    /**
+     * Runs an analysis mode (scc, topo, cpm, dagsp, dagsp-levels), timing each
+     * phase into pm. Results are streamed to out.
+     */
+    private static void analyze(String mode, Path file, String[] args, Map<String, String> opts,
+                                PipelineMetrics pm, TextResultWriter out) throws Exception {
+        boolean longWeights = opts.containsKey("long");
+        Metrics parseM = pm.phase(Phase.PARSE);
+        parseM.start();
+        LoadedGraph data = GraphFiles.load(file, longWeights);
+        parseM.stop();
+        CsrGraph g = data.graph();
+        if (data.nodeModel() && longWeights) {
+            // durations are on the vertices; --long only widens edge weights
+            throw new IllegalArgumentException("--long supports the edge weight model only");
         }
+        String engine = opts.getOrDefault("scc", "tarjan");
+        int threads = Integer.parseInt(opts.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
 
         // Run SCC
-        MetricsTracker sccM = new MetricsTracker();
-        TarjanSCC tarjan = new TarjanSCC(adj, sccM);
-        List<List<Integer>> comps = tarjan.run();
+        SccResult scc = runScc(engine, g, pm.phase(Phase.SCC), threads);
 
+        boolean csv = opts.containsKey("csv");
         if (mode.equals("scc")) {
-            System.out.println("SCC count = " + comps.size());
-            for (int i = 0; i < comps.size(); i++) {
-                System.out.println(i + ": " + comps.get(i));
-            }
+            if (csv) out.csvComponents(scc);
+            else QueryServer.writeScc(scc, out);
             return;
         }
 
-        // Build condensation DAG
-        List<List<Integer>> dag = CondensationBuilder.buildCondensation(adj, comps);
-        List<List<int[]>> dagW = CondensationBuilder.buildWeightedCondensation(adj, adjW, comps);
-
-        // Topological order
-        MetricsTracker topoM = new MetricsTracker();
-        List<Integer> topo = KahnTopologicalSort.topo(dag, topoM);
+        // Condensation DAG and topological order, computed once;
+        // --long works on the long-weight condensation only
+        PreparedGraph pg = null;
+        LongCsrGraph ldag = null;
+        int[] topo;
+        if (longWeights) {
+            Metrics cm = pm.phase(Phase.CONDENSATION);
+            cm.start();
+            ldag = CondensationBuilder.buildCondensation(data.asLong(), scc);
+            cm.stop();
+            CsrGraph order = opts.containsKey("reduce") ? reduce(ldag.structure(), pm, threads) : ldag.structure();
+            topo = KahnTopologicalSort.topo(order, pm.phase(Phase.TOPO));
+        } else {
+            pg = prepare(g, scc, pm, 256, opts, threads);
+            topo = pg.topo();
+        }
+        int[] compOf = scc.compOf();
 
         if (mode.equals("topo")) {
-            System.out.println("Topo (components): " + topo);
-            System.out.println("Derived tasks: " + SCCUtils.expandOrder(topo, comps));
+            if (csv) out.csvRows("position", new String[]{"component"}, topo);
+            else QueryServer.writeTopo(topo, scc, out);
+            return;
+        }
+
+        if (mode.equals("cpm")) {
+            if (ldag == null) ldag = LongCsrGraph.of(pg.condensation());
+            if (data.nodeModel() && opts.containsKey("k")) {
+                throw new IllegalArgumentException("--k supports the edge weight model only");
+            }
+            // node model: every component takes its aggregated duration
+            int[] duration = data.nodeModel() ? componentDurations(data, scc, opts) : null;
+            if (duration != null) out.ints("Component durations: ", duration);
+            printSchedule(CriticalPathAnalysis.analyze(ldag, topo, duration, pm.phase(Phase.LP)), compOf, out);
+            if (opts.containsKey("k")) {
+                // near-critical chains: the k longest paths from any start component to any end component
+                int k = Integer.parseInt(opts.get("k"));
+                boolean[] hasIn = new boolean[ldag.n()];
+                for (int t : ldag.structure().targets()) hasIn[t] = true;
+                int[] starts = IntStream.range(0, ldag.n()).filter(c -> !hasIn[c]).toArray();
+                printKPaths("Longest chains (components):",
+                        KPaths.longest(starts, topo, ldag, k, pm.phase(Phase.LP)).pathsToSinks(), k, out);
+            }
+            return;
+        }
+
+        if (mode.equals("dagsp-levels")) {
+            int src = (args.length >= 3) ? Integer.parseInt(args[2]) : data.sourceOrDefault();
+            if (longWeights) throw new IllegalArgumentException("dagsp-levels does not support --long");
+            if (data.nodeModel()) throw new IllegalArgumentException("dagsp-levels supports the edge weight model only");
+            dagspLevels(pg, compOf[src], threads);
             return;
         }
 
         if (mode.equals("dagsp")) {
-            int src = (args.length >= 3) ? Integer.parseInt(args[2]) : 0;
-            // map source vertex to its SCC component
-            int[] compOf = SCCUtils.buildVertexToComp(comps, n);
-            int compSrc = compOf[src];
-
-            // Shortest path in DAG
-            MetricsTracker shortM = new MetricsTracker();
-            int[] dist = DAGShortestPath.shortestFrom(compSrc, topo, dagW, shortM);
-            System.out.println("Shortest distances: " + Arrays.toString(dist));
-
-            // Longest (critical) path
-            MetricsTracker longM = new MetricsTracker();
-            DAGLongestPath.LongestResult lr =
-                    DAGLongestPath.longestFrom(compSrc, topo, dagW, longM);
-            int[] longDist = lr.dist();
-            System.out.println("Longest distances: " + Arrays.toString(longDist));
-
-            // Find the critical path
-            int best = Integer.MIN_VALUE;
-            int target = -1;
-            for (int i = 0; i < longDist.length; i++) {
-                if (longDist[i] > best) {
-                    best = longDist[i];
-                    target = i;
+            // several sources may be given; sources in the same SCC share cached results
+            int[] sources = (args.length >= 3)
+                    ? Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+                    : new int[]{0};
+            // --to: one target, each pair swept over its topological interval only
+            int target = opts.containsKey("to") ? compOf[Integer.parseInt(opts.get("to"))] : -1;
+            if (csv) {
+                // one row per component: distances from the source
+                if (sources.length > 1 || target != -1 || opts.containsKey("k") || data.nodeModel()) {
+                    throw new IllegalArgumentException("--csv supports one source, without --to, --k or node weights");
+                }
+                int c = compOf[sources[0]];
+                String[] names = {"shortest", "longest"};
+                if (longWeights) {
+                    out.csvRows("component", names, DAGShortestPath.shortestFrom(c, topo, ldag, pm.phase(Phase.SP)),
+                            DAGLongestPath.longestFrom(c, topo, ldag, pm.phase(Phase.LP)).dist());
+                } else {
+                    out.csvRows("component", names, pg.shortestFrom(c), pg.longestFrom(c).dist());
+                }
+                return;
+            }
+            if (opts.containsKey("k")) {
+                // k best paths per vertex in one sweep; to the target, or else to every end component
+                if (data.nodeModel()) throw new IllegalArgumentException("--k supports the edge weight model only");
+                int k = Integer.parseInt(opts.get("k"));
+                if (ldag == null) ldag = LongCsrGraph.of(pg.condensation());
+                for (int src : sources) {
+                    if (sources.length > 1) out.line("Source " + src + ":");
+                    int[] from = {compOf[src]};
+                    KPaths lp = KPaths.longest(from, topo, ldag, k, pm.phase(Phase.LP));
+                    printKPaths("Longest paths (components):",
+                            target != -1 ? lp.paths(target) : lp.pathsToSinks(), k, out);
+                    KPaths sp = KPaths.shortest(from, topo, ldag, k, pm.phase(Phase.SP));
+                    printKPaths("Shortest paths (components):",
+                            target != -1 ? sp.paths(target) : sp.pathsToSinks(), k, out);
                 }
+                return;
+            }
+            if (target != -1 && longWeights) {
+                throw new IllegalArgumentException("--to is not supported with --long");
+            }
+            if (data.nodeModel()) {
+                // component durations over the prepared partition and condensation
+                int[] compWeight = componentDurations(data, scc, opts);
+                CsrGraph dag = pg.condensation();
+                out.ints("Component durations: ", compWeight);
+                for (int src : sources) {
+                    if (sources.length > 1) out.line("Source " + src + ":");
+                    int c = pg.compOf()[src];
+                    if (target != -1) {
+                        QueryServer.writePair(
+                                DAGShortestPath.shortestPath(c, target, topo, pg.topoRank(), dag,
+                                        compWeight, pm.phase(Phase.SP)),
+                                DAGLongestPath.longestPath(c, target, topo, pg.topoRank(), dag,
+                                        compWeight, pm.phase(Phase.LP)), out);
+                        continue;
+                    }
+                    printPaths(DAGShortestPath.shortestFrom(c, topo, dag, compWeight, pm.phase(Phase.SP)),
+                            DAGLongestPath.longestFrom(c, topo, dag, compWeight, pm.phase(Phase.LP)), out);
+                }
+                return;
+            }
+            if (longWeights) {
+                for (int src : sources) {
+                    if (sources.length > 1) out.line("Source " + src + ":");
+                    printPathsLong(ldag, topo, compOf[src], pm, out);
+                }
+                return;
+            }
+            for (int src : sources) {
+                if (sources.length > 1) out.line("Source " + src + ":");
+                int c = pg.compOf()[src];
+                if (target != -1) QueryServer.writePair(pg.shortestPath(c, target), pg.longestPath(c, target), out);
+                else printPaths(pg, c, out);
+            }
+            if (sources.length > 1 && target == -1) {
+                out.line("Cache: hits=" + pg.cacheMetrics().getCacheHits()
+                        + ", misses=" + pg.cacheMetrics().getCacheMisses());
             }
-            if (target != -1) {
-                System.out.println("Critical path (components): " +
-                        DAGLongestPath.rebuildPath(target, lr));
-                System.out.println("Critical length: " + best);
+        }
+    }
+
+    /**
+     * Prepares the condensation; with --reduce also its transitive reduction,
+     * which then feeds the topological sort (and the reachability index).
+     */
+    private static PreparedGraph prepare(CsrGraph g, SccResult scc, PipelineMetrics pm, int cache,
+                                         Map<String, String> opts, int threads) {
+        if (!opts.containsKey("reduce")) return PreparedGraph.prepare(g, scc, pm, cache);
+        PreparedGraph pg = PreparedGraph.prepareReduced(g, scc, pm, cache, threads);
+        printReduction(pg.condensation(), pg.reduced(), pm);
+        return pg;
+    }
+
+    /** Transitive reduction of a condensation outside a PreparedGraph (for --long), timed into REDUCTION. */
+    private static CsrGraph reduce(CsrGraph dag, PipelineMetrics pm, int threads) {
+        Metrics rm = pm.phase(Phase.REDUCTION);
+        rm.start();
+        CsrGraph reduced = TransitiveReduction.reduce(dag, KahnTopologicalSort.topo(dag, NoopMetrics.INSTANCE), threads);
+        rm.stop();
+        printReduction(dag, reduced, pm);
+        return reduced;
+    }
+
+    private static void printReduction(CsrGraph dag, CsrGraph reduced, PipelineMetrics pm) {
+        System.err.printf(Locale.ROOT, "Transitive reduction: %d -> %d edges (%.3f ms)%n",
+                dag.m(), reduced.m(), pm.phase(Phase.REDUCTION).getElapsedMs());
+    }
+
+    /** Prints shortest / longest distances and the critical path from one source component. */
+    private static void printPaths(PreparedGraph pg, int compSrc, TextResultWriter out) {
+        printPaths(pg.shortestFrom(compSrc), pg.longestFrom(compSrc), out);
+    }
+
+    private static void printPaths(int[] dist, DAGLongestPath.LongestResult lr, TextResultWriter out) {
+        QueryServer.writePaths(dist, lr, out);
+    }
+
+    /** Prints the CPM schedule per component and per vertex, and up to 10 critical paths. */
+    private static void printSchedule(CriticalPathAnalysis cpm, int[] compOf, TextResultWriter out) {
+        out.line("Project length: " + cpm.projectLength());
+        CriticalPathAnalysis.Times comp = cpm.componentTimes();
+        out.longs("Earliest start (components): ", comp.earliest());
+        out.longs("Latest start (components): ", comp.latest());
+        out.longs("Slack (components): ", comp.slack());
+        CriticalPathAnalysis.Times tasks = cpm.vertexTimes(compOf);
+        out.longs("Earliest start (tasks): ", tasks.earliest());
+        out.longs("Slack (tasks): ", tasks.slack());
+        int shown = 0;
+        for (int[] path : cpm.criticalPaths()) {
+            if (shown++ == 10) {
+                out.line("...");
+                break;
             }
+            out.ints("Critical path (components): ", path);
         }
     }
+
+    /** Component durations of a node-model dataset, aggregated as chosen by --node-agg. */
+    private static int[] componentDurations(LoadedGraph data, SccResult scc, Map<String, String> opts) {
+        return CondensationBuilder.componentWeights(scc, data.nodeWeights(),
+                CondensationBuilder.NodeAggregation.valueOf(
+                        opts.getOrDefault("node-agg", "sum").toUpperCase(Locale.ROOT)));
+    }
+
+    /** Prints up to k paths as "length: [components]", best first. */
+    private static void printKPaths(String title, Iterable<KPaths.Path> paths, int k, TextResultWriter out) {
+        out.line(title);
+        int shown = 0;
+        for (KPaths.Path p : paths) {
+            if (shown++ == k) break;
+            out.ints(p.length() + ": ", p.vertices());
+        }
+    }
+
+    /** Long-weight version of {@link QueryServer#writePaths}. */
+    private static void printPathsLong(LongCsrGraph dag, int[] topo, int compSrc, PipelineMetrics pm,
+                                       TextResultWriter out) {
+        long[] dist = DAGShortestPath.shortestFrom(compSrc, topo, dag, pm.phase(Phase.SP));
+        out.longs("Shortest distances: ", dist);
+
+        DAGLongestPath.LongLongestResult lr = DAGLongestPath.longestFrom(compSrc, topo, dag, pm.phase(Phase.LP));
+        long[] longDist = lr.dist();
+        out.longs("Longest distances: ", longDist);
+
+        long best = Long.MIN_VALUE;
+        int target = -1;
+        for (int i = 0; i < longDist.length; i++) {
+            if (longDist[i] > best) {
+                best = longDist[i];
+                target = i;
+            }
+        }
+        if (target != -1) {
+            out.line("Critical path (components): " + DAGLongestPath.rebuildPath(target, lr));
+            out.line("Critical length: " + best);
+        }
+    }
+
+    /**
+     * Level-parallel shortest / longest paths on the condensation:
+     * checks them against the push-based sweep and prints per-level timing.
+     */
+    private static void dagspLevels(PreparedGraph pg, int compSrc, int threads) {
+        CsrGraph dag = pg.condensation();
+        MetricsTracker levelM = new MetricsTracker();
+        // levels (longest edge counts) are the same on the reduced DAG
+        KahnTopologicalSort.LevelOrder levels = KahnTopologicalSort.topoLevels(pg.reduced(), levelM, threads);
+        LevelRelaxation relax = new LevelRelaxation(dag, levels, threads);
+
+        MetricsTracker pushM = new MetricsTracker();
+        DAGLongestPath.LongestResult push = DAGLongestPath.longestFrom(compSrc, levels.order(), dag, pushM);
+        MetricsTracker pullM = new MetricsTracker();
+        LevelRelaxation.Result pull = relax.longestFrom(compSrc, pullM);
+        if (!Arrays.equals(push.dist(), pull.dist()) || !Arrays.equals(push.parent(), pull.parent())) {
+            throw new IllegalStateException("level relaxation differs from the topological sweep");
+        }
+        if (!Arrays.equals(DAGShortestPath.shortestFrom(compSrc, levels.order(), dag, new MetricsTracker()),
+                relax.shortestFrom(compSrc, new MetricsTracker()).dist())) {
+            throw new IllegalStateException("level shortest paths differ from the topological sweep");
+        }
+
+        long[] ns = pull.levelNs();
+        int widest = 0;
+        for (int l = 0; l < levels.levelCount(); l++) {
+            widest = Math.max(widest, levels.levelStart()[l + 1] - levels.levelStart()[l]);
+        }
+        System.out.printf("components=%d levels=%d widest=%d threads=%d levels_ms=%.3f%n",
+                dag.n(), levels.levelCount(), widest, threads, levelM.getElapsedMs());
+        System.out.printf("longest: sweep_ms=%.3f level_ms=%.3f%n", pushM.getElapsedMs(), pullM.getElapsedMs());
+        Integer[] slowest = new Integer[ns.length];
+        for (int l = 0; l < ns.length; l++) slowest[l] = l;
+        Arrays.sort(slowest, (a, b) -> Long.compare(ns[b], ns[a]));
+        for (int i = 0; i < Math.min(5, ns.length); i++) {
+            int l = slowest[i];
+            System.out.printf("level %d: size=%d time_ms=%.3f%n", l,
+                    levels.levelStart()[l + 1] - levels.levelStart()[l], ns[l] / 1_000_000.0);
+        }
+    }
+
+    /** Runs the selected SCC engine. */
+    private static SccResult runScc(String engine, CsrGraph g, Metrics m, int threads) {
+        return switch (engine) {
+            case "tarjan" -> new TarjanSCC(g, m, true).decompose();
+            case "recursive" -> new TarjanSCC(g, m, false).decompose();
+            case "parallel" -> new ParallelSCC(g, m, threads).decompose();
+            default -> throw new IllegalArgumentException("unknown SCC engine: " + engine);
+        };
+    }
+
+    /**
+     * Scaling benchmark: runs iterative Tarjan once as the baseline, then the
+     * parallel engine with 1, 2, 4, ... maxThreads threads. Every run is
+     * checked against the Tarjan partition; the median of the measured runs
+     * is reported.
+     */
+    private static void sccScaling(Path file, int maxThreads) throws Exception {
+        final int warmup = 3;
+        final int runs = 5;
+        CsrGraph g = GraphFiles.load(file).graph();
+        System.out.println("n=" + g.n() + ", m=" + g.m());
+
+        SccResult reference = null;
+        double[] times = new double[runs];
+        for (int i = 0; i < warmup + runs; i++) {
+            MetricsTracker m = new MetricsTracker();
+            reference = new TarjanSCC(g, m, true).decompose();
+            if (i >= warmup) times[i - warmup] = m.getElapsedMs();
+        }
+        double base = median(times);
+        System.out.printf("engine=tarjan threads=1 sccs=%d median_ms=%.3f%n", reference.count(), base);
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t *= 2) threadCounts.add(t);
+        threadCounts.add(maxThreads);
+
+        for (int threads : threadCounts) {
+            for (int i = 0; i < warmup + runs; i++) {
+                MetricsTracker m = new MetricsTracker();
+                SccResult res = new ParallelSCC(g, m, threads).decompose();
+                if (!SCCUtils.samePartition(reference.compOf(), res.compOf())) {
+                    throw new IllegalStateException("parallel SCC partition differs at threads=" + threads);
+                }
+                if (i >= warmup) times[i - warmup] = m.getElapsedMs();
+            }
+            double t = median(times);
+            System.out.printf("engine=parallel threads=%d median_ms=%.3f speedup_vs_tarjan=%.2f%n",
+                    threads, t, base / t);
+        }
+    }
+
+    /** Prints the phase breakdown to stderr ("--metrics") or writes it as JSON ("--metrics=file"). */
+    private static void writeMetrics(String target, PipelineMetrics pm) throws Exception {
+        if (target.equals("true")) {
+            System.err.print(pm);
+            return;
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        MetricsExporter.putPhases(root.putObject("phases"), pm);
+        root.put("total_ms", pm.totalNs() / 1_000_000.0);
+        root.put("allocated_bytes", pm.totalAllocatedBytes());
+        mapper.writerWithDefaultPrettyPrinter().writeValue(Paths.get(target).toFile(), root);
+    }
+
+    private static double median(double[] xs) {
+        double[] sorted = xs.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Moves "--key=value" / "--flag" arguments into opts and returns the
+     * remaining positional arguments.
+     */
+    private static String[] parseOptions(String[] args, Map<String, String> opts) {
+        List<String> positional = new ArrayList<>();
+        for (String a : args) {
+            if (a.startsWith("--")) {
+                int eq = a.indexOf('=');
+                if (eq < 0) opts.put(a.substring(2), "true");
+                else opts.put(a.substring(2, eq), a.substring(eq + 1));
+            } else {
+                positional.add(a);
+            }
+        }
+        return positional.toArray(new String[0]);
+    }
+
+    /** Writes a synthetic graph (see {@link GraphGenerator}) as a JSON dataset. */
+    private static void generate(Path out, Map<String, String> opts) throws Exception {
+        int n = Integer.parseInt(opts.getOrDefault("n", "1000"));
+        GraphGenerator.Spec spec = new GraphGenerator.Spec(
+                n,
+                Long.parseLong(opts.getOrDefault("m", String.valueOf(4L * n))),
+                Integer.parseInt(opts.getOrDefault("scc-min", "1")),
+                Integer.parseInt(opts.getOrDefault("scc-max", "1")),
+                GraphGenerator.SizeDistribution.valueOf(
+                        opts.getOrDefault("scc-dist", "uniform").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(opts.getOrDefault("depth", "10")),
+                Double.parseDouble(opts.getOrDefault("intra", "0.2")),
+                Integer.parseInt(opts.getOrDefault("w-min", "1")),
+                Integer.parseInt(opts.getOrDefault("w-max", "10")),
+                Boolean.parseBoolean(opts.getOrDefault("shuffle", "false")),
+                Long.parseLong(opts.getOrDefault("seed", "42")));
+        long t0 = System.nanoTime();
+        GraphGenerator gen = new GraphGenerator(spec);
+        gen.writeJson(out);
+        double ms = (System.nanoTime() - t0) / 1_000_000.0;
+        System.out.println("Generated " + out + " (n=" + spec.n() + ", m=" + spec.m()
+                + ", components=" + gen.componentCount() + ", " + ms + " ms)");
+    }
+
+    /**
+     * Runs the full pipeline on every dataset of a directory concurrently and
+     * writes output.json and metrics.csv (into --out, default: the directory).
+     */
+    private static void batch(Path dir, Map<String, String> opts) throws Exception {
+        int threads = Integer.parseInt(opts.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        Path out = Paths.get(opts.getOrDefault("out", dir.toString()));
+        List<Path> files = BatchRunner.listDatasets(dir);
+        BatchRunner.Summary s = new BatchRunner(threads).run(files,
+                out.resolve("output.json"), out.resolve("metrics.csv"));
+        System.out.printf(Locale.ROOT,
+                "files=%d failed=%d vertices=%d edges=%d threads=%d wall_ms=%.3f files_per_s=%.1f edges_per_s=%.0f%n",
+                s.files(), s.failed(), s.vertices(), s.edges(), threads, s.wallMs(),
+                s.filesPerSecond(), s.edgesPerSecond());
+    }
+
+    /**
+     * Loads and prepares a graph once, then answers queries (see
+     * {@link QueryServer}) on stdin/stdout, a loopback TCP port (--port) or
+     * a Unix domain socket (--socket). Socket mode runs until the process
+     * is stopped.
+     */
+    private static void serve(Path file, Map<String, String> opts) throws Exception {
+        PipelineMetrics pm = PipelineMetrics.concurrent();
+        Metrics parseM = pm.phase(Phase.PARSE);
+        parseM.start();
+        LoadedGraph data = GraphFiles.load(file);
+        parseM.stop();
+        if (data.nodeModel()) {
+            throw new IllegalArgumentException("serve supports the edge weight model only");
+        }
+        int threads = Integer.parseInt(opts.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        SccResult scc = runScc(opts.getOrDefault("scc", "tarjan"), data.graph(), pm.phase(Phase.SCC), threads);
+        PreparedGraph pg = prepare(data.graph(), scc, pm,
+                Integer.parseInt(opts.getOrDefault("cache", "256")), opts, threads);
+        QueryServer server = new QueryServer(pg);
+        System.err.printf(Locale.ROOT, "Prepared %s: n=%d, m=%d, components=%d, %.3f ms%n",
+                file, data.n(), data.edgeCount(), scc.count(), pm.totalNs() / 1_000_000.0);
+
+        String socket = opts.get("socket");
+        String port = opts.get("port");
+        if (socket != null) {
+            Path path = Paths.get(socket);
+            try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+                channel.bind(UnixDomainSocketAddress.of(path));
+                // the socket file outlives the process unless removed; the server is usually stopped by a signal
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> path.toFile().delete()));
+                listen(server, channel);
+            }
+        } else if (port != null) {
+            try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.INET)) {
+                channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(port)));
+                listen(server, channel);
+            }
+        } else {
+            server.serve(System.in, System.out);
+        }
+    }
+
+    private static void listen(QueryServer server, ServerSocketChannel channel) throws Exception {
+        System.err.println("Listening on " + channel.getLocalAddress());
+        server.serve(channel);
+    }
+
+    /** Converts a dataset (JSON or binary) into the binary graph format. */
+    private static void convert(Path in, Path out) throws Exception {
+        long t0 = System.nanoTime();
+        LoadedGraph data = GraphFiles.load(in);
+        BinaryGraphFormat.write(data, out);
+        double ms = (System.nanoTime() - t0) / 1_000_000.0;
+        System.out.println("Converted " + in + " -> " + out
+                + " (n=" + data.n() + ", m=" + data.edgeCount() + ", " + ms + " ms)");
+    }
 }
@@ -0,0 +1,184 @@
+package graph.batch;
+
+import graph.io.GraphFiles;
+import graph.io.JsonResultWriter;
+import graph.io.LoadedGraph;
+import metrics.Metrics;
+import metrics.MetricsExporter;
+import metrics.Phase;
+import metrics.PipelineMetrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs {@link DatasetAnalysis} over many graph files at once.
+ * <p>
+ * Each file is read and parsed on a virtual thread (the I/O stage), then
+ * analyzed on a fixed pool of {@code cpuThreads} platform threads. At most
+ * {@code 2 * cpuThreads} datasets are loaded or in analysis at any time, so
+ * memory stays bounded for directories with thousands of files. Results
+ * are appended to {@code output.json} and {@code metrics.csv} as each
+ * dataset finishes, in completion order, and are not kept afterwards.
+ * A file that fails to load or analyze is reported and skipped.
+ */
+public final class BatchRunner {
+
+    /**
+     * Aggregate outcome of a batch.
+     *
+     * @param files    datasets written
+     * @param failed   datasets skipped because of an error
+     * @param vertices total vertices of the written datasets
+     * @param edges    total edges of the written datasets
+     * @param wallNs   elapsed wall-clock time
+     */
+    public record Summary(int files, int failed, long vertices, long edges, long wallNs) {
+
+        public double wallMs() {
+            return wallNs / 1_000_000.0;
+        }
+
+        public double filesPerSecond() {
+            return wallNs == 0 ? 0 : files * 1e9 / wallNs;
+        }
+
+        public double edgesPerSecond() {
+            return wallNs == 0 ? 0 : edges * 1e9 / wallNs;
+        }
+    }
+
+    private final int cpuThreads;
+
+    /** @param cpuThreads size of the analysis pool */
+    public BatchRunner(int cpuThreads) {
+        if (cpuThreads < 1) throw new IllegalArgumentException("cpuThreads must be positive");
+        this.cpuThreads = cpuThreads;
+    }
+
+    /**
+     * Graph files of a directory (JSON or binary), sorted by name, without
+     * the outputs of a previous batch.
+     */
+    public static List<Path> listDatasets(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.{json,bin}")) {
+            for (Path p : ds) {
+                if (!p.getFileName().toString().equals("output.json")) files.add(p);
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Analyzes all files and streams the results.
+     *
+     * @param files   dataset files
+     * @param outJson output.json to write ({"results": [...]})
+     * @param outCsv  metrics.csv to write
+     * @return counts and throughput
+     */
+    public Summary run(List<Path> files, Path outJson, Path outCsv) throws IOException, InterruptedException {
+        long t0 = System.nanoTime();
+        AtomicInteger failed = new AtomicInteger();
+        LongAdder vertices = new LongAdder();
+        LongAdder edges = new LongAdder();
+        Semaphore inFlight = new Semaphore(2 * cpuThreads);
+
+        try (ResultSink sink = new ResultSink(outJson, outCsv);
+             ExecutorService io = Executors.newVirtualThreadPerTaskExecutor();
+             ExecutorService cpu = Executors.newFixedThreadPool(cpuThreads)) {
+            List<CompletableFuture<Void>> pending = new ArrayList<>(files.size());
+            for (Path file : files) {
+                inFlight.acquire();
+                String name = file.getFileName().toString();
+                PipelineMetrics pm = new PipelineMetrics();
+                CompletableFuture<Void> f = CompletableFuture
+                        .supplyAsync(() -> load(file, pm), io)
+                        .thenApplyAsync(ds -> DatasetAnalysis.analyze(ds, name, pm), cpu)
+                        .thenAccept(report -> {
+                            sink.write(report);
+                            vertices.add(report.row().vertices());
+                            edges.add(report.row().edges());
+                        })
+                        .whenComplete((ok, error) -> {
+                            inFlight.release();
+                            if (error != null) {
+                                failed.incrementAndGet();
+                                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                        ? error.getCause() : error;
+                                if (cause instanceof UncheckedIOException u) cause = u.getCause();
+                                System.err.println("batch: " + name + " failed: " + cause);
+                            }
+                        });
+                pending.add(f);
+            }
+            // failures are already counted; wait for the rest
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                    .exceptionally(e -> null)
+                    .join();
+            return new Summary(sink.written(), failed.get(), vertices.sum(), edges.sum(),
+                    System.nanoTime() - t0);
+        }
+    }
+
+    private static LoadedGraph load(Path file, PipelineMetrics pm) {
+        Metrics m = pm.phase(Phase.PARSE);
+        m.start();
+        try {
+            return GraphFiles.load(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            m.stop();
+        }
+    }
+
+    /** Serializes writes from the analysis threads. */
+    private static final class ResultSink implements AutoCloseable {
+        private final JsonResultWriter json;
+        private final BufferedWriter csv;
+        private int written;
+
+        ResultSink(Path outJson, Path outCsv) throws IOException {
+            this.json = new JsonResultWriter(outJson);
+            this.csv = Files.newBufferedWriter(outCsv);
+            MetricsExporter.writeHeader(csv);
+        }
+
+        synchronized void write(DatasetAnalysis.Report report) {
+            try {
+                report.writeJson(json.generator());
+                MetricsExporter.writeRow(csv, report.row());
+                written++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        synchronized int written() {
+            return written;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try (csv) {
+                json.close();
+            }
+        }
+    }
+}
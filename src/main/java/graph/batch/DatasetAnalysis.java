@@ -0,0 +1,148 @@
+package graph.batch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.io.JsonResultWriter;
+import graph.io.LoadedGraph;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.Metrics;
+import metrics.MetricsExporter;
+import metrics.Phase;
+import metrics.PipelineMetrics;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Full pipeline on one dataset: SCC → condensation (unless the graph is
+ * already a DAG) → topo → shortest and longest paths from the dataset
+ * source. The {@link Report} streams the per-dataset object of
+ * {@code output.json} and holds the {@code metrics.csv} row.
+ * <p>
+ * A dataset in the "node" weight model runs the paths on component
+ * durations (the sum of the node weights of each component, as the
+ * {@code --node-agg} default of {@code dagsp}); the edge weights are unused.
+ * <p>
+ * Stateless; datasets may be analyzed concurrently, each with its own
+ * {@link PipelineMetrics}.
+ */
+public final class DatasetAnalysis {
+
+    /**
+     * Results of one dataset, kept in primitive form.
+     *
+     * @param weightModel  weight model of the dataset, or null
+     * @param scc          SCC partition
+     * @param topo         topological order of the DAG the paths ran on
+     *                     (condensation, or the input if it is a DAG)
+     * @param sourceComp   source in that DAG
+     * @param dist         shortest distances from the source
+     * @param criticalPath longest path from the source
+     * @param row          metrics.csv row (also holds file, size and longest length)
+     */
+    public record Report(String weightModel, SccResult scc, int[] topo, int sourceComp,
+                         int[] dist, List<Integer> criticalPath, MetricsExporter.Row row) {
+
+        /** Streams the output.json entry of this dataset. */
+        public void writeJson(JsonGenerator gen) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("file", row.file());
+            gen.writeNumberField("vertices", row.vertices());
+            gen.writeNumberField("edges", row.edges());
+            if (weightModel != null) {
+                gen.writeStringField("weight_model", weightModel);
+            }
+            JsonResultWriter.writeComponents(gen, "scc", scc);
+            JsonResultWriter.writeInts(gen, "componentTopo", topo);
+            // components → original vertices
+            JsonResultWriter.writeExpandedOrder(gen, "taskOrder", topo, scc);
+
+            gen.writeObjectFieldStart("shortest");
+            gen.writeNumberField("sourceComp", sourceComp);
+            JsonResultWriter.writeInts(gen, "dist", dist);
+            gen.writeEndObject();
+
+            gen.writeObjectFieldStart("criticalPath");
+            gen.writeNumberField("length", row.longMax());
+            gen.writeArrayFieldStart("path");
+            for (int v : criticalPath) {
+                gen.writeNumber(v);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+
+            MetricsExporter.writeJson(gen, row);
+            gen.writeEndObject();
+        }
+    }
+
+    private DatasetAnalysis() {}
+
+    /**
+     * @param ds   loaded dataset
+     * @param name file name reported in the output
+     * @param pm   metrics of this dataset (SCC, condensation, topo, SP, LP are filled)
+     */
+    public static Report analyze(LoadedGraph ds, String name, PipelineMetrics pm) {
+        CsrGraph g = ds.graph();
+        int n = ds.n();
+
+        SccResult scc = new TarjanSCC(g, pm.phase(Phase.SCC)).decompose();
+        int compCount = scc.count();
+        int[] compOf = scc.compOf();
+
+        Metrics topoM = pm.phase(Phase.TOPO);
+        int[] topo = null;
+        CsrGraph dag = g;
+        int srcComp = ds.sourceOrDefault();
+        // all singletons: the graph may already be a DAG (no self-loops)
+        if (compCount == n) {
+            topo = KahnTopologicalSort.topo(g, topoM);
+        }
+        if (topo == null || topo.length < n) {
+            Metrics condM = pm.phase(Phase.CONDENSATION);
+            condM.start();
+            dag = CondensationBuilder.buildCondensation(g, scc);
+            condM.stop();
+            topo = KahnTopologicalSort.topo(dag, topoM);
+            srcComp = compOf[srcComp];
+        }
+
+        int[] dist;
+        DAGLongestPath.LongestResult longRes;
+        if (ds.nodeModel()) {
+            // the paths run on the input itself only when it is a DAG of singletons
+            int[] duration = dag == g ? ds.nodeWeights()
+                    : CondensationBuilder.componentWeights(scc, ds.nodeWeights(), CondensationBuilder.NodeAggregation.SUM);
+            dist = DAGShortestPath.shortestFrom(srcComp, topo, dag, duration, pm.phase(Phase.SP));
+            longRes = DAGLongestPath.longestFrom(srcComp, topo, dag, duration, pm.phase(Phase.LP));
+        } else {
+            dist = DAGShortestPath.shortestFrom(srcComp, topo, dag, pm.phase(Phase.SP));
+            longRes = DAGLongestPath.longestFrom(srcComp, topo, dag, pm.phase(Phase.LP));
+        }
+
+        // farthest component; the source itself if nothing is reachable
+        int[] longDist = longRes.dist();
+        int bestV = -1;
+        int maxLen = Integer.MIN_VALUE;
+        for (int v = 0; v < longDist.length; v++) {
+            if (longDist[v] > maxLen) {
+                maxLen = longDist[v];
+                bestV = v;
+            }
+        }
+        if (maxLen == Integer.MIN_VALUE) {
+            maxLen = 0;
+            bestV = srcComp;
+        }
+        List<Integer> critPath = DAGLongestPath.rebuildPath(bestV, longRes);
+
+        MetricsExporter.Row row = new MetricsExporter.Row(name, n, ds.edgeCount(), compCount, pm, maxLen);
+        return new Report(ds.weightModel(), scc, topo, srcComp, dist, critPath, row);
+    }
+}
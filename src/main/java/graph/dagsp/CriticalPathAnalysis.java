@@ -0,0 +1,287 @@
+package graph.dagsp;
+
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+import graph.util.SCCUtils;
+import metrics.Metrics;
+import metrics.jfr.PathEvent;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Critical path method (CPM) on a weighted DAG, usually the condensation.
+ * <p>
+ * Edge weights are activity durations between events (components).
+ * Every component without predecessors starts at time 0.
+ * <ul>
+ *   <li>earliest start ES[c] = max over edges p → c of ES[p] + w;</li>
+ *   <li>project length T = max ES;</li>
+ *   <li>latest start LS[c] = min over edges c → s of LS[s] - w, or T for sinks;</li>
+ *   <li>slack = LS - ES; a component is critical if its slack is 0.</li>
+ * </ul>
+ * In the node weight model a component c also takes its own duration
+ * d[c]: an edge p → c then counts ES[p] + d[p] + w, T = max (ES + d), and
+ * sinks must start by T - d.
+ * <p>
+ * ES is computed in one forward pass and LS in one backward pass over the
+ * topological order, both O(V + E) on the out-edges only. Times are long
+ * and additions are overflow-checked.
+ */
+public final class CriticalPathAnalysis {
+
+    /**
+     * Times indexed by component or by original vertex.
+     *
+     * @param earliest earliest start
+     * @param latest   latest start
+     * @param slack    latest - earliest
+     */
+    public record Times(long[] earliest, long[] latest, long[] slack) {}
+
+    private final LongCsrGraph dag;
+    private final int[] topo;
+    private final int[] duration;
+    private final long[] earliest;
+    private final long[] latest;
+    private final long length;
+
+    private CriticalPathAnalysis(LongCsrGraph dag, int[] topo, int[] duration,
+                                 long[] earliest, long[] latest, long length) {
+        this.dag = dag;
+        this.topo = topo;
+        this.duration = duration;
+        this.earliest = earliest;
+        this.latest = latest;
+        this.length = length;
+    }
+
+    /** Analyzes an int-weight DAG (weights are widened to long). */
+    public static CriticalPathAnalysis analyze(CsrGraph dag, int[] topo, Metrics m) {
+        return analyze(LongCsrGraph.of(dag), topo, m);
+    }
+
+    /**
+     * Runs both CPM passes.
+     *
+     * @param dag  weighted DAG
+     * @param topo topological order of dag (all vertices)
+     * @param m    metrics tracker (relaxation counter: one per edge and pass)
+     * @return analysis
+     * @throws ArithmeticException if a time overflows long
+     */
+    public static CriticalPathAnalysis analyze(LongCsrGraph dag, int[] topo, Metrics m) {
+        return analyze(dag, topo, null, m);
+    }
+
+    /**
+     * Runs both CPM passes in the node weight model.
+     *
+     * @param dag      weighted DAG (edge weights are added to the durations; 0 in the node model)
+     * @param topo     topological order of dag (all vertices)
+     * @param duration duration of every vertex, e.g. from
+     *                 {@link graph.scc.CondensationBuilder#componentWeights}; null for the edge model
+     * @param m        metrics tracker (relaxation counter: one per edge and pass)
+     * @return analysis
+     * @throws ArithmeticException if a time overflows long
+     */
+    public static CriticalPathAnalysis analyze(LongCsrGraph dag, int[] topo, int[] duration, Metrics m) {
+        int n = dag.n();
+        if (topo.length != n) {
+            throw new IllegalArgumentException("topological order covers " + topo.length + " of " + n + " vertices");
+        }
+        int[] offsets = dag.structure().offsets();
+        int[] targets = dag.structure().targets();
+        long[] weights = dag.weights();
+        long[] es = new long[n];
+        long[] ls = new long[n];
+
+        PathEvent event = new PathEvent();
+        event.begin();
+        m.start();
+        // forward: ES (sources stay at 0)
+        for (int v : topo) {
+            long finish = duration == null ? es[v] : Math.addExact(es[v], duration[v]);
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int to = targets[e];
+                es[to] = Math.max(es[to], Math.addExact(finish, weights[e]));
+            }
+        }
+        long t = 0;
+        for (int v = 0; v < n; v++) {
+            t = Math.max(t, duration == null ? es[v] : Math.addExact(es[v], duration[v]));
+        }
+
+        // backward: LS (sinks at T)
+        for (int i = n - 1; i >= 0; i--) {
+            int v = topo[i];
+            long best = t;
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                best = Math.min(best, Math.subtractExact(ls[targets[e]], weights[e]));
+            }
+            ls[v] = duration == null ? best : Math.subtractExact(best, duration[v]);
+        }
+        m.addRelax(2L * dag.m()); // every edge once per pass
+        m.stop();
+        PathEvents.commit(event, "cpm", -1, 0, dag.structure(), 2L * dag.m(), true);
+        return new CriticalPathAnalysis(dag, topo, duration, es, ls, t);
+    }
+
+    /** @return project length T */
+    public long projectLength() {
+        return length;
+    }
+
+    public long earliestStart(int c) {
+        return earliest[c];
+    }
+
+    public long latestStart(int c) {
+        return latest[c];
+    }
+
+    public long slack(int c) {
+        return latest[c] - earliest[c];
+    }
+
+    public boolean isCritical(int c) {
+        return latest[c] == earliest[c];
+    }
+
+    /** @return times per component (fresh arrays) */
+    public Times componentTimes() {
+        long[] slack = new long[earliest.length];
+        for (int c = 0; c < slack.length; c++) {
+            slack[c] = latest[c] - earliest[c];
+        }
+        return new Times(earliest.clone(), latest.clone(), slack);
+    }
+
+    /**
+     * Times per original vertex: every vertex gets the times of its component.
+     *
+     * @param compOf vertex → component id
+     */
+    public Times vertexTimes(int[] compOf) {
+        int n = compOf.length;
+        long[] es = new long[n];
+        long[] ls = new long[n];
+        long[] slack = new long[n];
+        for (int v = 0; v < n; v++) {
+            int c = compOf[v];
+            es[v] = earliest[c];
+            ls[v] = latest[c];
+            slack[v] = latest[c] - earliest[c];
+        }
+        return new Times(es, ls, slack);
+    }
+
+    /**
+     * Times per original vertex for list-based SCCs.
+     *
+     * @param comps list of SCCs
+     * @param n     number of original vertices
+     */
+    public Times vertexTimes(List<List<Integer>> comps, int n) {
+        return vertexTimes(SCCUtils.buildVertexToComp(comps, n));
+    }
+
+    /**
+     * All critical paths, as component sequences from a critical start
+     * (ES = 0) to a critical end (ES = T), enumerated lazily in
+     * topological order of their start and then edge order.
+     * There may be exponentially many; each path costs O(length) to produce.
+     */
+    public Iterable<int[]> criticalPaths() {
+        return CriticalPathIterator::new;
+    }
+
+    /** An edge u → v is critical if both ends are and v starts as soon as u (plus its duration) allows. */
+    private boolean criticalEdge(int u, int e) {
+        int v = dag.target(e);
+        long finish = duration == null ? earliest[u] : earliest[u] + duration[u];
+        return isCritical(u) && isCritical(v) && finish + dag.weight(e) == earliest[v];
+    }
+
+    /** Depth-first walk over critical edges with an explicit stack. */
+    private final class CriticalPathIterator implements Iterator<int[]> {
+        private final int[] path = new int[dag.n()];
+        private final int[] nextEdge = new int[dag.n()];   // indexed by depth
+        private final boolean[] hasCriticalIn = new boolean[dag.n()];
+        private int depth;
+        private int startIdx;
+        private int[] pending;
+
+        CriticalPathIterator() {
+            for (int u = 0; u < dag.n(); u++) {
+                for (int e = dag.begin(u); e < dag.end(u); e++) {
+                    if (criticalEdge(u, e)) hasCriticalIn[dag.target(e)] = true;
+                }
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        @Override
+        public int[] next() {
+            if (pending == null) throw new NoSuchElementException();
+            int[] p = pending;
+            advance();
+            return p;
+        }
+
+        /** Moves to the next complete path, or sets pending to null. */
+        private void advance() {
+            pending = null;
+            while (true) {
+                if (depth == 0) {
+                    // next start: critical, no critical edge in
+                    while (startIdx < topo.length
+                            && !(isCritical(topo[startIdx]) && !hasCriticalIn[topo[startIdx]])) {
+                        startIdx++;
+                    }
+                    if (startIdx == topo.length) return;
+                    int s = topo[startIdx++];
+                    path[0] = s;
+                    nextEdge[0] = dag.begin(s);
+                    depth = 1;
+                    if (!hasCriticalOut(s)) {
+                        depth = 0;
+                        pending = new int[]{s};
+                        return;
+                    }
+                }
+                int u = path[depth - 1];
+                int e = nextEdge[depth - 1];
+                while (e < dag.end(u) && !criticalEdge(u, e)) e++;
+                if (e == dag.end(u)) {
+                    depth--;
+                    continue;
+                }
+                nextEdge[depth - 1] = e + 1;
+                int v = dag.target(e);
+                path[depth] = v;
+                nextEdge[depth] = dag.begin(v);
+                depth++;
+                if (!hasCriticalOut(v)) {
+                    pending = Arrays.copyOf(path, depth);
+                    depth--;
+                    return;
+                }
+            }
+        }
+
+        private boolean hasCriticalOut(int u) {
+            for (int e = dag.begin(u); e < dag.end(u); e++) {
+                if (criticalEdge(u, e)) return true;
+            }
+            return false;
+        }
+    }
+}
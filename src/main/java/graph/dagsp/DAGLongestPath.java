@@ -1,12 +1,17 @@
 package graph.dagsp;
 
-import metrics.MetricsTracker;
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+import metrics.Metrics;
+import metrics.jfr.PathEvent;
 
 import java.util.*;
 
 /**
  * Longest (critical) path algorithm for a DAG.
  * Uses dynamic programming over a topological order.
+ * The int variant throws {@link ArithmeticException} when a distance leaves
+ * the int range; use the {@link LongCsrGraph} variant for such inputs.
  */
 public final class DAGLongestPath {
 
@@ -15,6 +20,9 @@ public final class DAGLongestPath {
     /** Result structure containing distances and parent links. */
     public record LongestResult(int[] dist, int[] parent) {}
 
+    /** Long-distance result; unreachable vertices have dist Long.MIN_VALUE. */
+    public record LongLongestResult(long[] dist, int[] parent) {}
+
     /**
      * Computes the longest distances from a single source in a DAG.
      *
@@ -27,32 +35,187 @@ public final class DAGLongestPath {
     public static LongestResult longestFrom(int src,
                                             List<Integer> topo,
                                             List<List<int[]>> g,
-                                            MetricsTracker m) {
-        int n = g.size();
+                                            Metrics m) {
+        return longestFrom(src, DAGShortestPath.toArray(topo), CsrGraph.fromWeightedAdjacency(g), m);
+    }
+
+    /**
+     * Computes the longest distances from a single source on a CSR DAG.
+     *
+     * @param src  starting vertex (or component ID)
+     * @param topo topological order of g
+     * @param g    weighted DAG
+     * @param m    metrics tracker
+     * @return LongestResult(dist, parent)
+     */
+    public static LongestResult longestFrom(int src,
+                                            int[] topo,
+                                            CsrGraph g,
+                                            Metrics m) {
+        return longestFrom(src, topo, g, null, m);
+    }
+
+    /**
+     * Longest distances for the node weight model: the length of a path is
+     * the sum of its edge weights plus the weights of all vertices on it,
+     * both endpoints included (so dist[src] = nodeWeight[src]).
+     *
+     * @param src        starting vertex (or component ID)
+     * @param topo       topological order of g
+     * @param g          weighted DAG
+     * @param nodeWeight weight of every vertex; null for the edge model
+     * @param m          metrics tracker
+     * @return LongestResult(dist, parent)
+     */
+    public static LongestResult longestFrom(int src,
+                                            int[] topo,
+                                            CsrGraph g,
+                                            int[] nodeWeight,
+                                            Metrics m) {
+        int n = g.n();
+        int[] targets = g.targets();
+        int[] weights = g.weights();
         int[] dist = new int[n];
         int[] parent = new int[n];
         Arrays.fill(dist, Integer.MIN_VALUE);
         Arrays.fill(parent, -1);
-        dist[src] = 0;
+        dist[src] = nodeWeight == null ? 0 : nodeWeight[src];
 
+        PathEvent event = new PathEvent();
+        event.begin();
         m.start();
+        long relaxed = 0;
         for (int v : topo) {
             if (dist[v] == Integer.MIN_VALUE) continue; // unreachable
-            for (int[] e : g.get(v)) {
-                int to = e[0];
-                int w = e[1];
-                int nd = dist[v] + w;
+            for (int e = g.begin(v), end = g.end(v); e < end; e++) {
+                int to = targets[e];
+                long nd = (long) dist[v] + weights[e] + (nodeWeight == null ? 0 : nodeWeight[to]);
                 if (nd > dist[to]) {
-                    dist[to] = nd;
+                    if (nd > Integer.MAX_VALUE) throw DAGShortestPath.overflow(to, nd);
+                    dist[to] = (int) nd;
                     parent[to] = v;
-                    m.incRelax();
+                    relaxed++;
                 }
             }
         }
+        m.addRelax(relaxed);
         m.stop();
+        PathEvents.commit(event, "longest", src, 1, g, relaxed, false);
         return new LongestResult(dist, parent);
     }
 
+    /**
+     * Computes the longest distances from a single source on a long-weight DAG.
+     *
+     * @param src  starting vertex (or component ID)
+     * @param topo topological order of g
+     * @param g    weighted DAG
+     * @param m    metrics tracker
+     * @return LongLongestResult(dist, parent)
+     * @throws ArithmeticException if a distance overflows long
+     */
+    public static LongLongestResult longestFrom(int src,
+                                                int[] topo,
+                                                LongCsrGraph g,
+                                                Metrics m) {
+        int n = g.n();
+        int[] offsets = g.structure().offsets();
+        int[] targets = g.structure().targets();
+        long[] weights = g.weights();
+        long[] dist = new long[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, Long.MIN_VALUE);
+        Arrays.fill(parent, -1);
+        dist[src] = 0;
+
+        PathEvent event = new PathEvent();
+        event.begin();
+        m.start();
+        long relaxed = 0;
+        for (int v : topo) {
+            if (dist[v] == Long.MIN_VALUE) continue; // unreachable
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int to = targets[e];
+                long nd = Math.addExact(dist[v], weights[e]);
+                if (nd > dist[to]) {
+                    dist[to] = nd;
+                    parent[to] = v;
+                    relaxed++;
+                }
+            }
+        }
+        m.addRelax(relaxed);
+        m.stop();
+        PathEvents.commit(event, "longest", src, 1, g.structure(), relaxed, true);
+        return new LongLongestResult(dist, parent);
+    }
+
+    /**
+     * Longest path from src to dst only, swept over the topological interval
+     * [rank[src], rank[dst]] as in
+     * {@link DAGShortestPath#shortestPath(int, int, int[], int[], CsrGraph, int[], Metrics)}.
+     * Ties are broken as in {@link #longestFrom(int, int[], CsrGraph, int[], Metrics)},
+     * so the path is the one {@link #rebuildPath(int, LongestResult)} gives.
+     *
+     * @param src        starting vertex (or component ID)
+     * @param dst        target vertex (or component ID)
+     * @param topo       topological order of g
+     * @param rank       position of every vertex in topo
+     * @param g          weighted DAG
+     * @param nodeWeight weight of every vertex; null for the edge model
+     * @param m          metrics tracker
+     * @return length and vertices of a longest path, Integer.MIN_VALUE and no vertices if unreachable
+     */
+    public static PairPath longestPath(int src,
+                                       int dst,
+                                       int[] topo,
+                                       int[] rank,
+                                       CsrGraph g,
+                                       int[] nodeWeight,
+                                       Metrics m) {
+        int lo = rank[src];
+        int hi = rank[dst];
+        if (lo > hi) return new PairPath(Integer.MIN_VALUE, new int[0]);
+        int[] targets = g.targets();
+        int[] weights = g.weights();
+        int[] dist = new int[hi - lo + 1];
+        int[] parent = new int[hi - lo + 1];
+        Arrays.fill(dist, Integer.MIN_VALUE);
+        dist[0] = nodeWeight == null ? 0 : nodeWeight[src];
+        parent[0] = -1;
+
+        PathEvent event = new PathEvent();
+        event.begin();
+        m.start();
+        long relaxed = 0;
+        int pending = 1; // reached vertices of the interval not swept yet
+        for (int i = lo; i < hi && pending > 0; i++) {
+            int v = topo[i];
+            int dv = dist[i - lo];
+            if (dv == Integer.MIN_VALUE) continue; // unreachable
+            pending--;
+            for (int e = g.begin(v), end = g.end(v); e < end; e++) {
+                int to = targets[e];
+                int k = rank[to] - lo;
+                if (k > hi - lo) continue; // after dst in the order, cannot lead to it
+                long nd = (long) dv + weights[e] + (nodeWeight == null ? 0 : nodeWeight[to]);
+                if (nd > dist[k]) {
+                    if (nd > Integer.MAX_VALUE) throw DAGShortestPath.overflow(to, nd);
+                    if (dist[k] == Integer.MIN_VALUE) pending++;
+                    dist[k] = (int) nd;
+                    parent[k] = v;
+                    relaxed++;
+                }
+            }
+        }
+        m.addRelax(relaxed);
+        m.stop();
+        PathEvents.commit(event, "longest-pair", src, 1, g, relaxed, false);
+        int d = dist[hi - lo];
+        if (d == Integer.MIN_VALUE) return new PairPath(d, new int[0]);
+        return new PairPath(d, PairPath.rebuild(dst, parent, rank, lo));
+    }
+
     /**
      * Reconstructs a path from the parent array.
      *
@@ -61,8 +224,17 @@ public final class DAGLongestPath {
      * @return list of vertices along the path
      */
     public static List<Integer> rebuildPath(int target, LongestResult res) {
+        return rebuildPath(target, res.parent());
+    }
+
+    /** Reconstructs a path from a long-distance result. */
+    public static List<Integer> rebuildPath(int target, LongLongestResult res) {
+        return rebuildPath(target, res.parent());
+    }
+
+    private static List<Integer> rebuildPath(int target, int[] parent) {
         List<Integer> path = new ArrayList<>();
-        for (int v = target; v != -1; v = res.parent()[v]) {
+        for (int v = target; v != -1; v = parent[v]) {
             path.add(v);
         }
         Collections.reverse(path);
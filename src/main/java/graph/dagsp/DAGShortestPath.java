@@ -1,40 +1,436 @@
 package graph.dagsp;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import metrics.MetricsTracker;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+import metrics.Metrics;
+import metrics.NoopMetrics;
+import metrics.jfr.PathEvent;
 
 /**
  * Single-source shortest paths on DAG.
  * Expects: already have topological order.
+ * Also provides a batched multi-source variant that answers many sources
+ * in one topological sweep.
+ * <p>
+ * The int variants throw {@link ArithmeticException} when a distance would
+ * reach INF or leave the int range, instead of silently wrapping or
+ * reporting a reachable vertex as unreachable; use the {@link LongCsrGraph}
+ * variant for such inputs.
  */
 public class DAGShortestPath {
 
     public static final int INF = 1_000_000_000;
 
+    /** Reachable, but every path found so far is at least INF long. */
+    private static final int SATURATED = Integer.MAX_VALUE;
+
+    /** "Unreachable" for long distances. */
+    public static final long INF_LONG = Long.MAX_VALUE;
+
+    /** Source batches are kept at a multiple of this width (one 64-byte cache line of ints). */
+    private static final int BATCH_ALIGN = 16;
+
+    /**
+     * Distances from k sources, stored vertex-major:
+     * the distance from sources[s] to v is data[v * k + s].
+     * This keeps the k values of one vertex contiguous, so relaxing an edge
+     * is a single loop over k adjacent ints.
+     *
+     * @param sources source vertices, in row order
+     * @param n       number of vertices
+     * @param data    int[n * k] distances, INF for unreachable
+     */
+    public record DistanceMatrix(int[] sources, int n, int[] data) {
+
+        /** @return distance from the s-th source to v */
+        public int get(int s, int v) {
+            return data[v * sources.length + s];
+        }
+
+        /** @return distances from the s-th source to every vertex */
+        public int[] row(int s) {
+            int k = sources.length;
+            int[] row = new int[n];
+            for (int v = 0; v < n; v++) {
+                row[v] = data[v * k + s];
+            }
+            return row;
+        }
+
+        /** @return all rows as int[k][n] */
+        public int[][] rows() {
+            int[][] rows = new int[sources.length][];
+            for (int s = 0; s < sources.length; s++) {
+                rows[s] = row(s);
+            }
+            return rows;
+        }
+    }
+
     public static int[] shortestFrom(int src,
                                      List<Integer> topo,
                                      List<List<int[]>> g,
-                                     MetricsTracker m) {
-        int n = g.size();
+                                     Metrics m) {
+        return shortestFrom(src, toArray(topo), CsrGraph.fromWeightedAdjacency(g), m);
+    }
+
+    /**
+     * Shortest distances from src on a CSR DAG.
+     *
+     * @param src  source vertex (or component ID)
+     * @param topo topological order of g
+     * @param g    weighted DAG
+     * @param m    metrics tracker
+     * @return dist array, INF for unreachable vertices
+     * @throws ArithmeticException if a shortest distance is INF or more
+     */
+    public static int[] shortestFrom(int src,
+                                     int[] topo,
+                                     CsrGraph g,
+                                     Metrics m) {
+        return shortestFrom(src, topo, g, null, m);
+    }
+
+    /**
+     * Shortest distances for the node weight model: the length of a path is
+     * the sum of its edge weights plus the weights of all vertices on it,
+     * both endpoints included (so dist[src] = nodeWeight[src]).
+     *
+     * @param src        source vertex (or component ID)
+     * @param topo       topological order of g
+     * @param g          weighted DAG
+     * @param nodeWeight weight of every vertex, e.g.
+     *                   {@link graph.scc.CondensationBuilder#componentWeights};
+     *                   null for the edge model
+     * @param m          metrics tracker
+     * @return dist array, INF for unreachable vertices
+     * @throws ArithmeticException if a shortest distance is INF or more
+     */
+    public static int[] shortestFrom(int src,
+                                     int[] topo,
+                                     CsrGraph g,
+                                     int[] nodeWeight,
+                                     Metrics m) {
+        int n = g.n();
+        int[] targets = g.targets();
+        int[] weights = g.weights();
         int[] dist = new int[n];
         Arrays.fill(dist, INF);
-        dist[src] = 0;
+        dist[src] = nodeWeight == null ? 0 : nodeWeight[src];
 
+        PathEvent event = new PathEvent();
+        event.begin();
         m.start();
+        long relaxed = 0;
         for (int v : topo) {
             if (dist[v] == INF) continue;
-            for (int[] e : g.get(v)) {
-                int to = e[0];
-                int w = e[1];
-                int nd = dist[v] + w;
+            for (int e = g.begin(v), end = g.end(v); e < end; e++) {
+                int to = targets[e];
+                long nd = (long) dist[v] + weights[e] + (nodeWeight == null ? 0 : nodeWeight[to]);
+                if (nd >= INF) {
+                    // a shorter path may still arrive; fail only if none does
+                    if (dist[to] == INF) dist[to] = SATURATED;
+                } else if (nd < dist[to]) {
+                    if (nd < Integer.MIN_VALUE) throw overflow(to, nd);
+                    dist[to] = (int) nd;
+                    relaxed++;
+                }
+            }
+        }
+        m.addRelax(relaxed);
+        m.stop();
+        PathEvents.commit(event, "shortest", src, 1, g, relaxed, false);
+        for (int v = 0; v < n; v++) {
+            if (dist[v] == SATURATED) throw overflow(v, INF);
+        }
+        return dist;
+    }
+
+    /**
+     * Shortest distances from src on a long-weight DAG.
+     *
+     * @param src  source vertex (or component ID)
+     * @param topo topological order of g
+     * @param g    weighted DAG
+     * @param m    metrics tracker
+     * @return dist array, INF_LONG for unreachable vertices
+     * @throws ArithmeticException if a distance overflows long
+     */
+    public static long[] shortestFrom(int src,
+                                      int[] topo,
+                                      LongCsrGraph g,
+                                      Metrics m) {
+        int n = g.n();
+        int[] offsets = g.structure().offsets();
+        int[] targets = g.structure().targets();
+        long[] weights = g.weights();
+        long[] dist = new long[n];
+        Arrays.fill(dist, INF_LONG);
+        dist[src] = 0;
+
+        PathEvent event = new PathEvent();
+        event.begin();
+        m.start();
+        long relaxed = 0;
+        for (int v : topo) {
+            if (dist[v] == INF_LONG) continue;
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int to = targets[e];
+                long nd = Math.addExact(dist[v], weights[e]);
                 if (nd < dist[to]) {
                     dist[to] = nd;
-                    m.incRelax();
+                    relaxed++;
                 }
             }
         }
+        m.addRelax(relaxed);
         m.stop();
+        PathEvents.commit(event, "shortest", src, 1, g.structure(), relaxed, true);
         return dist;
     }
+
+    /**
+     * Shortest path from src to dst only.
+     * Vertices outside the topological interval [rank[src], rank[dst]]
+     * cannot lie on such a path, so the sweep covers just that interval and
+     * skips edges leaving it; working arrays are sized to the interval.
+     * It stops early once no reached vertex is left before dst.
+     *
+     * @param src        source vertex (or component ID)
+     * @param dst        target vertex (or component ID)
+     * @param topo       topological order of g
+     * @param rank       position of every vertex in topo,
+     *                   see {@link graph.topo.KahnTopologicalSort#positions(int[])}
+     * @param g          weighted DAG
+     * @param nodeWeight weight of every vertex; null for the edge model
+     * @param m          metrics tracker
+     * @return length and vertices of a shortest path, INF and no vertices if unreachable
+     * @throws ArithmeticException if the shortest distance to dst is INF or more
+     */
+    public static PairPath shortestPath(int src,
+                                        int dst,
+                                        int[] topo,
+                                        int[] rank,
+                                        CsrGraph g,
+                                        int[] nodeWeight,
+                                        Metrics m) {
+        int lo = rank[src];
+        int hi = rank[dst];
+        if (lo > hi) return new PairPath(INF, new int[0]);
+        int[] targets = g.targets();
+        int[] weights = g.weights();
+        int[] dist = new int[hi - lo + 1];
+        int[] parent = new int[hi - lo + 1];
+        Arrays.fill(dist, INF);
+        dist[0] = nodeWeight == null ? 0 : nodeWeight[src];
+        parent[0] = -1;
+
+        PathEvent event = new PathEvent();
+        event.begin();
+        m.start();
+        long relaxed = 0;
+        int pending = 1; // reached vertices of the interval not swept yet
+        for (int i = lo; i < hi && pending > 0; i++) {
+            int v = topo[i];
+            int dv = dist[i - lo];
+            if (dv == INF) continue;
+            pending--;
+            for (int e = g.begin(v), end = g.end(v); e < end; e++) {
+                int to = targets[e];
+                int k = rank[to] - lo;
+                if (k > hi - lo) continue; // after dst in the order, cannot lead to it
+                long nd = (long) dv + weights[e] + (nodeWeight == null ? 0 : nodeWeight[to]);
+                if (dist[k] == INF) pending++;
+                if (nd >= INF) {
+                    if (dist[k] == INF) dist[k] = SATURATED;
+                } else if (nd < dist[k]) {
+                    if (nd < Integer.MIN_VALUE) throw overflow(to, nd);
+                    dist[k] = (int) nd;
+                    parent[k] = v;
+                    relaxed++;
+                }
+            }
+        }
+        m.addRelax(relaxed);
+        m.stop();
+        PathEvents.commit(event, "shortest-pair", src, 1, g, relaxed, false);
+        int d = dist[hi - lo];
+        if (d == INF) return new PairPath(INF, new int[0]);
+        if (d == SATURATED) throw overflow(dst, INF);
+        return new PairPath(d, PairPath.rebuild(dst, parent, rank, lo));
+    }
+
+    static ArithmeticException overflow(int v, long value) {
+        String amount = value >= INF ? "at least " + value : String.valueOf(value);
+        return new ArithmeticException("distance to vertex " + v + " is " + amount
+                + ", outside the int distance range; use long weights");
+    }
+
+    /**
+     * Shortest distances from every source in one topological sweep, single-threaded.
+     *
+     * @see #shortestFromMany(int[], int[], CsrGraph, Metrics, int)
+     */
+    public static DistanceMatrix shortestFromMany(int[] sources,
+                                                  int[] topo,
+                                                  CsrGraph g,
+                                                  Metrics m) {
+        return shortestFromMany(sources, topo, g, m, 1);
+    }
+
+    /**
+     * Shortest distances from many sources in one pass over {@code topo}.
+     * For each edge, the distances of all sources are relaxed together in a
+     * branch-free min loop over contiguous ints, which the JIT compiles to
+     * SIMD instructions. With threads &gt; 1 the sources are split into
+     * batches that sweep the DAG in parallel, each owning its columns.
+     * The elapsed time and the relaxations (edges times sources of the
+     * batches that reached the edge's tail) are recorded in {@code m}. Weights above
+     * {@code Integer.MAX_VALUE - INF} or below 0 use a branching loop instead.
+     *
+     * @param sources source vertices (or component IDs)
+     * @param topo    topological order of g
+     * @param g       weighted DAG
+     * @param m       metrics tracker
+     * @param threads number of worker threads
+     * @return distance matrix, INF for unreachable pairs
+     */
+    public static DistanceMatrix shortestFromMany(int[] sources,
+                                                  int[] topo,
+                                                  CsrGraph g,
+                                                  Metrics m,
+                                                  int threads) {
+        int n = g.n();
+        int k = sources.length;
+        int[] dist = new int[Math.multiplyExact(n, k)];
+        Arrays.fill(dist, INF);
+        for (int s = 0; s < k; s++) {
+            dist[sources[s] * k + s] = 0;
+        }
+        // the branch-free loop computes INF + w, which must not wrap
+        boolean nonNegative = true;
+        for (int w : g.weights()) {
+            if (w < 0 || w > Integer.MAX_VALUE - INF) {
+                nonNegative = false;
+                break;
+            }
+        }
+
+        PathEvent event = new PathEvent();
+        event.begin();
+        m.start();
+        int batch = Math.max(BATCH_ALIGN, (k + threads - 1) / threads);
+        batch = (batch + BATCH_ALIGN - 1) / BATCH_ALIGN * BATCH_ALIGN;
+        // suspect[b]: batch b saw a finite distance + weight >= INF
+        boolean[] suspect = new boolean[(k + batch - 1) / batch];
+        long[] relaxed = new long[suspect.length];
+        if (threads <= 1 || batch >= k) {
+            relaxed[0] = sweep(dist, k, 0, k, topo, g, nonNegative, suspect, 0);
+        } else {
+            List<RecursiveAction> tasks = new ArrayList<>();
+            for (int lo = 0; lo < k; lo += batch) {
+                int from = lo;
+                int to = Math.min(k, lo + batch);
+                int b = lo / batch;
+                boolean nn = nonNegative;
+                tasks.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        relaxed[b] = sweep(dist, k, from, to, topo, g, nn, suspect, b);
+                    }
+                });
+            }
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        ForkJoinTask.invokeAll(tasks);
+                    }
+                });
+            } finally {
+                pool.shutdown();
+            }
+        }
+        // the matrix loses "reachable only through >= INF"; the exact
+        // single-source check decides (and throws) for suspect batches
+        for (int b = 0; b < suspect.length; b++) {
+            if (!suspect[b]) continue;
+            for (int s = b * batch; s < Math.min(k, (b + 1) * batch); s++) {
+                shortestFrom(sources[s], topo, g, NoopMetrics.INSTANCE);
+            }
+        }
+        long relaxOps = 0;
+        for (long r : relaxed) relaxOps += r;
+        m.addRelax(relaxOps);
+        m.stop();
+        PathEvents.commit(event, "shortest-many", -1, k, g, relaxOps, false);
+        return new DistanceMatrix(sources.clone(), n, dist);
+    }
+
+    /**
+     * Relaxes source columns [lo, hi) of the vertex-major matrix over the whole DAG.
+     * Sets suspect[b] if some finite distance plus an edge weight reached INF.
+     *
+     * @return relaxations done (edge × column)
+     */
+    private static long sweep(int[] dist, int k, int lo, int hi, int[] topo, CsrGraph g,
+                              boolean nonNegative, boolean[] suspect, int b) {
+        boolean overflow = false;
+        long relaxed = 0;
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        int[] weights = g.weights();
+        for (int v : topo) {
+            int vb = v * k;
+            // skip vertices no source in this batch has reached;
+            // worst is the largest finite distance, for the overflow check
+            int best = INF;
+            int worst = Integer.MIN_VALUE;
+            for (int s = lo; s < hi; s++) {
+                int d = dist[vb + s];
+                best = Math.min(best, d);
+                worst = Math.max(worst, d < INF ? d : Integer.MIN_VALUE);
+            }
+            if (best == INF) continue;
+
+            relaxed += (long) (offsets[v + 1] - offsets[v]) * (hi - lo);
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int tb = targets[e] * k;
+                int w = weights[e];
+                overflow |= (long) worst + w >= INF;
+                if (nonNegative) {
+                    // INF + w >= INF, so unreachable entries stay INF without a branch
+                    for (int s = lo; s < hi; s++) {
+                        dist[tb + s] = Math.min(dist[tb + s], dist[vb + s] + w);
+                    }
+                } else {
+                    for (int s = lo; s < hi; s++) {
+                        int d = dist[vb + s];
+                        long nd = (long) d + w;
+                        if (d != INF && nd < dist[tb + s]) {
+                            if (nd < Integer.MIN_VALUE) throw overflow(targets[e], nd);
+                            dist[tb + s] = (int) nd;
+                        }
+                    }
+                }
+            }
+        }
+        suspect[b] = overflow;
+        return relaxed;
+    }
+
+    static int[] toArray(List<Integer> topo) {
+        int[] order = new int[topo.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = topo.get(i);
+        }
+        return order;
+    }
 }
@@ -0,0 +1,224 @@
+package graph.dagsp;
+
+import graph.util.LongCsrGraph;
+import metrics.Metrics;
+import metrics.jfr.PathEvent;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * The K shortest or K longest paths from a set of sources on a weighted
+ * DAG, usually the condensation.
+ * <p>
+ * Every vertex keeps a bounded list of its K best labels (length, plus the
+ * predecessor and the predecessor's label it was extended from), sorted
+ * best first. One sweep over the topological order extends each label of
+ * a vertex along its out-edges; since the labels of a vertex are sorted, a
+ * candidate that does not make the target's full list ends that edge.
+ * Every label is a distinct path, so the labels of a vertex are its K best
+ * paths. Time O(E·K²) in the worst case (insertion into a list of K), memory
+ * three arrays of V·K entries; paths are only rebuilt when iterated, so a
+ * caller that stops early pays only for the paths it reads.
+ * <p>
+ * Labels of equal length keep their creation order, so the results do not
+ * depend on anything but the topological order. Lengths are long and
+ * additions are overflow-checked.
+ */
+public final class KPaths {
+
+    /**
+     * One path.
+     *
+     * @param length   sum of the edge weights
+     * @param vertices vertices from a source to the target
+     */
+    public record Path(long length, int[] vertices) {}
+
+    private final LongCsrGraph g;
+    private final int k;
+    private final boolean longest;
+    private final long[] length;
+    private final int[] predVertex;
+    private final int[] predLabel;
+    private final int[] count;
+
+    private KPaths(LongCsrGraph g, int k, boolean longest) {
+        this.g = g;
+        this.k = k;
+        this.longest = longest;
+        int n = g.n();
+        this.length = new long[Math.multiplyExact(n, k)];
+        this.predVertex = new int[n * k];
+        this.predLabel = new int[n * k];
+        this.count = new int[n];
+    }
+
+    /**
+     * K longest paths from the sources.
+     *
+     * @param sources distinct start vertices (a path may start at any of them)
+     * @param topo    topological order of g
+     * @param g       weighted DAG
+     * @param k       paths kept per vertex
+     * @param m       metrics tracker (relaxation counter: labels inserted)
+     * @throws ArithmeticException if a length overflows long
+     */
+    public static KPaths longest(int[] sources, int[] topo, LongCsrGraph g, int k, Metrics m) {
+        return sweep(sources, topo, g, k, true, m);
+    }
+
+    /** K shortest paths from the sources; see {@link #longest}. */
+    public static KPaths shortest(int[] sources, int[] topo, LongCsrGraph g, int k, Metrics m) {
+        return sweep(sources, topo, g, k, false, m);
+    }
+
+    private static KPaths sweep(int[] sources, int[] topo, LongCsrGraph g, int k, boolean longest, Metrics m) {
+        if (k < 1) throw new IllegalArgumentException("k must be positive");
+        KPaths kp = new KPaths(g, k, longest);
+        int[] offsets = g.structure().offsets();
+        int[] targets = g.structure().targets();
+        long[] weights = g.weights();
+
+        PathEvent event = new PathEvent();
+        event.begin();
+        m.start();
+        for (int s : sources) {
+            kp.insert(s, 0, -1, -1);
+        }
+        long relaxed = 0;
+        for (int v : topo) {
+            int labels = kp.count[v];
+            if (labels == 0) continue; // unreachable
+            int base = v * k;
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int to = targets[e];
+                for (int i = 0; i < labels; i++) {
+                    long cand = Math.addExact(kp.length[base + i], weights[e]);
+                    // later labels of v are no better: none of them fits either
+                    if (!kp.insert(to, cand, v, i)) break;
+                    relaxed++;
+                }
+            }
+        }
+        m.addRelax(relaxed);
+        m.stop();
+        PathEvents.commit(event, longest ? "k-longest" : "k-shortest", sources.length == 1 ? sources[0] : -1,
+                sources.length, g.structure(), relaxed, true);
+        return kp;
+    }
+
+    /** Inserts a label into the sorted list of v; false if the list is full of better or equal ones. */
+    private boolean insert(int v, long len, int pv, int pl) {
+        int base = v * k;
+        int c = count[v];
+        if (c == k && !better(len, length[base + k - 1])) return false;
+        int i = Math.min(c, k - 1);
+        while (i > 0 && better(len, length[base + i - 1])) {
+            length[base + i] = length[base + i - 1];
+            predVertex[base + i] = predVertex[base + i - 1];
+            predLabel[base + i] = predLabel[base + i - 1];
+            i--;
+        }
+        length[base + i] = len;
+        predVertex[base + i] = pv;
+        predLabel[base + i] = pl;
+        if (c < k) count[v] = c + 1;
+        return true;
+    }
+
+    private boolean better(long a, long b) {
+        return longest ? a > b : a < b;
+    }
+
+    /** @return number of paths found to v (at most k) */
+    public int count(int v) {
+        return count[v];
+    }
+
+    /** @return length of the i-th best path to v */
+    public long length(int v, int i) {
+        if (i >= count[v]) throw new IndexOutOfBoundsException(i);
+        return length[v * k + i];
+    }
+
+    /** @return the i-th best path to v */
+    public Path path(int v, int i) {
+        if (i >= count[v]) throw new IndexOutOfBoundsException(i);
+        int len = 0;
+        for (int u = v, l = i; u != -1; ) {
+            len++;
+            int at = u * k + l;
+            u = predVertex[at];
+            l = predLabel[at];
+        }
+        int[] vertices = new int[len];
+        for (int u = v, l = i; u != -1; ) {
+            vertices[--len] = u;
+            int at = u * k + l;
+            u = predVertex[at];
+            l = predLabel[at];
+        }
+        return new Path(length[v * k + i], vertices);
+    }
+
+    /** Best paths to one target, best first (at most k). */
+    public Iterable<Path> paths(int target) {
+        return paths(new int[]{target});
+    }
+
+    /**
+     * Best paths ending at any of the targets, best first, merged lazily
+     * (at most k per target).
+     */
+    public Iterable<Path> paths(int[] targets) {
+        return () -> new MergeIterator(targets);
+    }
+
+    /** Best paths ending at a vertex without out-edges, best first. */
+    public Iterable<Path> pathsToSinks() {
+        int sinks = 0;
+        for (int v = 0; v < g.n(); v++) {
+            if (g.begin(v) == g.end(v) && count[v] > 0) sinks++;
+        }
+        int[] targets = new int[sinks];
+        for (int v = 0, j = 0; v < g.n(); v++) {
+            if (g.begin(v) == g.end(v) && count[v] > 0) targets[j++] = v;
+        }
+        return paths(targets);
+    }
+
+    /** Heap of (vertex, label) heads, one per target; each step advances the polled target. */
+    private final class MergeIterator implements Iterator<Path> {
+        private final PriorityQueue<long[]> heads;
+
+        MergeIterator(int[] targets) {
+            // entries {vertex, label}; ties go to the smaller vertex, then label
+            heads = new PriorityQueue<>((a, b) -> {
+                long la = length[(int) a[0] * k + (int) a[1]];
+                long lb = length[(int) b[0] * k + (int) b[1]];
+                if (la != lb) return better(la, lb) ? -1 : 1;
+                return a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]);
+            });
+            for (int t : targets) {
+                if (count[t] > 0) heads.add(new long[]{t, 0});
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Path next() {
+            long[] head = heads.poll();
+            if (head == null) throw new NoSuchElementException();
+            int v = (int) head[0];
+            int i = (int) head[1];
+            if (i + 1 < count[v]) heads.add(new long[]{v, i + 1});
+            return path(v, i);
+        }
+    }
+}
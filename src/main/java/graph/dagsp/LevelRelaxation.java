@@ -0,0 +1,206 @@
+package graph.dagsp;
+
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.Metrics;
+import metrics.jfr.PathEvent;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shortest / longest paths on a DAG, relaxed level by level.
+ * <p>
+ * Vertices of one level of a {@link KahnTopologicalSort.LevelOrder} have no
+ * edges between them, so each of them can pull its distance from its
+ * predecessors (the transposed graph) independently: every vertex writes
+ * only its own dist / parent entry, and reads only entries of earlier
+ * levels, so no atomics are needed. Large levels are split across a
+ * {@link ForkJoinPool}.
+ * <p>
+ * Among predecessors giving the same best distance, the one that comes
+ * first in {@code levels.order()} becomes the parent. This is exactly the
+ * parent the push-based sweep picks, so the results equal
+ * {@link DAGShortestPath#shortestFrom(int, int[], CsrGraph, Metrics)} and
+ * {@link DAGLongestPath#longestFrom(int, int[], CsrGraph, Metrics)}
+ * run over {@code levels.order()}, including the {@link ArithmeticException}
+ * when a distance does not fit. The relaxation counter counts pulled
+ * edges from reached predecessors.
+ */
+public final class LevelRelaxation {
+
+    /** Vertices of a level handled by one task. */
+    private static final int GRAIN = 1024;
+
+    /**
+     * Distances, parents (-1 for the source and unreachable vertices) and
+     * wall time per level in nanoseconds (0 for levels before the source).
+     */
+    public record Result(int[] dist, int[] parent, long[] levelNs) {}
+
+    private final CsrGraph g;
+    private final CsrGraph rev;
+    private final KahnTopologicalSort.LevelOrder levels;
+    private final int[] rank;
+    private final int parallelism;
+
+    /**
+     * @param g           weighted DAG
+     * @param levels      level order of g (must be complete)
+     * @param parallelism number of worker threads (1 = no pool)
+     */
+    public LevelRelaxation(CsrGraph g, KahnTopologicalSort.LevelOrder levels, int parallelism) {
+        if (!levels.complete()) {
+            throw new IllegalArgumentException("graph has a cycle: level order covers "
+                    + levels.order().length + " of " + g.n() + " vertices");
+        }
+        this.g = g;
+        this.rev = g.transpose();
+        this.levels = levels;
+        this.parallelism = parallelism;
+        this.rank = new int[g.n()];
+        int[] order = levels.order();
+        for (int i = 0; i < order.length; i++) {
+            rank[order[i]] = i;
+        }
+    }
+
+    public KahnTopologicalSort.LevelOrder levels() {
+        return levels;
+    }
+
+    /**
+     * Shortest distances from src.
+     *
+     * @return dist (INF for unreachable), shortest-path parents, level timing
+     */
+    public Result shortestFrom(int src, Metrics m) {
+        return run(src, false, m);
+    }
+
+    /**
+     * Longest distances from src.
+     *
+     * @return dist (Integer.MIN_VALUE for unreachable), critical-path parents, level timing
+     */
+    public Result longestFrom(int src, Metrics m) {
+        return run(src, true, m);
+    }
+
+    private Result run(int src, boolean longest, Metrics m) {
+        int n = g.n();
+        int none = longest ? Integer.MIN_VALUE : DAGShortestPath.INF;
+        int[] dist = new int[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, none);
+        Arrays.fill(parent, -1);
+        dist[src] = 0;
+
+        int[] order = levels.order();
+        int[] levelStart = levels.levelStart();
+        long[] levelNs = new long[levels.levelCount()];
+        LongAdder relaxed = new LongAdder(); // striped, tasks add without contending
+
+        PathEvent event = new PathEvent();
+        event.begin();
+        m.start();
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            // nothing before the source's level is reachable
+            for (int l = levels.level()[src] + 1; l < levels.levelCount(); l++) {
+                long t0 = System.nanoTime();
+                int lo = levelStart[l];
+                int hi = levelStart[l + 1];
+                if (pool == null || hi - lo <= GRAIN) {
+                    relaxed.add(pull(order, lo, hi, dist, parent, longest, none));
+                } else {
+                    pool.invoke(new PullTask(order, lo, hi, dist, parent, longest, none, relaxed));
+                }
+                levelNs[l] = System.nanoTime() - t0;
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+        m.addRelax(relaxed.sum());
+        m.stop();
+        PathEvents.commit(event, longest ? "level-longest" : "level-shortest", src, 1, g, relaxed.sum(), false);
+        return new Result(dist, parent, levelNs);
+    }
+
+    /** Pulls distances for order[lo, hi); returns the number of edges pulled. */
+    private long pull(int[] order, int lo, int hi, int[] dist, int[] parent, boolean longest, int none) {
+        int[] rTargets = rev.targets();
+        int[] rWeights = rev.weights();
+        int[] rOffsets = rev.offsets();
+        long count = 0;
+        for (int i = lo; i < hi; i++) {
+            int v = order[i];
+            long best = none;
+            int bestParent = -1;
+            boolean saturated = false;
+            for (int e = rOffsets[v], end = rOffsets[v + 1]; e < end; e++) {
+                int u = rTargets[e];
+                int du = dist[u];
+                if (du == none) continue;
+                count++;
+                long nd = (long) du + rWeights[e];
+                if (!longest && nd >= DAGShortestPath.INF) {
+                    saturated = true;
+                    continue;
+                }
+                boolean better = longest ? nd > best : nd < best;
+                if (better || (nd == best && bestParent != -1 && rank[u] < rank[bestParent])) {
+                    best = nd;
+                    bestParent = u;
+                }
+            }
+            if (bestParent == -1 && saturated
+                    || best > Integer.MAX_VALUE || (bestParent != -1 && best < Integer.MIN_VALUE)) {
+                throw DAGShortestPath.overflow(v, bestParent == -1 ? DAGShortestPath.INF : best);
+            }
+            if (bestParent != -1) {
+                dist[v] = (int) best;
+                parent[v] = bestParent;
+            }
+        }
+        return count;
+    }
+
+    /** Splits one level across the pool. */
+    @SuppressWarnings("serial")
+    private final class PullTask extends RecursiveAction {
+        private final int[] order;
+        private final int lo;
+        private final int hi;
+        private final int[] dist;
+        private final int[] parent;
+        private final boolean longest;
+        private final int none;
+        private final LongAdder relaxed;
+
+        PullTask(int[] order, int lo, int hi, int[] dist, int[] parent,
+                 boolean longest, int none, LongAdder relaxed) {
+            this.order = order;
+            this.lo = lo;
+            this.hi = hi;
+            this.dist = dist;
+            this.parent = parent;
+            this.longest = longest;
+            this.none = none;
+            this.relaxed = relaxed;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= GRAIN) {
+                relaxed.add(pull(order, lo, hi, dist, parent, longest, none));
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new PullTask(order, lo, mid, dist, parent, longest, none, relaxed),
+                    new PullTask(order, mid, hi, dist, parent, longest, none, relaxed));
+        }
+    }
+}
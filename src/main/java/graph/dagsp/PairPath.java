@@ -0,0 +1,25 @@
+package graph.dagsp;
+
+/**
+ * Result of a single-pair (source → target) path query.
+ *
+ * @param length path length; {@link DAGShortestPath#INF} (shortest) or
+ *               {@code Integer.MIN_VALUE} (longest) if the target is unreachable
+ * @param path   vertices from source to target, empty if unreachable
+ */
+public record PairPath(int length, int[] path) {
+
+    /** @return true if the target is reachable from the source */
+    public boolean reachable() {
+        return path.length > 0;
+    }
+
+    /** Walks parent links back from the target; parent is indexed by topo position - lo. */
+    static int[] rebuild(int dst, int[] parent, int[] rank, int lo) {
+        int len = 0;
+        for (int v = dst; v != -1; v = parent[rank[v] - lo]) len++;
+        int[] path = new int[len];
+        for (int v = dst; v != -1; v = parent[rank[v] - lo]) path[--len] = v;
+        return path;
+    }
+}
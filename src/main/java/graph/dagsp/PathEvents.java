@@ -0,0 +1,31 @@
+package graph.dagsp;
+
+import graph.util.CsrGraph;
+import metrics.jfr.PathEvent;
+
+/** Fills and commits the JFR events of the path classes. */
+final class PathEvents {
+
+    private PathEvents() {}
+
+    /**
+     * Ends the event and commits it if the recording wants it.
+     *
+     * @param source  source vertex, or -1
+     * @param sources number of sources
+     */
+    static void commit(PathEvent event, String kind, int source, int sources,
+                       CsrGraph g, long relaxOps, boolean longWeights) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.source = source;
+            event.sources = sources;
+            event.vertices = g.n();
+            event.edges = g.m();
+            event.relaxOps = relaxOps;
+            event.longWeights = longWeights;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package graph.gen;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import graph.util.CsrGraph;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of large directed graphs with a known structure.
+ * <p>
+ * Vertices are split into components whose sizes follow the chosen
+ * distribution. Each component of size &gt; 1 gets a ring (so it is one SCC)
+ * plus random chords. Components are laid out on {@code depth} levels and
+ * every edge between components goes from a lower to a strictly higher
+ * level, so the condensation is a DAG whose longest chain has exactly
+ * {@code depth} components (one "spine" edge per component guarantees that
+ * when the edge budget allows it).
+ * <p>
+ * Edges are produced one at a time into an {@link EdgeSink}; only O(n)
+ * bookkeeping is kept, so {@link #writeJson} can emit 10^8-edge files in
+ * the dataset schema without holding the edges in memory.
+ */
+public final class GraphGenerator {
+
+    /** How component sizes are drawn. */
+    public enum SizeDistribution { UNIFORM, GEOMETRIC }
+
+    /**
+     * Generator parameters.
+     *
+     * @param n          number of vertices
+     * @param m          number of edges
+     * @param sccMin     smallest component size (1 = allow singletons)
+     * @param sccMax     largest component size
+     * @param sizes      component size distribution (geometric uses mean (min+max)/2)
+     * @param depth      number of DAG levels of the condensation
+     * @param intraRatio share of the free edge budget spent inside components
+     * @param wMin       smallest edge weight
+     * @param wMax       largest edge weight
+     * @param shuffle    randomly relabel vertices (hides the block structure)
+     * @param seed       random seed
+     */
+    public record Spec(int n, long m,
+                       int sccMin, int sccMax, SizeDistribution sizes,
+                       int depth, double intraRatio,
+                       int wMin, int wMax,
+                       boolean shuffle, long seed) {
+
+        public Spec {
+            if (n <= 0) throw new IllegalArgumentException("n must be positive");
+            if (m < 0) throw new IllegalArgumentException("m must be non-negative");
+            if (sccMin < 1 || sccMax < sccMin) throw new IllegalArgumentException("need 1 <= sccMin <= sccMax");
+            if (depth < 1) throw new IllegalArgumentException("depth must be >= 1");
+            if (intraRatio < 0 || intraRatio > 1) throw new IllegalArgumentException("intraRatio must be in [0, 1]");
+            if (wMax < wMin) throw new IllegalArgumentException("need wMin <= wMax");
+        }
+    }
+
+    /** Receives generated edges. */
+    @FunctionalInterface
+    public interface EdgeSink {
+        void edge(int u, int v, int w) throws IOException;
+    }
+
+    private final Spec spec;
+    private final SplittableRandom rnd;
+    private final int[] compStart;   // component c = vertices [compStart[c], compStart[c + 1])
+    private final int compCount;
+    private final int depth;
+    private final int[] levelStart;  // level L = components [levelStart[L], levelStart[L + 1])
+    private final int[] cyclic;      // components with more than one vertex
+    private final int[] label;       // vertex relabeling, null if not shuffled
+
+    public GraphGenerator(Spec spec) {
+        this.spec = spec;
+        this.rnd = new SplittableRandom(spec.seed());
+
+        int[] starts = new int[Math.min(spec.n(), 1024) + 1];
+        int c = 0;
+        int v = 0;
+        while (v < spec.n()) {
+            int size = Math.min(drawSize(), spec.n() - v);
+            if (c + 1 >= starts.length) starts = Arrays.copyOf(starts, Math.min(spec.n() + 1, starts.length * 2));
+            starts[c++] = v;
+            v += size;
+        }
+        starts[c] = spec.n();
+        this.compStart = Arrays.copyOf(starts, c + 1);
+        this.compCount = c;
+
+        this.depth = Math.min(spec.depth(), compCount);
+        this.levelStart = new int[depth + 1];
+        for (int l = 0; l <= depth; l++) {
+            levelStart[l] = (int) ((long) l * compCount / depth);
+        }
+
+        int cyc = 0;
+        for (int i = 0; i < compCount; i++) {
+            if (compSize(i) > 1) cyc++;
+        }
+        this.cyclic = new int[cyc];
+        for (int i = 0, k = 0; i < compCount; i++) {
+            if (compSize(i) > 1) cyclic[k++] = i;
+        }
+
+        if (spec.shuffle()) {
+            label = new int[spec.n()];
+            for (int i = 0; i < label.length; i++) label[i] = i;
+            for (int i = label.length - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int t = label[i];
+                label[i] = label[j];
+                label[j] = t;
+            }
+        } else {
+            label = null;
+        }
+    }
+
+    /** @return number of generated components (SCCs of the output) */
+    public int componentCount() {
+        return compCount;
+    }
+
+    /** @return a vertex in the first component (level 0), used as "source" */
+    public int source() {
+        return vertex(0);
+    }
+
+    /**
+     * Generates exactly spec.m() edges into sink.
+     *
+     * @throws IllegalArgumentException if m is too small for the component rings,
+     *                                  or the structure leaves no room for extra edges
+     */
+    public void generate(EdgeSink sink) throws IOException {
+        long ringEdges = 0;
+        for (int c : cyclic) ringEdges += compSize(c);
+        if (spec.m() < ringEdges) {
+            throw new IllegalArgumentException("m=" + spec.m() + " is smaller than the "
+                    + ringEdges + " ring edges needed for the requested SCC sizes");
+        }
+        long budget = spec.m();
+
+        // 1) rings make every multi-vertex component strongly connected
+        for (int c : cyclic) {
+            int lo = compStart[c];
+            int hi = compStart[c + 1];
+            for (int v = lo; v < hi; v++) {
+                sink.edge(vertex(v), vertex(v + 1 < hi ? v + 1 : lo), weight());
+            }
+        }
+        budget -= ringEdges;
+
+        // 2) spine: every component above level 0 gets an edge from the level below
+        for (int l = 1; l < depth && budget > 0; l++) {
+            for (int c = levelStart[l]; c < levelStart[l + 1] && budget > 0; c++) {
+                int a = levelStart[l - 1] + rnd.nextInt(levelStart[l] - levelStart[l - 1]);
+                sink.edge(randomVertexOf(a), randomVertexOf(c), weight());
+                budget--;
+            }
+        }
+
+        // 3) the rest: chords inside components and forward edges between levels
+        boolean canIntra = cyclic.length > 0;
+        boolean canInter = depth > 1;
+        if (budget > 0 && !canIntra && !canInter) {
+            throw new IllegalArgumentException("no room for " + budget
+                    + " more edges: all components are singletons on a single level");
+        }
+        for (; budget > 0; budget--) {
+            boolean intra = canIntra && (!canInter || rnd.nextDouble() < spec.intraRatio());
+            if (intra) {
+                int c = cyclic[rnd.nextInt(cyclic.length)];
+                sink.edge(randomVertexOf(c), randomVertexOf(c), weight());
+            } else {
+                int a = rnd.nextInt(levelStart[depth - 1]);
+                int b = levelStart[levelOf(a) + 1] + rnd.nextInt(compCount - levelStart[levelOf(a) + 1]);
+                sink.edge(randomVertexOf(a), randomVertexOf(b), weight());
+            }
+        }
+    }
+
+    /**
+     * Streams the graph to a JSON file in the dataset schema
+     * ({@code n, edges:[{u,v,w}], source, weight_model}).
+     */
+    public void writeJson(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            writeJson(out);
+        }
+    }
+
+    public void writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator gen = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeBooleanField("directed", true);
+            gen.writeNumberField("n", spec.n());
+            gen.writeArrayFieldStart("edges");
+            generate((u, v, w) -> {
+                gen.writeStartObject();
+                gen.writeNumberField("u", u);
+                gen.writeNumberField("v", v);
+                gen.writeNumberField("w", w);
+                gen.writeEndObject();
+            });
+            gen.writeEndArray();
+            gen.writeNumberField("source", source());
+            gen.writeStringField("weight_model", "edge");
+            gen.writeEndObject();
+        }
+    }
+
+    /** Generates the graph straight into CSR form (for tests and benchmarks). */
+    public CsrGraph toCsr() throws IOException {
+        if (spec.m() > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many edges for an in-memory CSR graph");
+        }
+        int m = (int) spec.m();
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        int[] k = {0};
+        generate((u, v, w) -> {
+            us[k[0]] = u;
+            vs[k[0]] = v;
+            ws[k[0]] = w;
+            k[0]++;
+        });
+        return CsrGraph.fromEdges(spec.n(), us, vs, ws, m);
+    }
+
+    private int drawSize() {
+        int lo = spec.sccMin();
+        int hi = spec.sccMax();
+        if (lo == hi) return lo;
+        return switch (spec.sizes()) {
+            case UNIFORM -> lo + rnd.nextInt(hi - lo + 1);
+            case GEOMETRIC -> {
+                // number of failures before success, p = 1 / (mean - lo + 1)
+                double p = 2.0 / (hi - lo + 2);
+                int extra = (int) Math.floor(Math.log(1 - rnd.nextDouble()) / Math.log(1 - p));
+                yield Math.min(hi, lo + extra);
+            }
+        };
+    }
+
+    private int levelOf(int c) {
+        // inverse of levelStart[l] = l * compCount / depth
+        int l = (int) ((long) c * depth / compCount);
+        while (l + 1 < depth && levelStart[l + 1] <= c) l++;
+        while (levelStart[l] > c) l--;
+        return l;
+    }
+
+    private int compSize(int c) {
+        return compStart[c + 1] - compStart[c];
+    }
+
+    private int randomVertexOf(int c) {
+        return vertex(compStart[c] + rnd.nextInt(compSize(c)));
+    }
+
+    private int vertex(int v) {
+        return label == null ? v : label[v];
+    }
+
+    private int weight() {
+        return spec.wMin() + rnd.nextInt(spec.wMax() - spec.wMin() + 1);
+    }
+}
@@ -0,0 +1,214 @@
+package graph.io;
+
+import graph.util.CsrGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary graph file, read through {@link FileChannel#map}.
+ * <p>
+ * Layout (all values little-endian int32):
+ * <pre>
+ * header  : magic "DAAG", version, flags, n, m, source, weightModel, reserved
+ * offsets : n + 1 ints
+ * targets : m ints
+ * weights : m ints
+ * nodes   : n ints, only if FLAG_NODE_WEIGHTS is set
+ * </pre>
+ * The arrays are exactly the {@link CsrGraph} arrays, so opening a file is a
+ * bulk copy out of the page cache with no parsing.
+ */
+public final class BinaryGraphFormat {
+
+    /** "DAAG" read as a little-endian int. */
+    public static final int MAGIC = 0x47414144;
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 8 * Integer.BYTES;
+
+    public static final int FLAG_DIRECTED = 1;
+    public static final int FLAG_HAS_SOURCE = 1 << 1;
+    public static final int FLAG_NODE_WEIGHTS = 1 << 2;
+
+    private static final String[] WEIGHT_MODELS = {null, "edge", "node"};
+
+    // largest mapped window, kept a multiple of 4 bytes
+    private static final long MAX_WINDOW = Integer.MAX_VALUE & ~3L;
+
+    private BinaryGraphFormat() {}
+
+    /** @return true if the file starts with the binary magic number */
+    public static boolean isBinary(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < Integer.BYTES) return false;
+            ByteBuffer head = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            ch.read(head, 0);
+            return head.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes a dataset in binary form.
+     *
+     * @param data dataset to write
+     * @param file output path (overwritten)
+     * @throws IllegalArgumentException if the dataset has long weights outside the int range
+     */
+    public static void write(LoadedGraph data, Path file) throws IOException {
+        CsrGraph g = data.graph();
+        if (data.longGraph() != null) {
+            long[] lw = data.longGraph().weights();
+            for (int e = 0; e < g.m(); e++) {
+                if (lw[e] != (int) lw[e]) {
+                    throw new IllegalArgumentException("weight " + lw[e] + " does not fit the int weights of the binary format");
+                }
+            }
+        }
+        int flags = (data.directed() ? FLAG_DIRECTED : 0)
+                | (data.source() != null ? FLAG_HAS_SOURCE : 0)
+                | (data.nodeWeights() != null ? FLAG_NODE_WEIGHTS : 0);
+
+        try (FileChannel ch = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(flags)
+                    .putInt(g.n())
+                    .putInt(g.m())
+                    .putInt(data.sourceOrDefault())
+                    .putInt(weightModelCode(data.weightModel()))
+                    .putInt(0);
+            writeInts(ch, buf, g.offsets(), g.n() + 1);
+            writeInts(ch, buf, g.targets(), g.m());
+            writeInts(ch, buf, g.weights(), g.m());
+            if (data.nodeWeights() != null) {
+                writeInts(ch, buf, data.nodeWeights(), g.n());
+            }
+            buf.flip();
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+
+    /**
+     * Opens a binary graph file.
+     *
+     * @param file input path
+     * @return dataset with the graph in CSR form
+     * @throws IOException if the file is truncated or its arrays do not form a graph
+     */
+    public static LoadedGraph read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES) {
+                throw new IOException(file + ": too short for a graph header");
+            }
+            IntBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asIntBuffer();
+            if (header.get(0) != MAGIC) {
+                throw new IOException(file + ": not a binary graph file");
+            }
+            if (header.get(1) != VERSION) {
+                throw new IOException(file + ": unsupported version " + header.get(1));
+            }
+            int flags = header.get(2);
+            int n = header.get(3);
+            int m = header.get(4);
+            int source = header.get(5);
+            int model = header.get(6);
+
+            if (n < 0 || m < 0) {
+                throw new IOException(file + ": bad header (n = " + n + ", m = " + m + ")");
+            }
+            boolean hasNodes = (flags & FLAG_NODE_WEIGHTS) != 0;
+            long expected = HEADER_BYTES + ((long) n + 1 + 2L * m + (hasNodes ? n : 0)) * Integer.BYTES;
+            if (ch.size() < expected) {
+                throw new IOException(file + ": truncated (" + ch.size() + " < " + expected + " bytes)");
+            }
+
+            long pos = HEADER_BYTES;
+            int[] offsets = readInts(ch, pos, n + 1);
+            pos += (long) (n + 1) * Integer.BYTES;
+            int[] targets = readInts(ch, pos, m);
+            pos += (long) m * Integer.BYTES;
+            int[] weights = readInts(ch, pos, m);
+            pos += (long) m * Integer.BYTES;
+            int[] nodeWeights = hasNodes ? readInts(ch, pos, n) : null;
+            validate(file, n, m, offsets, targets);
+
+            return new LoadedGraph(new CsrGraph(n, offsets, targets, weights),
+                    (flags & FLAG_DIRECTED) != 0,
+                    weightModelName(model),
+                    (flags & FLAG_HAS_SOURCE) != 0 ? source : null,
+                    null,
+                    nodeWeights);
+        }
+    }
+
+    /** Rejects arrays that do not form a CSR graph, so a corrupt file fails here and not in an algorithm. */
+    private static void validate(Path file, int n, int m, int[] offsets, int[] targets) throws IOException {
+        if (offsets[0] != 0) {
+            throw new IOException(file + ": corrupt offsets (offsets[0] = " + offsets[0] + ")");
+        }
+        for (int v = 0; v < n; v++) {
+            if (offsets[v + 1] < offsets[v]) {
+                throw new IOException(file + ": corrupt offsets (decreasing at vertex " + v + ")");
+            }
+        }
+        if (offsets[n] != m) {
+            throw new IOException(file + ": corrupt offsets (offsets[n] = " + offsets[n] + ", m = " + m + ")");
+        }
+        for (int e = 0; e < m; e++) {
+            if (targets[e] < 0 || targets[e] >= n) {
+                throw new IOException(file + ": corrupt edge " + e + " (target " + targets[e] + " out of range)");
+            }
+        }
+    }
+
+    private static int[] readInts(FileChannel ch, long pos, int count) throws IOException {
+        int[] out = new int[count];
+        int done = 0;
+        while (done < count) {
+            long bytes = Math.min(MAX_WINDOW, (long) (count - done) * Integer.BYTES);
+            MappedByteBuffer window = ch.map(FileChannel.MapMode.READ_ONLY, pos, bytes);
+            int len = (int) (bytes / Integer.BYTES);
+            window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(out, done, len);
+            done += len;
+            pos += bytes;
+        }
+        return out;
+    }
+
+    private static void writeInts(FileChannel ch, ByteBuffer buf, int[] src, int count) throws IOException {
+        for (int i = 0; i < count; ) {
+            if (buf.remaining() < Integer.BYTES) {
+                buf.flip();
+                while (buf.hasRemaining()) ch.write(buf);
+                buf.clear();
+            }
+            int len = Math.min(count - i, buf.remaining() / Integer.BYTES);
+            buf.asIntBuffer().put(src, i, len);
+            buf.position(buf.position() + len * Integer.BYTES);
+            i += len;
+        }
+    }
+
+    private static int weightModelCode(String model) {
+        for (int i = 1; i < WEIGHT_MODELS.length; i++) {
+            if (WEIGHT_MODELS[i].equals(model)) return i;
+        }
+        return 0;
+    }
+
+    private static String weightModelName(int code) {
+        return (code > 0 && code < WEIGHT_MODELS.length) ? WEIGHT_MODELS[code] : null;
+    }
+}
@@ -0,0 +1,28 @@
+package graph.io;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Opens a dataset in either supported format, detected by content:
+ * the binary format ({@link BinaryGraphFormat}) or JSON ({@link JsonGraphLoader}).
+ */
+public final class GraphFiles {
+
+    private GraphFiles() {}
+
+    public static LoadedGraph load(Path file) throws IOException {
+        return load(file, false);
+    }
+
+    /**
+     * @param longWeights keep JSON weights as long; binary files store int
+     *                    weights, which {@link LoadedGraph#asLong()} widens
+     */
+    public static LoadedGraph load(Path file, boolean longWeights) throws IOException {
+        if (BinaryGraphFormat.isBinary(file)) {
+            return BinaryGraphFormat.read(file);
+        }
+        return JsonGraphLoader.load(file, longWeights);
+    }
+}
@@ -0,0 +1,189 @@
+package graph.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Streaming loader for the dataset JSON format:
+ * <pre>
+ * { "directed": true, "n": 6, "edges": [ {"u": 0, "v": 1, "w": 3}, ... ],
+ *   "source": 0, "weight_model": "edge" }
+ * </pre>
+ * Reads tokens with Jackson's {@link JsonParser} straight into primitive
+ * edge arrays, without building a JsonNode tree. Fields may come in any order;
+ * if "n" is missing, it is taken as (max vertex id + 1).
+ * Edge weight 0 is treated as 1, as in the original runner, except in the
+ * "node" weight model, where durations come from a "node_weights" array
+ * (one int per vertex) and edges may carry 0 or no weight.
+ * Weights outside the int range are rejected unless long weights are
+ * requested, in which case they are kept in a {@link LongCsrGraph}.
+ */
+public final class JsonGraphLoader {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private JsonGraphLoader() {}
+
+    public static LoadedGraph load(Path file) throws IOException {
+        return load(file, false);
+    }
+
+    public static LoadedGraph load(InputStream in) throws IOException {
+        return load(in, false);
+    }
+
+    /**
+     * @param longWeights keep weights as long (see {@link LoadedGraph#longGraph()})
+     */
+    public static LoadedGraph load(Path file, boolean longWeights) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in, longWeights);
+        }
+    }
+
+    public static LoadedGraph load(InputStream in, boolean longWeights) throws IOException {
+        try (JsonParser p = FACTORY.createParser(in)) {
+            return parse(p, longWeights);
+        }
+    }
+
+    private static LoadedGraph parse(JsonParser p, boolean longWeights) throws IOException {
+        if (p.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("expected JSON object at " + p.currentLocation());
+        }
+        int n = -1;
+        boolean directed = true;
+        String weightModel = null;
+        Integer source = null;
+        int[] nodeWeights = null;
+        EdgeBuffer edges = new EdgeBuffer(longWeights);
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken value = p.nextToken();
+            switch (field) {
+                case "n" -> n = p.getIntValue();
+                case "directed" -> directed = p.getBooleanValue();
+                case "weight_model" -> weightModel = p.getText();
+                case "source" -> source = (value == JsonToken.VALUE_NULL) ? null : p.getIntValue();
+                case "edges" -> readEdges(p, edges);
+                case "node_weights" -> nodeWeights = readInts(p);
+                default -> p.skipChildren();
+            }
+        }
+
+        int vertices = Math.max(n, edges.maxVertex + 1);
+        if (n >= 0 && vertices > n) {
+            throw new IOException("edge endpoint " + edges.maxVertex + " out of range for n=" + n);
+        }
+        boolean nodeModel = "node".equals(weightModel);
+        if (nodeModel && nodeWeights == null) {
+            throw new IOException("weight_model \"node\" needs a \"node_weights\" array");
+        }
+        if (nodeWeights != null && nodeWeights.length != vertices) {
+            throw new IOException("node_weights has " + nodeWeights.length + " entries for " + vertices + " vertices");
+        }
+        // "weight_model" may follow "edges", so the 0 → 1 rule is applied last
+        if (!nodeModel) edges.zeroToOne();
+        if (longWeights) {
+            LongCsrGraph lg = LongCsrGraph.fromEdges(vertices, edges.us, edges.vs, edges.lws, edges.size);
+            return new LoadedGraph(lg.structure(), directed, weightModel, source, lg, nodeWeights);
+        }
+        CsrGraph g = CsrGraph.fromEdges(vertices, edges.us, edges.vs, edges.ws, edges.size);
+        return new LoadedGraph(g, directed, weightModel, source, null, nodeWeights);
+    }
+
+    private static void readEdges(JsonParser p, EdgeBuffer edges) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("\"edges\" must be an array at " + p.currentLocation());
+        }
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            int u = -1;
+            int v = -1;
+            long w = 0;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "u" -> u = p.getIntValue();
+                    case "v" -> v = p.getIntValue();
+                    case "w" -> w = p.getLongValue();
+                    default -> p.skipChildren();
+                }
+            }
+            if (u < 0 || v < 0) {
+                throw new IOException("edge without valid u/v at " + p.currentLocation());
+            }
+            if (!edges.longWeights && w != (int) w) {
+                throw new IOException("weight " + w + " of edge " + u + "->" + v
+                        + " exceeds the int range; load with long weights at " + p.currentLocation());
+            }
+            edges.add(u, v, w);
+        }
+    }
+
+    private static int[] readInts(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("expected an array at " + p.currentLocation());
+        }
+        int[] out = new int[16];
+        int size = 0;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (size == out.length) out = Arrays.copyOf(out, size * 2);
+            out[size++] = p.getIntValue();
+        }
+        return Arrays.copyOf(out, size);
+    }
+
+    /** Growable parallel primitive arrays for edges (int or long weights). */
+    private static final class EdgeBuffer {
+        final boolean longWeights;
+        int[] us = new int[16];
+        int[] vs = new int[16];
+        int[] ws;
+        long[] lws;
+        int size = 0;
+        int maxVertex = -1;
+
+        EdgeBuffer(boolean longWeights) {
+            this.longWeights = longWeights;
+            if (longWeights) lws = new long[16];
+            else ws = new int[16];
+        }
+
+        void add(int u, int v, long w) {
+            if (size == us.length) {
+                int cap = us.length * 2;
+                us = Arrays.copyOf(us, cap);
+                vs = Arrays.copyOf(vs, cap);
+                if (longWeights) lws = Arrays.copyOf(lws, cap);
+                else ws = Arrays.copyOf(ws, cap);
+            }
+            us[size] = u;
+            vs[size] = v;
+            if (longWeights) lws[size] = w;
+            else ws[size] = (int) w;
+            size++;
+            maxVertex = Math.max(maxVertex, Math.max(u, v));
+        }
+
+        void zeroToOne() {
+            for (int i = 0; i < size; i++) {
+                if (longWeights) {
+                    if (lws[i] == 0) lws[i] = 1;
+                } else if (ws[i] == 0) {
+                    ws[i] = 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package graph.io;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import graph.scc.SccResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Streams an {@code output.json} file ({"results": [dataset, ...]}) through
+ * a Jackson {@link JsonGenerator}: every dataset object is written field by
+ * field, and arrays straight from the primitive results, so no node tree or
+ * boxed list is built. Output uses the default pretty printer, as before.
+ * <p>
+ * Not thread-safe; callers serialize access to {@link #generator()}.
+ */
+public final class JsonResultWriter implements Closeable {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final JsonGenerator gen;
+
+    /** Creates the file and opens the "results" array. */
+    public JsonResultWriter(Path file) throws IOException {
+        this.gen = FACTORY.createGenerator(file.toFile(), JsonEncoding.UTF8);
+        gen.useDefaultPrettyPrinter();
+        gen.writeStartObject();
+        gen.writeArrayFieldStart("results");
+    }
+
+    /** @return generator positioned inside the "results" array */
+    public JsonGenerator generator() {
+        return gen;
+    }
+
+    /** Closes the "results" array and the file. */
+    @Override
+    public void close() throws IOException {
+        try (gen) {
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    /** Writes {@code field: [values...]}. */
+    public static void writeInts(JsonGenerator gen, String field, int[] values) throws IOException {
+        gen.writeFieldName(field);
+        gen.writeArray(values, 0, values.length);
+    }
+
+    /** Writes {@code field: [{"id", "size", "vertices"}, ...]}, one object per component. */
+    public static void writeComponents(JsonGenerator gen, String field, SccResult scc) throws IOException {
+        int[] members = scc.members();
+        int[] start = scc.compStart();
+        gen.writeArrayFieldStart(field);
+        for (int c = 0; c < scc.count(); c++) {
+            gen.writeStartObject();
+            gen.writeNumberField("id", c);
+            gen.writeNumberField("size", scc.size(c));
+            gen.writeFieldName("vertices");
+            gen.writeArray(members, start[c], scc.size(c));
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    /** Writes the members of the components in the given order as one array. */
+    public static void writeExpandedOrder(JsonGenerator gen, String field, int[] compOrder, SccResult scc)
+            throws IOException {
+        int[] members = scc.members();
+        int[] start = scc.compStart();
+        gen.writeArrayFieldStart(field);
+        for (int c : compOrder) {
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                gen.writeNumber(members[i]);
+            }
+        }
+        gen.writeEndArray();
+    }
+}
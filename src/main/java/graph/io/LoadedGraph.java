@@ -0,0 +1,49 @@
+package graph.io;
+
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+
+/**
+ * Parsed dataset: header fields plus the graph in CSR form.
+ *
+ * @param graph       graph in CSR form (int weights saturated if loaded with long weights)
+ * @param directed    "directed" flag of the dataset
+ * @param weightModel "weight_model" of the dataset (may be null)
+ * @param source      "source" vertex of the dataset (may be null)
+ * @param longGraph   the same graph with long weights, or null if loaded with int weights
+ * @param nodeWeights "node_weights" of the dataset (one duration per vertex), or null
+ */
+public record LoadedGraph(CsrGraph graph,
+                          boolean directed,
+                          String weightModel,
+                          Integer source,
+                          LongCsrGraph longGraph,
+                          int[] nodeWeights) {
+
+    public LoadedGraph(CsrGraph graph, boolean directed, String weightModel, Integer source) {
+        this(graph, directed, weightModel, source, null, null);
+    }
+
+    /** @return true for the "node" weight model (durations on vertices) */
+    public boolean nodeModel() {
+        return "node".equals(weightModel);
+    }
+
+    /** @return the long-weight graph, widening int weights if it was loaded with int weights */
+    public LongCsrGraph asLong() {
+        return longGraph != null ? longGraph : LongCsrGraph.of(graph);
+    }
+
+    public int n() {
+        return graph.n();
+    }
+
+    public int edgeCount() {
+        return graph.m();
+    }
+
+    /** @return source vertex, 0 if the dataset has none */
+    public int sourceOrDefault() {
+        return source != null ? source : 0;
+    }
+}
@@ -0,0 +1,246 @@
+package graph.io;
+
+import graph.scc.SccResult;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered plain-text output of results, in the formats of
+ * {@code List.toString} / {@code Arrays.toString} ("[a, b, c]"), or as
+ * CSV rows with a header line (the {@code csv*} methods).
+ * <p>
+ * Numbers are formatted into a reused char buffer and components are read
+ * straight from {@link SccResult#members()}, so printing a result with
+ * millions of entries builds no boxed lists and no large strings.
+ * I/O errors are rethrown as {@link UncheckedIOException}.
+ */
+public final class TextResultWriter implements Flushable, AutoCloseable {
+
+    private static final int BUFFER = 1 << 16;
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Writer out;
+    private final char[] digits = new char[20];
+
+    public TextResultWriter(Writer out) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, BUFFER);
+    }
+
+    /** Writes UTF-8 to a stream. Call {@link #flush()} when done; {@link #close()} closes the stream. */
+    public static TextResultWriter to(OutputStream out) {
+        return new TextResultWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    /** Writes text followed by a newline. */
+    public TextResultWriter line(String text) {
+        write(text);
+        newLine();
+        return this;
+    }
+
+    /** Writes text without a newline. */
+    public TextResultWriter text(String text) {
+        write(text);
+        return this;
+    }
+
+    /** Writes a number without a newline. */
+    public TextResultWriter number(long x) {
+        writeLong(x);
+        return this;
+    }
+
+    /** Writes {@code label + Arrays.toString(values)} and a newline. */
+    public TextResultWriter ints(String label, int[] values) {
+        write(label);
+        write('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) write(", ");
+            writeLong(values[i]);
+        }
+        write(']');
+        newLine();
+        return this;
+    }
+
+    /** Writes {@code label + Arrays.toString(values)} and a newline. */
+    public TextResultWriter longs(String label, long[] values) {
+        write(label);
+        write('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) write(", ");
+            writeLong(values[i]);
+        }
+        write(']');
+        newLine();
+        return this;
+    }
+
+    /** Writes one line "c: [v1, v2, ...]" per component. */
+    public TextResultWriter components(SccResult scc) {
+        int[] members = scc.members();
+        int[] start = scc.compStart();
+        for (int c = 0; c < scc.count(); c++) {
+            writeLong(c);
+            write(": [");
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                if (i > start[c]) write(", ");
+                writeLong(members[i]);
+            }
+            write(']');
+            newLine();
+        }
+        return this;
+    }
+
+    /**
+     * Writes the members of the components in the given order as one list,
+     * i.e. the vertex order derived from a component order.
+     */
+    public TextResultWriter expandedOrder(String label, int[] compOrder, SccResult scc) {
+        int[] members = scc.members();
+        int[] start = scc.compStart();
+        write(label);
+        write('[');
+        boolean first = true;
+        for (int c : compOrder) {
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                if (!first) write(", ");
+                first = false;
+                writeLong(members[i]);
+            }
+        }
+        write(']');
+        newLine();
+        return this;
+    }
+
+    /** CSV: header "component,vertex", then one row per vertex, grouped by component. */
+    public TextResultWriter csvComponents(SccResult scc) {
+        int[] members = scc.members();
+        int[] start = scc.compStart();
+        write("component,vertex");
+        newLine();
+        for (int c = 0; c < scc.count(); c++) {
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                writeLong(c);
+                write(',');
+                writeLong(members[i]);
+                newLine();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * CSV: header "index,names...", then row i "i,columns[0][i],columns[1][i],...".
+     *
+     * @param index   name of the first column (the row number)
+     * @param names   names of the value columns
+     * @param columns value columns, all of the same length
+     */
+    public TextResultWriter csvRows(String index, String[] names, int[]... columns) {
+        csvHeader(index, names, columns.length);
+        int rows = columns.length == 0 ? 0 : columns[0].length;
+        for (int i = 0; i < rows; i++) {
+            writeLong(i);
+            for (int[] col : columns) {
+                write(',');
+                writeLong(col[i]);
+            }
+            newLine();
+        }
+        return this;
+    }
+
+    /** Long-valued form of {@link #csvRows(String, String[], int[][])}. */
+    public TextResultWriter csvRows(String index, String[] names, long[]... columns) {
+        csvHeader(index, names, columns.length);
+        int rows = columns.length == 0 ? 0 : columns[0].length;
+        for (int i = 0; i < rows; i++) {
+            writeLong(i);
+            for (long[] col : columns) {
+                write(',');
+                writeLong(col[i]);
+            }
+            newLine();
+        }
+        return this;
+    }
+
+    private void csvHeader(String index, String[] names, int columns) {
+        if (names.length != columns) throw new IllegalArgumentException(names.length + " names for " + columns + " columns");
+        write(index);
+        for (String name : names) {
+            write(',');
+            write(name);
+        }
+        newLine();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Flushes and closes the underlying writer. */
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void newLine() {
+        write(NEWLINE);
+    }
+
+    private void writeLong(long x) {
+        if (x == Long.MIN_VALUE) {
+            write(Long.toString(x));
+            return;
+        }
+        int pos = digits.length;
+        boolean negative = x < 0;
+        if (negative) x = -x;
+        do {
+            digits[--pos] = (char) ('0' + x % 10);
+            x /= 10;
+        } while (x != 0);
+        if (negative) digits[--pos] = '-';
+        try {
+            out.write(digits, pos, digits.length - pos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(String s) {
+        try {
+            out.write(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(char c) {
+        try {
+            out.write(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
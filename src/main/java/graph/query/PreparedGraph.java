@@ -0,0 +1,267 @@
+package graph.query;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.PairPath;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.scc.TransitiveReduction;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.ConcurrentMetrics;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.NoopMetrics;
+import metrics.Phase;
+import metrics.PipelineMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A graph with all query-independent work done once:
+ * SCC partition, vertex → component map, condensation DAG and its
+ * topological order. Per-source shortest / longest path results are kept
+ * in a bounded LRU cache keyed by source component, since every vertex of
+ * a component has the same distances on the condensation.
+ * <p>
+ * Cached arrays are shared between callers and must not be modified.
+ * Cache hits and misses are counted in {@link #cacheMetrics()}; path
+ * computations (cache misses) are timed into the SP / LP phases of
+ * {@link #metrics()} and {@link #missLatency()}.
+ * Methods are safe to call from several threads.
+ */
+public final class PreparedGraph {
+
+    private final CsrGraph graph;
+    private final SccResult scc;
+    private final CsrGraph dag;
+    private final CsrGraph reduced;
+    private final int[] topo;
+    private final int[] topoRank;
+
+    private final PipelineMetrics metrics;
+    private final Metrics cacheMetrics = new ConcurrentMetrics();
+    private final LatencyHistogram missLatency = new LatencyHistogram();
+
+    private volatile ReachabilityIndex reachability;
+
+    private final LruCache<int[]> shortest;
+    private final LruCache<DAGLongestPath.LongestResult> longest;
+
+    private PreparedGraph(CsrGraph graph, SccResult scc, PipelineMetrics metrics, int cacheCapacity,
+                          int reductionThreads) {
+        this.graph = graph;
+        this.scc = scc;
+        this.metrics = metrics;
+        Metrics cm = metrics.phase(Phase.CONDENSATION);
+        cm.start();
+        this.dag = CondensationBuilder.buildCondensation(graph, scc);
+        cm.stop();
+        if (reductionThreads > 0) {
+            Metrics rm = metrics.phase(Phase.REDUCTION);
+            rm.start();
+            int[] order = KahnTopologicalSort.topo(dag, NoopMetrics.INSTANCE);
+            this.reduced = TransitiveReduction.reduce(dag, order, reductionThreads);
+            rm.stop();
+        } else {
+            this.reduced = dag;
+        }
+        // same reachability, so an order of the reduced DAG is an order of dag
+        this.topo = KahnTopologicalSort.topo(reduced, metrics.phase(Phase.TOPO));
+        this.topoRank = KahnTopologicalSort.positions(topo);
+        this.shortest = new LruCache<>(cacheCapacity);
+        this.longest = new LruCache<>(cacheCapacity);
+    }
+
+    /**
+     * Prepares a graph using iterative Tarjan for the SCC step.
+     *
+     * @param g             graph
+     * @param cacheCapacity max cached sources per path kind
+     */
+    public static PreparedGraph prepare(CsrGraph g, int cacheCapacity) {
+        PipelineMetrics pm = PipelineMetrics.concurrent();
+        SccResult scc = new TarjanSCC(g, pm.phase(Phase.SCC), true).decompose();
+        return new PreparedGraph(g, scc, pm, cacheCapacity, 0);
+    }
+
+    /**
+     * Prepares a graph from an SCC partition computed elsewhere
+     * (e.g. by the parallel engine). Condensation and topo are timed into
+     * the given phases, and so are later path queries: pass
+     * {@link PipelineMetrics#concurrent()} if queries run on several threads.
+     */
+    public static PreparedGraph prepare(CsrGraph g, SccResult scc, PipelineMetrics metrics, int cacheCapacity) {
+        return new PreparedGraph(g, scc, metrics, cacheCapacity, 0);
+    }
+
+    /**
+     * Like {@link #prepare(CsrGraph, SccResult, PipelineMetrics, int)}, and
+     * also computes the transitive reduction of the condensation (timed
+     * into the REDUCTION phase). The topological order and the
+     * reachability index are then built on the reduced DAG; path queries
+     * keep using the full weighted condensation, whose path lengths the
+     * reduction does not preserve.
+     *
+     * @param reductionThreads worker threads of the reduction
+     */
+    public static PreparedGraph prepareReduced(CsrGraph g, SccResult scc, PipelineMetrics metrics,
+                                               int cacheCapacity, int reductionThreads) {
+        return new PreparedGraph(g, scc, metrics, cacheCapacity, Math.max(1, reductionThreads));
+    }
+
+    public CsrGraph graph() {
+        return graph;
+    }
+
+    public SccResult scc() {
+        return scc;
+    }
+
+    /** @return vertex → component id */
+    public int[] compOf() {
+        return scc.compOf();
+    }
+
+    /** @return weighted condensation DAG */
+    public CsrGraph condensation() {
+        return dag;
+    }
+
+    /**
+     * @return transitive reduction of the condensation if prepared with
+     *         {@link #prepareReduced}, otherwise the condensation itself
+     */
+    public CsrGraph reduced() {
+        return reduced;
+    }
+
+    /** @return topological order of the condensation */
+    public int[] topo() {
+        return topo;
+    }
+
+    /** @return position of every component in {@link #topo()} */
+    public int[] topoRank() {
+        return topoRank;
+    }
+
+    /** @return per-phase metrics of the preparation */
+    public PipelineMetrics metrics() {
+        return metrics;
+    }
+
+    public Metrics sccMetrics() {
+        return metrics.phase(Phase.SCC);
+    }
+
+    public Metrics topoMetrics() {
+        return metrics.phase(Phase.TOPO);
+    }
+
+    /** @return hit / miss counters of the result caches */
+    public Metrics cacheMetrics() {
+        return cacheMetrics;
+    }
+
+    /** @return durations of the path computations done on cache misses */
+    public LatencyHistogram missLatency() {
+        return missLatency;
+    }
+
+    /**
+     * Shortest distances on the condensation from the given source component.
+     *
+     * @param srcComp source component id
+     * @return dist over components (shared, do not modify)
+     */
+    public int[] shortestFrom(int srcComp) {
+        int[] cached = lookup(shortest, srcComp);
+        if (cached != null) return cached;
+        long t0 = System.nanoTime();
+        int[] dist = DAGShortestPath.shortestFrom(srcComp, topo, dag, metrics.phase(Phase.SP));
+        missLatency.record(System.nanoTime() - t0);
+        return store(shortest, srcComp, dist);
+    }
+
+    /**
+     * Longest distances and parents on the condensation from the given source component.
+     *
+     * @param srcComp source component id
+     * @return result (shared, do not modify)
+     */
+    public DAGLongestPath.LongestResult longestFrom(int srcComp) {
+        DAGLongestPath.LongestResult cached = lookup(longest, srcComp);
+        if (cached != null) return cached;
+        long t0 = System.nanoTime();
+        DAGLongestPath.LongestResult res = DAGLongestPath.longestFrom(srcComp, topo, dag, metrics.phase(Phase.LP));
+        missLatency.record(System.nanoTime() - t0);
+        return store(longest, srcComp, res);
+    }
+
+    /**
+     * Reachability index over the condensation (its reduction, if
+     * prepared reduced), built on first use with the default closure budget.
+     */
+    public ReachabilityIndex reachability() {
+        ReachabilityIndex r = reachability;
+        if (r == null) {
+            synchronized (this) {
+                r = reachability;
+                if (r == null) reachability = r = ReachabilityIndex.build(reduced, topo);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Shortest path between two components, swept over their topological
+     * interval only (not cached; timed into the SP phase).
+     */
+    public PairPath shortestPath(int srcComp, int dstComp) {
+        return DAGShortestPath.shortestPath(srcComp, dstComp, topo, topoRank, dag, null, metrics.phase(Phase.SP));
+    }
+
+    /**
+     * Longest path between two components, swept over their topological
+     * interval only (not cached; timed into the LP phase).
+     */
+    public PairPath longestPath(int srcComp, int dstComp) {
+        return DAGLongestPath.longestPath(srcComp, dstComp, topo, topoRank, dag, null, metrics.phase(Phase.LP));
+    }
+
+    private <V> V lookup(LruCache<V> cache, int key) {
+        synchronized (cache) {
+            V v = cache.get(key);
+            if (v != null) cacheMetrics.incCacheHit();
+            else cacheMetrics.incCacheMiss();
+            return v;
+        }
+    }
+
+    // computed outside the lock; if two threads race on the same key, the first result wins
+    private static <V> V store(LruCache<V> cache, int key, V value) {
+        synchronized (cache) {
+            V prev = cache.putIfAbsent(key, value);
+            return prev != null ? prev : value;
+        }
+    }
+
+    /** Access-ordered map that evicts the least recently used entry. */
+    @SuppressWarnings("serial")
+    private static final class LruCache<V> extends LinkedHashMap<Integer, V> {
+        private final int capacity;
+
+        LruCache(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package graph.query;
+
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.PairPath;
+import graph.io.TextResultWriter;
+import graph.scc.SccResult;
+import metrics.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Line-based query protocol over a {@link PreparedGraph}, so that the graph
+ * is loaded, decomposed and sorted once and every request only pays for
+ * its own answer.
+ * <p>
+ * Requests, one per line:
+ * <pre>
+ *   scc                  SCC count and the members of every component
+ *   topo                 topological order of the components and derived task order
+ *   dagsp &lt;src&gt;          shortest / longest distances and critical path from a vertex
+ *   path &lt;src&gt; &lt;dst&gt;     shortest and longest path between two vertices
+ *   reach &lt;a&gt; &lt;b&gt; ...    whether a can reach b, for one or more pairs (one line per pair)
+ *   stats                request count and latency per command, path cache hits / misses
+ *   quit                 ends the session
+ * </pre>
+ * Answers use the text of the one-shot CLI modes and end with an empty
+ * line; a bad request is answered with an "error: ..." line (and the empty
+ * line), and is not counted in the latency. So is a path query whose
+ * distances overflow the int weights.
+ * Sessions on a socket run on virtual threads and share the prepared graph
+ * and its path caches. Request latency (parsing to the end of the answer,
+ * excluding the final flush) is recorded per command.
+ */
+public final class QueryServer {
+
+    /** Request kinds, in the order of the "stats" answer. */
+    public enum Command { SCC, TOPO, DAGSP, PATH, REACH, STATS }
+
+    private final PreparedGraph pg;
+    private final Map<Command, LatencyHistogram> latency = new EnumMap<>(Command.class);
+
+    public QueryServer(PreparedGraph pg) {
+        this.pg = pg;
+        for (Command c : Command.values()) {
+            latency.put(c, new LatencyHistogram());
+        }
+    }
+
+    /** @return latency of the answered requests of one kind */
+    public LatencyHistogram latency(Command c) {
+        return latency.get(c);
+    }
+
+    /**
+     * Accepts clients until the channel is closed, one virtual thread per
+     * session. Returns once every open session has ended.
+     *
+     * @param server bound TCP or Unix domain socket channel
+     */
+    public void serve(ServerSocketChannel server) throws IOException {
+        try (ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                SocketChannel client;
+                try {
+                    client = server.accept();
+                } catch (ClosedChannelException e) {
+                    return;
+                }
+                sessions.submit(() -> session(client));
+            }
+        }
+    }
+
+    private void session(SocketChannel client) {
+        try (client) {
+            serve(Channels.newInputStream(client), Channels.newOutputStream(client));
+        } catch (IOException | UncheckedIOException e) {
+            // the client went away; other sessions are unaffected
+        }
+    }
+
+    /**
+     * Answers requests read from in until "quit" or end of input.
+     *
+     * @return number of requests answered
+     */
+    public int serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        TextResultWriter w = TextResultWriter.to(out);
+        int answered = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty()) continue;
+            if (line.equals("quit")) break;
+            handle(line, w);
+            w.flush();
+            answered++;
+        }
+        w.flush();
+        return answered;
+    }
+
+    /** Answers one request line into out (not flushed). */
+    public void handle(String request, TextResultWriter out) {
+        long t0 = System.nanoTime();
+        String[] parts = request.strip().split("\\s+");
+        Command cmd;
+        try {
+            cmd = Command.valueOf(parts[0].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            out.line("error: unknown command " + parts[0]).line("");
+            return;
+        }
+        try {
+            switch (cmd) {
+                case SCC -> writeScc(pg.scc(), out);
+                case TOPO -> writeTopo(pg.topo(), pg.scc(), out);
+                case DAGSP -> {
+                    int c = pg.compOf()[vertex(parts, 1)];
+                    writePaths(pg.shortestFrom(c), pg.longestFrom(c), out);
+                }
+                case PATH -> writePath(vertex(parts, 1), vertex(parts, 2), out);
+                case REACH -> writeReach(parts, out);
+                case STATS -> writeStats(out);
+            }
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // bad request, or distances outside the int range: the session goes on
+            out.line("error: " + e.getMessage()).line("");
+            return;
+        }
+        out.line("");
+        latency.get(cmd).record(System.nanoTime() - t0);
+    }
+
+    private int vertex(String[] parts, int i) {
+        if (parts.length <= i) throw new IllegalArgumentException(parts[0] + ": missing vertex");
+        int v;
+        try {
+            v = Integer.parseInt(parts[i]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(parts[0] + ": not a vertex: " + parts[i]);
+        }
+        if (v < 0 || v >= pg.graph().n()) {
+            throw new IllegalArgumentException(parts[0] + ": vertex " + v + " out of range [0, " + pg.graph().n() + ")");
+        }
+        return v;
+    }
+
+    private void writePath(int src, int dst, TextResultWriter out) {
+        int cs = pg.compOf()[src];
+        int cd = pg.compOf()[dst];
+        PairPath shortest = pg.shortestPath(cs, cd);
+        writePair(shortest, shortest.reachable() ? pg.longestPath(cs, cd) : shortest, out);
+    }
+
+    private void writeReach(String[] parts, TextResultWriter out) {
+        if (parts.length < 3 || parts.length % 2 == 0) {
+            throw new IllegalArgumentException("reach: expected pairs of vertices");
+        }
+        int pairs = (parts.length - 1) / 2;
+        int[] from = new int[pairs];
+        int[] to = new int[pairs];
+        int[] compOf = pg.compOf();
+        for (int i = 0; i < pairs; i++) {
+            from[i] = compOf[vertex(parts, 1 + 2 * i)];
+            to[i] = compOf[vertex(parts, 2 + 2 * i)];
+        }
+        boolean[] yes = pg.reachability().canReach(from, to);
+        for (int i = 0; i < pairs; i++) {
+            out.line(parts[1 + 2 * i] + " -> " + parts[2 + 2 * i] + ": " + yes[i]);
+        }
+    }
+
+    private void writeStats(TextResultWriter out) {
+        for (Command c : Command.values()) {
+            LatencyHistogram h = latency.get(c);
+            out.line(String.format(Locale.ROOT, "%s: count=%d p50_us<=%.1f p99_us<=%.1f",
+                    c.name().toLowerCase(Locale.ROOT), h.count(),
+                    h.percentileNs(0.5) / 1000.0, h.percentileNs(0.99) / 1000.0));
+        }
+        out.line("cache: hits=" + pg.cacheMetrics().getCacheHits()
+                + ", misses=" + pg.cacheMetrics().getCacheMisses());
+    }
+
+    /** Writes "SCC count = N" and one line per component. */
+    public static void writeScc(SccResult scc, TextResultWriter out) {
+        out.text("SCC count = ").number(scc.count()).line("");
+        out.components(scc);
+    }
+
+    /** Writes the component order and the task order derived from it. */
+    public static void writeTopo(int[] topo, SccResult scc, TextResultWriter out) {
+        out.ints("Topo (components): ", topo);
+        out.expandedOrder("Derived tasks: ", topo, scc);
+    }
+
+    /** Writes the shortest and longest path between two vertices, or "Unreachable". */
+    public static void writePair(PairPath shortest, PairPath longest, TextResultWriter out) {
+        if (!shortest.reachable()) {
+            out.line("Unreachable");
+            return;
+        }
+        out.line("Shortest distance: " + shortest.length());
+        out.ints("Shortest path (components): ", shortest.path());
+        out.line("Longest distance: " + longest.length());
+        out.ints("Longest path (components): ", longest.path());
+    }
+
+    /** Writes shortest / longest distances from one source and the longest (critical) path. */
+    public static void writePaths(int[] dist, DAGLongestPath.LongestResult lr, TextResultWriter out) {
+        // Shortest path in DAG
+        out.ints("Shortest distances: ", dist);
+
+        // Longest (critical) path
+        int[] longDist = lr.dist();
+        out.ints("Longest distances: ", longDist);
+
+        // Find the critical path
+        int best = Integer.MIN_VALUE;
+        int target = -1;
+        for (int i = 0; i < longDist.length; i++) {
+            if (longDist[i] > best) {
+                best = longDist[i];
+                target = i;
+            }
+        }
+        if (target != -1) {
+            out.line("Critical path (components): " + DAGLongestPath.rebuildPath(target, lr));
+            out.line("Critical length: " + best);
+        }
+    }
+}
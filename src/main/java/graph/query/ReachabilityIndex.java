@@ -0,0 +1,271 @@
+package graph.query;
+
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * "Can A reach B?" on a DAG (typically the condensation), answered without
+ * a path computation.
+ * <p>
+ * Every query first tries constant-time cuts:
+ * <ul>
+ *   <li>topological position: A can only reach B if A comes first;</li>
+ *   <li>level (longest path in edges from a source): every edge raises it,
+ *       so A can only reach B if level[A] &lt; level[B];</li>
+ *   <li>interval labels from one DFS over the DAG: B inside A's DFS-tree
+ *       interval means reachable, and B's label [low, post] not nested in
+ *       A's means unreachable (the GRAIL labeling).</li>
+ * </ul>
+ * If the full transitive closure fits the memory budget (one bit per pair,
+ * bits indexed by topological position), it is built once and every query
+ * is a bit test. Otherwise the queries the cuts leave open fall back to a
+ * DFS from A that prunes with the same cuts.
+ * <p>
+ * The index is immutable after construction and safe to query from
+ * several threads.
+ */
+public final class ReachabilityIndex {
+
+    /** Default closure budget: 64 MiB, i.e. a closure for up to ~23 000 vertices. */
+    public static final long DEFAULT_BUDGET_BYTES = 64L << 20;
+
+    /** Batches at least this large are answered in parallel. */
+    private static final int PARALLEL_BATCH = 1 << 14;
+
+    private final CsrGraph dag;
+    private final int n;
+    private final int[] rank;
+    private final int[] level;
+    private final int[] pre;
+    private final int[] post;
+    private final int[] low;
+    /** closure[v] has bit rank[w] set iff v reaches w; null if over budget. */
+    private final long[][] closure;
+    private final long buildNs;
+
+    /** Per-thread DFS marks for the fallback search: mark[v] == stamp means visited. */
+    private final ThreadLocal<Marks> marks;
+
+    private static final class Marks {
+        final int[] mark;
+        final int[] stack;
+        int stamp;
+
+        Marks(int n) {
+            mark = new int[n];
+            stack = new int[n];
+        }
+    }
+
+    private ReachabilityIndex(CsrGraph dag, int[] topo, long budgetBytes) {
+        long t0 = System.nanoTime();
+        this.dag = dag;
+        this.n = dag.n();
+        if (topo.length != n) throw new IllegalArgumentException("graph has a cycle");
+        this.rank = KahnTopologicalSort.positions(topo);
+        this.level = levels(dag, topo);
+        this.pre = new int[n];
+        this.post = new int[n];
+        this.low = new int[n];
+        label(topo);
+        this.closure = closureBytes(n) <= budgetBytes ? closure(topo) : null;
+        this.marks = ThreadLocal.withInitial(() -> new Marks(n));
+        this.buildNs = System.nanoTime() - t0;
+    }
+
+    /**
+     * Builds the index with the default closure budget.
+     *
+     * @param dag  DAG
+     * @param topo complete topological order of dag
+     */
+    public static ReachabilityIndex build(CsrGraph dag, int[] topo) {
+        return build(dag, topo, DEFAULT_BUDGET_BYTES);
+    }
+
+    /**
+     * Builds the index.
+     *
+     * @param dag         DAG
+     * @param topo        complete topological order of dag
+     * @param budgetBytes memory allowed for the transitive closure; 0 keeps
+     *                    only the labels (5 ints per vertex)
+     */
+    public static ReachabilityIndex build(CsrGraph dag, int[] topo, long budgetBytes) {
+        return new ReachabilityIndex(dag, topo, budgetBytes);
+    }
+
+    /** @return bytes a full closure of n vertices takes */
+    public static long closureBytes(int n) {
+        return (long) n * ((n + 63) >>> 6) * Long.BYTES;
+    }
+
+    /** @return true if queries are answered from the full closure */
+    public boolean hasClosure() {
+        return closure != null;
+    }
+
+    /** @return approximate size of the index */
+    public long memoryBytes() {
+        return 5L * n * Integer.BYTES + (closure != null ? closureBytes(n) : 0);
+    }
+
+    /** @return construction time */
+    public long buildNs() {
+        return buildNs;
+    }
+
+    /**
+     * @param a source vertex
+     * @param b target vertex
+     * @return true if there is a path a → b (every vertex reaches itself)
+     */
+    public boolean canReach(int a, int b) {
+        if (a == b) return true;
+        if (rank[a] > rank[b] || level[a] >= level[b]) return false;
+        if (closure != null) {
+            int r = rank[b];
+            return (closure[a][r >>> 6] & (1L << r)) != 0;
+        }
+        if (treeDescendant(a, b)) return true;
+        if (!nested(a, b)) return false;
+        return search(a, b);
+    }
+
+    /**
+     * Answers many queries; large batches run in parallel.
+     *
+     * @param from source of each query
+     * @param to   target of each query
+     * @return answer of each query
+     */
+    public boolean[] canReach(int[] from, int[] to) {
+        if (from.length != to.length) throw new IllegalArgumentException("from and to differ in length");
+        boolean[] out = new boolean[from.length];
+        IntStream range = IntStream.range(0, from.length);
+        if (from.length >= PARALLEL_BATCH) range = range.parallel();
+        range.forEach(i -> out[i] = canReach(from[i], to[i]));
+        return out;
+    }
+
+    private boolean treeDescendant(int a, int b) {
+        return pre[a] <= pre[b] && post[b] <= post[a];
+    }
+
+    /** Label of b nested in label of a: necessary for a → b. */
+    private boolean nested(int a, int b) {
+        return low[a] <= low[b] && post[b] <= post[a];
+    }
+
+    /** DFS from a, entering only vertices that pass the cuts for b. */
+    private boolean search(int a, int b) {
+        Marks m = marks.get();
+        int stamp = ++m.stamp;
+        if (stamp == 0) {
+            // wrapped around: forget the old marks
+            Arrays.fill(m.mark, 0);
+            stamp = m.stamp = 1;
+        }
+        int[] mark = m.mark;
+        int[] stack = m.stack;
+        int[] targets = dag.targets();
+        int top = 0;
+        stack[top++] = a;
+        mark[a] = stamp;
+        while (top > 0) {
+            int v = stack[--top];
+            for (int e = dag.begin(v), end = dag.end(v); e < end; e++) {
+                int w = targets[e];
+                if (w == b) return true;
+                if (mark[w] == stamp) continue;
+                mark[w] = stamp;
+                if (level[w] >= level[b] || !nested(w, b)) continue;
+                if (treeDescendant(w, b)) return true;
+                stack[top++] = w;
+            }
+        }
+        return false;
+    }
+
+    /** Longest path in edges from any source, in one pass over topo. */
+    private static int[] levels(CsrGraph dag, int[] topo) {
+        int[] level = new int[dag.n()];
+        int[] targets = dag.targets();
+        for (int v : topo) {
+            for (int e = dag.begin(v), end = dag.end(v); e < end; e++) {
+                int w = targets[e];
+                if (level[w] <= level[v]) level[w] = level[v] + 1;
+            }
+        }
+        return level;
+    }
+
+    /**
+     * Iterative DFS from every unvisited vertex in topo order:
+     * pre / post numbers of the DFS forest, and low[v] = the smallest post
+     * number reachable from v (v's successors finish before v in a DAG).
+     */
+    private void label(int[] topo) {
+        int[] targets = dag.targets();
+        int[] stack = new int[n];
+        int[] cursor = new int[n];
+        boolean[] seen = new boolean[n];
+        int preCount = 0;
+        int postCount = 0;
+        for (int root : topo) {
+            if (seen[root]) continue;
+            int top = 0;
+            stack[top++] = root;
+            seen[root] = true;
+            pre[root] = preCount++;
+            cursor[root] = dag.begin(root);
+            low[root] = Integer.MAX_VALUE;
+            while (top > 0) {
+                int v = stack[top - 1];
+                if (cursor[v] < dag.end(v)) {
+                    int w = targets[cursor[v]++];
+                    if (!seen[w]) {
+                        seen[w] = true;
+                        pre[w] = preCount++;
+                        cursor[w] = dag.begin(w);
+                        low[w] = Integer.MAX_VALUE;
+                        stack[top++] = w;
+                    } else if (low[w] < low[v]) {
+                        low[v] = low[w]; // w already finished
+                    }
+                    continue;
+                }
+                top--;
+                post[v] = postCount++;
+                if (post[v] < low[v]) low[v] = post[v];
+                if (top > 0) {
+                    int parent = stack[top - 1];
+                    if (low[v] < low[parent]) low[parent] = low[v];
+                }
+            }
+        }
+    }
+
+    /** Transitive closure in reverse topo order; successors only set bits after their own position. */
+    private long[][] closure(int[] topo) {
+        int words = (n + 63) >>> 6;
+        long[][] rows = new long[n][words];
+        int[] targets = dag.targets();
+        for (int i = n - 1; i >= 0; i--) {
+            int v = topo[i];
+            long[] row = rows[v];
+            row[i >>> 6] |= 1L << i;
+            for (int e = dag.begin(v), end = dag.end(v); e < end; e++) {
+                int w = targets[e];
+                long[] succ = rows[w];
+                for (int k = rank[w] >>> 6; k < words; k++) {
+                    row[k] |= succ[k];
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -1,16 +1,38 @@
 package graph.scc;
 
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+import graph.util.SCCUtils;
+import metrics.jfr.CondensationEvent;
+
 import java.util.*;
 
 /**
  * Utility class that builds a condensation graph (SCC → DAG).
  * Each strongly connected component becomes a single vertex.
  * The result is always a Directed Acyclic Graph (DAG).
+ * <p>
+ * All variants share one single-pass builder: vertices are grouped by
+ * component, and parallel edges are merged with two int[compCount] stamp
+ * arrays instead of a hash set/map, so nothing is boxed. For every
+ * component, edges appear in the order they are first met while scanning
+ * its vertices in increasing id order (deterministic, independent of hashing).
  */
 public final class CondensationBuilder {
 
     private CondensationBuilder() {}
 
+    /** Unweighted and min-weight condensation DAGs built together. */
+    public record Condensation(List<List<Integer>> dag, List<List<int[]>> dagW) {}
+
+    /** How vertex durations combine into a component duration. */
+    public enum NodeAggregation {
+        /** all tasks of the cycle run one after another */
+        SUM,
+        /** all tasks of the cycle run in parallel */
+        MAX
+    }
+
     /**
      * Builds an unweighted condensation graph.
      *
@@ -20,37 +42,8 @@ public final class CondensationBuilder {
      */
     public static List<List<Integer>> buildCondensation(List<List<Integer>> adj,
                                                         List<List<Integer>> comps) {
-        int n = adj.size();
-        int compCount = comps.size();
-
-        // vertex -> component id
-        int[] compOf = new int[n];
-        for (int cid = 0; cid < compCount; cid++) {
-            for (int v : comps.get(cid)) {
-                compOf[v] = cid;
-            }
-        }
-
-        List<List<Integer>> dag = new ArrayList<>();
-        for (int i = 0; i < compCount; i++) {
-            dag.add(new ArrayList<>());
-        }
-
-        // prevent parallel edges between same components
-        Set<Long> seen = new HashSet<>();
-
-        for (int v = 0; v < n; v++) {
-            int a = compOf[v];
-            for (int to : adj.get(v)) {
-                int b = compOf[to];
-                if (a == b) continue; // skip internal SCC edges
-                long key = (((long) a) << 32) | (b & 0xffffffffL);
-                if (seen.add(key)) {
-                    dag.get(a).add(b);
-                }
-            }
-        }
-        return dag;
+        int[] compOf = SCCUtils.buildVertexToComp(comps, adj.size());
+        return build(CsrGraph.fromAdjacency(adj), compOf, comps.size()).toAdjacency();
     }
 
     /**
@@ -65,43 +58,215 @@ public final class CondensationBuilder {
     public static List<List<int[]>> buildWeightedCondensation(List<List<Integer>> adj,
                                                               List<List<int[]>> adjW,
                                                               List<List<Integer>> comps) {
-        int n = adj.size();
-        int compCount = comps.size();
+        int[] compOf = SCCUtils.buildVertexToComp(comps, adj.size());
+        return build(CsrGraph.fromWeightedAdjacency(adjW), compOf, comps.size()).toWeightedAdjacency();
+    }
 
-        int[] compOf = new int[n];
-        for (int cid = 0; cid < compCount; cid++) {
-            for (int v : comps.get(cid)) {
-                compOf[v] = cid;
+    /**
+     * Builds the unweighted and the min-weight condensation in one pass.
+     *
+     * @param adjW  weighted adjacency list: adjW[v] = list of {to, weight}
+     * @param comps list of SCCs
+     * @return both DAGs; they have the same edges in the same order
+     */
+    public static Condensation buildBoth(List<List<int[]>> adjW,
+                                         List<List<Integer>> comps) {
+        int[] compOf = SCCUtils.buildVertexToComp(comps, adjW.size());
+        CsrGraph dag = build(CsrGraph.fromWeightedAdjacency(adjW), compOf, comps.size());
+        return new Condensation(dag.toAdjacency(), dag.toWeightedAdjacency());
+    }
+
+    /**
+     * Builds the weighted condensation of a CSR graph.
+     * The result doubles as the unweighted DAG (ignore its weights).
+     *
+     * @param g   original graph
+     * @param scc SCC partition of g
+     * @return condensation DAG with scc.count() vertices
+     */
+    public static CsrGraph buildCondensation(CsrGraph g, SccResult scc) {
+        return build(g, scc.compOf(), scc.count());
+    }
+
+    /**
+     * Single-pass condensation builder.
+     * Parallel edges between the same pair of components are merged,
+     * keeping the minimum weight.
+     *
+     * @param g         original graph
+     * @param compOf    vertex → component id (e.g. from {@link SCCUtils#buildVertexToComp})
+     * @param compCount number of components
+     * @return condensation DAG with compCount vertices
+     */
+    public static CsrGraph build(CsrGraph g, int[] compOf, int compCount) {
+        CondensationEvent event = new CondensationEvent();
+        event.begin();
+
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        int[] weights = g.weights();
+        int[] compStart = new int[compCount + 1];
+        int[] cursor = new int[compCount];
+        int[] members = groupByComponent(g.n(), compOf, compCount, compStart, cursor);
+
+        int[] dOffsets = new int[compCount + 1];
+        int[] dTargets = new int[g.m()];
+        int[] dWeights = new int[g.m()];
+
+        // lastSrc[b] == a means edge a→b was already emitted at slot[b];
+        // reuse the cursor array for slots
+        int[] lastSrc = new int[compCount];
+        int[] slot = cursor;
+        Arrays.fill(lastSrc, -1);
+
+        int pos = 0;
+        for (int a = 0; a < compCount; a++) {
+            dOffsets[a] = pos;
+            for (int i = compStart[a]; i < compStart[a + 1]; i++) {
+                int v = members[i];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int b = compOf[targets[e]];
+                    if (a == b) continue; // skip internal SCC edges
+                    int w = weights[e];
+                    if (lastSrc[b] != a) {
+                        lastSrc[b] = a;
+                        slot[b] = pos;
+                        dTargets[pos] = b;
+                        dWeights[pos] = w;
+                        pos++;
+                    } else if (w < dWeights[slot[b]]) {
+                        dWeights[slot[b]] = w;
+                    }
+                }
             }
         }
+        dOffsets[compCount] = pos;
+        CsrGraph dag = new CsrGraph(compCount,
+                dOffsets,
+                pos == dTargets.length ? dTargets : Arrays.copyOf(dTargets, pos),
+                pos == dWeights.length ? dWeights : Arrays.copyOf(dWeights, pos));
+        commit(event, g, compCount, pos, false);
+        return dag;
+    }
 
-        List<List<int[]>> dagW = new ArrayList<>();
-        for (int i = 0; i < compCount; i++) {
-            dagW.add(new ArrayList<>());
+    /**
+     * Aggregates vertex durations per component without building a DAG,
+     * for a graph whose condensation already exists.
+     *
+     * @param scc         SCC partition
+     * @param nodeWeights duration of every vertex
+     * @param agg         SUM or MAX over the vertices of a component
+     * @return aggregated duration of every component
+     * @throws ArithmeticException if a SUM overflows int
+     */
+    public static int[] componentWeights(SccResult scc, int[] nodeWeights, NodeAggregation agg) {
+        boolean sum = agg == NodeAggregation.SUM;
+        int[] members = scc.members();
+        int[] start = scc.compStart();
+        int[] compWeight = new int[scc.count()];
+        for (int c = 0; c < scc.count(); c++) {
+            int w = sum ? 0 : Integer.MIN_VALUE;
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                int d = nodeWeights[members[i]];
+                w = sum ? Math.addExact(w, d) : Math.max(w, d);
+            }
+            compWeight[c] = w;
         }
+        return compWeight;
+    }
+
+    /**
+     * Builds the min-weight condensation of a long-weight graph.
+     * Same edges, in the same order, as {@link #build(CsrGraph, int[], int)}
+     * on its structure.
+     *
+     * @param g   original graph
+     * @param scc SCC partition of g.structure()
+     * @return condensation DAG with scc.count() vertices
+     */
+    public static LongCsrGraph buildCondensation(LongCsrGraph g, SccResult scc) {
+        CondensationEvent event = new CondensationEvent();
+        event.begin();
+        int compCount = scc.count();
+        int[] compOf = scc.compOf();
+        CsrGraph s = g.structure();
+        int[] offsets = s.offsets();
+        int[] targets = s.targets();
+        long[] weights = g.weights();
+        int[] compStart = new int[compCount + 1];
+        int[] slot = new int[compCount];
+        int[] members = groupByComponent(s.n(), compOf, compCount, compStart, slot);
 
-        // (a,b) → minWeight
-        Map<Long, Integer> best = new HashMap<>();
+        int[] dOffsets = new int[compCount + 1];
+        int[] dTargets = new int[s.m()];
+        long[] dWeights = new long[s.m()];
+        int[] lastSrc = new int[compCount];
+        Arrays.fill(lastSrc, -1);
 
-        for (int v = 0; v < n; v++) {
-            int a = compOf[v];
-            for (int[] e : adjW.get(v)) {
-                int to = e[0];
-                int w = e[1];
-                int b = compOf[to];
-                if (a == b) continue;
-                long key = (((long) a) << 32) | (b & 0xffffffffL);
-                best.merge(key, w, Math::min);
+        int pos = 0;
+        for (int a = 0; a < compCount; a++) {
+            dOffsets[a] = pos;
+            for (int i = compStart[a]; i < compStart[a + 1]; i++) {
+                int v = members[i];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int b = compOf[targets[e]];
+                    if (a == b) continue;
+                    long w = weights[e];
+                    if (lastSrc[b] != a) {
+                        lastSrc[b] = a;
+                        slot[b] = pos;
+                        dTargets[pos] = b;
+                        dWeights[pos] = w;
+                        pos++;
+                    } else if (w < dWeights[slot[b]]) {
+                        dWeights[slot[b]] = w;
+                    }
+                }
             }
         }
+        dOffsets[compCount] = pos;
+        int[] t = Arrays.copyOf(dTargets, pos);
+        long[] w = Arrays.copyOf(dWeights, pos);
+        int[] iw = new int[pos];
+        for (int e = 0; e < pos; e++) {
+            iw[e] = LongCsrGraph.saturate(w[e]);
+        }
+        LongCsrGraph dag = new LongCsrGraph(new CsrGraph(compCount, dOffsets, t, iw), w);
+        commit(event, s, compCount, pos, true);
+        return dag;
+    }
 
-        // convert to adjacency list
-        for (Map.Entry<Long, Integer> e : best.entrySet()) {
-            long key = e.getKey();
-            int a = (int) (key >> 32);
-            int b = (int) (key & 0xffffffffL);
-            dagW.get(a).add(new int[]{b, e.getValue()});
+    /** Ends the event and commits it if the recording wants it. */
+    private static void commit(CondensationEvent event, CsrGraph g, int compCount, int dagEdges,
+                               boolean longWeights) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.vertices = g.n();
+            event.edges = g.m();
+            event.components = compCount;
+            event.dagEdges = dagEdges;
+            event.longWeights = longWeights;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counting-sorts vertices by component, increasing vertex id within a group.
+     * Fills compStart (length compCount + 1) and returns the grouped vertices;
+     * cursor (length compCount) is scratch space.
+     */
+    private static int[] groupByComponent(int n, int[] compOf, int compCount, int[] compStart, int[] cursor) {
+        for (int v = 0; v < n; v++) {
+            compStart[compOf[v] + 1]++;
+        }
+        for (int c = 0; c < compCount; c++) {
+            compStart[c + 1] += compStart[c];
+        }
+        int[] members = new int[n];
+        System.arraycopy(compStart, 0, cursor, 0, compCount);
+        for (int v = 0; v < n; v++) {
+            members[cursor[compOf[v]]++] = v;
         }
-        return dagW;
+        return members;
     }
 }
@@ -0,0 +1,521 @@
+package graph.scc;
+
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.Metrics;
+import metrics.NoopMetrics;
+
+import java.util.Arrays;
+
+/**
+ * SCC partition and topological order of the condensation, maintained
+ * under edge insertions and deletions.
+ * <p>
+ * Insertions use Pearce–Kelly order maintenance on components: an edge
+ * a → b with ord[a] &lt; ord[b] changes nothing. Otherwise a forward search
+ * from b (components with ord ≤ ord[a]) and a backward search from a
+ * (components with ord ≥ ord[b]) find the affected region. If the forward
+ * search reaches a, the components on both sides form a new cycle and are
+ * merged into one SCC; either way only the affected components are
+ * reassigned, reusing their own order positions.
+ * <p>
+ * Deleting an edge between two components never invalidates the order.
+ * Deleting an edge inside a component re-runs Tarjan on that component's
+ * vertices only; if it splits, the pieces take its place in the order
+ * (this step renumbers all positions, O(components)).
+ * <p>
+ * The number of components (or vertices, for splits) visited by each update
+ * is its touched region: it is available from {@link #lastTouched()} and
+ * added to the DFS counter of the metrics tracker, whose timer covers the
+ * last update. The condensation DAG is implicit in the member lists and is
+ * materialized on demand by {@link #snapshot()}.
+ */
+public final class DynamicSCC {
+
+    /** Materialized state: graph, SCCs numbered in topological order, condensation. */
+    public record Snapshot(CsrGraph graph, SccResult scc, CsrGraph condensation, int[] topo) {}
+
+    private final int n;
+    private final Metrics metrics;
+
+    // vertex-level multigraph
+    private final int[][] out;
+    private final int[][] outW;
+    private final int[][] in;
+    private final int[] outDeg;
+    private final int[] inDeg;
+    private long edgeCount;
+
+    // components (ids < n, recycled through freeIds)
+    private final int[] compOf;
+    private final int[][] members;
+    private final int[] memberCount;
+    private final int[] ord;    // order position of a live component
+    private final int[] atPos;  // position → component, -1 if unused
+    private final int[] freeIds;
+    private int freeTop;
+    private int liveComps;
+
+    // search scratch
+    private final int[] markF;
+    private final int[] markB;
+    private int epoch;
+    private final int[] stack;
+    private final int[] fList;
+    private final int[] bList;
+    private long[] sortBuf = new long[16];
+
+    // restricted Tarjan scratch (for splits)
+    private final int[] disc;
+    private final int[] low;
+    private final boolean[] onStack;
+
+    private long lastTouched;
+
+    /**
+     * Builds the initial state from a graph.
+     *
+     * @param g       initial graph (its vertex count is fixed)
+     * @param metrics metrics tracker for updates
+     */
+    public DynamicSCC(CsrGraph g, Metrics metrics) {
+        this.n = g.n();
+        this.metrics = metrics;
+        this.out = new int[n][];
+        this.outW = new int[n][];
+        this.in = new int[n][];
+        this.outDeg = new int[n];
+        this.inDeg = new int[n];
+        for (int v = 0; v < n; v++) {
+            outDeg[v] = g.degree(v);
+            out[v] = Arrays.copyOfRange(g.targets(), g.begin(v), g.end(v));
+            outW[v] = Arrays.copyOfRange(g.weights(), g.begin(v), g.end(v));
+        }
+        int[] targets = g.targets();
+        for (int e = 0; e < g.m(); e++) {
+            inDeg[targets[e]]++;
+        }
+        for (int v = 0; v < n; v++) {
+            in[v] = new int[inDeg[v]];
+            inDeg[v] = 0;
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = g.begin(u); e < g.end(u); e++) {
+                int v = targets[e];
+                in[v][inDeg[v]++] = u;
+            }
+        }
+        edgeCount = g.m();
+
+        SccResult scc = new TarjanSCC(g, NoopMetrics.INSTANCE, true).decompose();
+        CsrGraph dag = CondensationBuilder.buildCondensation(g, scc);
+        int[] topo = KahnTopologicalSort.topo(dag, NoopMetrics.INSTANCE);
+
+        this.compOf = scc.compOf().clone();
+        this.members = new int[n][];
+        this.memberCount = new int[n];
+        this.ord = new int[n];
+        this.atPos = new int[n];
+        Arrays.fill(atPos, -1);
+        for (int c = 0; c < scc.count(); c++) {
+            members[c] = Arrays.copyOfRange(scc.members(), scc.compStart()[c], scc.compStart()[c + 1]);
+            memberCount[c] = members[c].length;
+        }
+        for (int i = 0; i < topo.length; i++) {
+            ord[topo[i]] = i;
+            atPos[i] = topo[i];
+        }
+        this.liveComps = scc.count();
+        this.freeIds = new int[n];
+        for (int id = n - 1; id >= scc.count(); id--) {
+            freeIds[freeTop++] = id;
+        }
+
+        this.markF = new int[n];
+        this.markB = new int[n];
+        this.stack = new int[n];
+        this.fList = new int[n];
+        this.bList = new int[n];
+        this.disc = new int[n];
+        this.low = new int[n];
+        this.onStack = new boolean[n];
+    }
+
+    /** Starts from n isolated vertices. */
+    public DynamicSCC(int n, Metrics metrics) {
+        this(new CsrGraph(n, new int[n + 1], new int[0], new int[0]), metrics);
+    }
+
+    public int vertexCount() {
+        return n;
+    }
+
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    public int componentCount() {
+        return liveComps;
+    }
+
+    /** @return current (internal) component id of v */
+    public int componentOf(int v) {
+        return compOf[v];
+    }
+
+    /** @return true if u and v are in the same SCC */
+    public boolean sameComponent(int u, int v) {
+        return compOf[u] == compOf[v];
+    }
+
+    /** @return number of components / vertices visited by the last update */
+    public long lastTouched() {
+        return lastTouched;
+    }
+
+    /** @return internal component ids in topological order */
+    public int[] order() {
+        int[] order = new int[liveComps];
+        int k = 0;
+        for (int p = 0; p < n && k < liveComps; p++) {
+            if (atPos[p] != -1) order[k++] = atPos[p];
+        }
+        return order;
+    }
+
+    /**
+     * Inserts edge u → v.
+     *
+     * @return true if the insertion merged components
+     */
+    public boolean addEdge(int u, int v, int w) {
+        metrics.start();
+        lastTouched = 0;
+        out[u] = append(out[u], outDeg[u], v);
+        outW[u] = append(outW[u], outDeg[u], w);
+        outDeg[u]++;
+        in[v] = append(in[v], inDeg[v], u);
+        inDeg[v]++;
+        edgeCount++;
+
+        int a = compOf[u];
+        int b = compOf[v];
+        boolean merged = false;
+        if (a != b && ord[a] > ord[b]) {
+            merged = reorder(a, b);
+        }
+        metrics.stop();
+        return merged;
+    }
+
+    /**
+     * Deletes one occurrence of edge u → v.
+     *
+     * @return true if the edge existed
+     */
+    public boolean removeEdge(int u, int v) {
+        metrics.start();
+        lastTouched = 0;
+        int i = indexOf(out[u], outDeg[u], v);
+        if (i < 0) {
+            metrics.stop();
+            return false;
+        }
+        int last = --outDeg[u];
+        out[u][i] = out[u][last];
+        outW[u][i] = outW[u][last];
+        int j = indexOf(in[v], inDeg[v], u);
+        in[v][j] = in[v][--inDeg[v]];
+        edgeCount--;
+
+        int a = compOf[u];
+        if (a == compOf[v] && memberCount[a] > 1) {
+            split(a);
+        }
+        metrics.stop();
+        return true;
+    }
+
+    /**
+     * Materializes the current graph, its SCCs (numbered in topological order,
+     * so the order is 0..count-1) and the weighted condensation.
+     */
+    public Snapshot snapshot() {
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) offsets[v + 1] = offsets[v] + outDeg[v];
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            System.arraycopy(out[v], 0, targets, offsets[v], outDeg[v]);
+            System.arraycopy(outW[v], 0, weights, offsets[v], outDeg[v]);
+        }
+        CsrGraph g = new CsrGraph(n, offsets, targets, weights);
+
+        int[] compact = new int[n];
+        int k = 0;
+        for (int p = 0; p < n; p++) {
+            if (atPos[p] != -1) compact[atPos[p]] = k++;
+        }
+        int[] cOf = new int[n];
+        for (int v = 0; v < n; v++) cOf[v] = compact[compOf[v]];
+        SccResult scc = SccResult.fromCompOf(cOf, k);
+        int[] topo = new int[k];
+        for (int i = 0; i < k; i++) topo[i] = i;
+        return new Snapshot(g, scc, CondensationBuilder.build(g, cOf, k), topo);
+    }
+
+    // ---------------------------------------------------------------- insertion
+
+    /** Pearce–Kelly step for a new edge a → b with ord[a] > ord[b]. */
+    private boolean reorder(int a, int b) {
+        int lb = ord[b];
+        int ub = ord[a];
+        epoch++;
+
+        // forward from b, components with ord <= ub
+        int fCount = 0;
+        int top = 0;
+        markF[b] = epoch;
+        stack[top++] = b;
+        while (top > 0) {
+            int c = stack[--top];
+            fList[fCount++] = c;
+            for (int i = 0; i < memberCount[c]; i++) {
+                int x = members[c][i];
+                for (int k = 0; k < outDeg[x]; k++) {
+                    int d = compOf[out[x][k]];
+                    if (markF[d] != epoch && ord[d] <= ub) {
+                        markF[d] = epoch;
+                        stack[top++] = d;
+                    }
+                }
+            }
+        }
+        boolean cycle = markF[a] == epoch;
+
+        // backward from a, components with ord >= lb
+        int bCount = 0;
+        markB[a] = epoch;
+        stack[top++] = a;
+        while (top > 0) {
+            int c = stack[--top];
+            bList[bCount++] = c;
+            for (int i = 0; i < memberCount[c]; i++) {
+                int x = members[c][i];
+                for (int k = 0; k < inDeg[x]; k++) {
+                    int d = compOf[in[x][k]];
+                    if (markB[d] != epoch && ord[d] >= lb) {
+                        markB[d] = epoch;
+                        stack[top++] = d;
+                    }
+                }
+            }
+        }
+        touch(fCount + bCount);
+
+        // pool of positions owned by the affected region
+        int total = fCount;
+        for (int i = 0; i < bCount; i++) {
+            if (markF[bList[i]] != epoch) total++;
+        }
+        int[] pool = new int[total];
+        int p = 0;
+        for (int i = 0; i < fCount; i++) pool[p++] = ord[fList[i]];
+        for (int i = 0; i < bCount; i++) {
+            if (markF[bList[i]] != epoch) pool[p++] = ord[bList[i]];
+        }
+        Arrays.sort(pool);
+        for (int pos : pool) atPos[pos] = -1;
+
+        // new sequence: B \ C, merged component (if any), F \ C
+        int bKeep = 0;
+        for (int i = 0; i < bCount; i++) {
+            if (markF[bList[i]] != epoch) bList[bKeep++] = bList[i];
+        }
+        int fKeep = 0;
+        int merged = -1;
+        if (cycle) {
+            int cCount = 0;
+            for (int i = 0; i < fCount; i++) {
+                int c = fList[i];
+                if (markB[c] == epoch) {
+                    stack[cCount++] = c;
+                } else {
+                    fList[fKeep++] = c;
+                }
+            }
+            merged = merge(stack, cCount);
+        } else {
+            fKeep = fCount;
+        }
+        sortByOrd(bList, bKeep);
+        sortByOrd(fList, fKeep);
+
+        // B \ C takes the lowest positions and F \ C the highest, so neither
+        // side moves past an unaffected component; a merge leaves the
+        // positions of the absorbed components free in between
+        p = 0;
+        for (int i = 0; i < bKeep; i++) place(bList[i], pool[p++]);
+        if (merged != -1) place(merged, pool[p]);
+        p = total - fKeep;
+        for (int i = 0; i < fKeep; i++) place(fList[i], pool[p++]);
+        return cycle;
+    }
+
+    /** Merges the given components into the largest one and returns its id. */
+    private int merge(int[] comps, int count) {
+        int survivor = comps[0];
+        for (int i = 1; i < count; i++) {
+            if (memberCount[comps[i]] > memberCount[survivor]) survivor = comps[i];
+        }
+        for (int i = 0; i < count; i++) {
+            int c = comps[i];
+            if (c == survivor) continue;
+            for (int j = 0; j < memberCount[c]; j++) {
+                int x = members[c][j];
+                compOf[x] = survivor;
+                members[survivor] = append(members[survivor], memberCount[survivor], x);
+                memberCount[survivor]++;
+            }
+            members[c] = null;
+            memberCount[c] = 0;
+            freeIds[freeTop++] = c;
+            liveComps--;
+        }
+        return survivor;
+    }
+
+    // ---------------------------------------------------------------- deletion
+
+    /** Re-runs Tarjan inside component a and splits it if needed. */
+    private void split(int a) {
+        int size = memberCount[a];
+        int[] verts = Arrays.copyOf(members[a], size);
+        int[] tStack = new int[size];
+        int[] callStack = new int[size];
+        int[] nextEdge = new int[size];
+        // emitted pieces, in emission (reverse topological) order
+        int[] pieceVerts = new int[size];
+        int[] pieceStart = new int[size + 1];
+        int pieces = 0;
+        int emitted = 0;
+        int sp = 0;
+        int time = 0;
+
+        for (int root : verts) {
+            if (disc[root] != 0) continue;
+            int depth = 0;
+            disc[root] = low[root] = ++time;
+            tStack[sp++] = root;
+            onStack[root] = true;
+            callStack[depth] = root;
+            nextEdge[depth++] = 0;
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                int e = nextEdge[depth - 1];
+                if (e < outDeg[v]) {
+                    nextEdge[depth - 1] = e + 1;
+                    int to = out[v][e];
+                    if (compOf[to] != a) continue;
+                    if (disc[to] == 0) {
+                        disc[to] = low[to] = ++time;
+                        tStack[sp++] = to;
+                        onStack[to] = true;
+                        callStack[depth] = to;
+                        nextEdge[depth++] = 0;
+                    } else if (onStack[to]) {
+                        low[v] = Math.min(low[v], disc[to]);
+                    }
+                } else {
+                    depth--;
+                    if (low[v] == disc[v]) {
+                        pieceStart[pieces] = emitted;
+                        while (true) {
+                            int x = tStack[--sp];
+                            onStack[x] = false;
+                            pieceVerts[emitted++] = x;
+                            if (x == v) break;
+                        }
+                        pieces++;
+                    }
+                    if (depth > 0) {
+                        int parent = callStack[depth - 1];
+                        low[parent] = Math.min(low[parent], low[v]);
+                    }
+                }
+            }
+        }
+        pieceStart[pieces] = emitted;
+        for (int v : verts) disc[v] = 0;
+        touch(size);
+        if (pieces == 1) return;
+
+        // pieces in topological order: reverse of emission; the first keeps id a
+        int[] ids = new int[pieces];
+        for (int k = 0; k < pieces; k++) {
+            int piece = pieces - 1 - k;
+            int id = (k == 0) ? a : freeIds[--freeTop];
+            ids[k] = id;
+            int len = pieceStart[piece + 1] - pieceStart[piece];
+            members[id] = Arrays.copyOfRange(pieceVerts, pieceStart[piece], pieceStart[piece + 1]);
+            memberCount[id] = len;
+            for (int x : members[id]) compOf[x] = id;
+        }
+        liveComps += pieces - 1;
+
+        // renumber: the pieces replace a in the order
+        int[] seq = new int[liveComps];
+        int k = 0;
+        for (int p = 0; p < n; p++) {
+            int c = atPos[p];
+            if (c == -1) continue;
+            atPos[p] = -1;
+            if (c == a) {
+                for (int id : ids) seq[k++] = id;
+            } else {
+                seq[k++] = c;
+            }
+        }
+        for (int i = 0; i < k; i++) place(seq[i], i);
+        touch(liveComps);
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    /** Adds visited components / vertices to the touched region of the current update. */
+    private void touch(long count) {
+        lastTouched += count;
+        metrics.addDfs(count);
+    }
+
+    private void place(int c, int pos) {
+        ord[c] = pos;
+        atPos[pos] = c;
+        metrics.incTopo();
+    }
+
+    private void sortByOrd(int[] comps, int count) {
+        if (sortBuf.length < count) sortBuf = new long[Math.max(count, sortBuf.length * 2)];
+        for (int i = 0; i < count; i++) {
+            sortBuf[i] = ((long) ord[comps[i]] << 32) | comps[i];
+        }
+        Arrays.sort(sortBuf, 0, count);
+        for (int i = 0; i < count; i++) {
+            comps[i] = (int) sortBuf[i];
+        }
+    }
+
+    private static int[] append(int[] arr, int size, int value) {
+        if (arr == null) arr = new int[4];
+        if (size == arr.length) arr = Arrays.copyOf(arr, Math.max(4, size * 2));
+        arr[size] = value;
+        return arr;
+    }
+
+    private static int indexOf(int[] arr, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (arr[i] == value) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,487 @@
+package graph.scc;
+
+import graph.util.CsrGraph;
+import metrics.Metrics;
+import metrics.jfr.SccEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel SCC decomposition: trim + forward-backward (FW-BW) reachability
+ * on a {@link ForkJoinPool}.
+ * <ol>
+ *   <li>Trim: repeatedly peel vertices with no remaining in- or out-edges
+ *       (each is a singleton SCC), and pairs v ⇄ w whose only remaining
+ *       out-edges (or only in-edges) are the ones between them (each is a
+ *       2-vertex SCC). This removes long chains, DAG parts and chains of
+ *       2-cycles, which are the worst case for FW-BW.</li>
+ *   <li>FW-BW: pick a pivot in a partition, compute its forward set F and
+ *       backward set B inside the partition. F ∩ B is an SCC, and
+ *       F \ B, B \ F and the rest are independent sub-problems. A task
+ *       forks all of them but the largest and loops on that one, so the
+ *       stack depth does not grow with the number of steps. Large
+ *       frontiers are expanded in parallel, in buffers reused per worker.</li>
+ *   <li>Small partitions fall back to an iterative Tarjan restricted to
+ *       the partition, and so do the parts of a step that removed only a
+ *       few vertices (many small SCCs, where FW-BW would be quadratic).</li>
+ * </ol>
+ * Produces the same partition as {@link TarjanSCC}; component ids differ.
+ */
+public final class ParallelSCC {
+
+    /** Partitions up to this size are solved with sequential Tarjan. */
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+    /** Frontier slices smaller than this are expanded on one thread. */
+    private static final int FRONTIER_GRAIN = 2048;
+    /**
+     * A step whose largest part keeps more than (1 - 1/MIN_PROGRESS) of the
+     * partition made too little progress; its parts go to Tarjan.
+     */
+    private static final int MIN_PROGRESS = 64;
+
+    private static final int FW = 1;
+    private static final int BW = 2;
+    private static final VarHandle MARK = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final CsrGraph g;
+    private final CsrGraph rev;
+    private final int n;
+    private final int parallelism;
+    private final Metrics metrics;
+
+    private final int[] part;    // partition label; -1 once the vertex has its SCC
+    private final int[] mark;    // FW / BW bits, only touched inside the own partition
+    private final int[] compOf;
+    private final AtomicInteger nextComp = new AtomicInteger();
+    private final AtomicInteger nextPart = new AtomicInteger();
+
+    // restricted Tarjan state (partitions are disjoint, so sharing is safe)
+    private final int[] disc;
+    private final int[] low;
+    private final boolean[] onStack;
+
+    /** Frontier buffers of each worker thread, see {@link #reach}. */
+    private final ThreadLocal<Frontiers> frontiers = ThreadLocal.withInitial(Frontiers::new);
+
+    /**
+     * @param g           graph
+     * @param metrics     metrics tracker (timing only)
+     * @param parallelism number of worker threads
+     */
+    public ParallelSCC(CsrGraph g, Metrics metrics, int parallelism) {
+        this.g = g;
+        this.rev = g.transpose();
+        this.n = g.n();
+        this.parallelism = parallelism;
+        this.metrics = metrics;
+        this.part = new int[n];
+        this.mark = new int[n];
+        this.compOf = new int[n];
+        this.disc = new int[n];
+        this.low = new int[n];
+        this.onStack = new boolean[n];
+    }
+
+    /** Runs the decomposition and returns the SCC partition. */
+    public SccResult decompose() {
+        SccEvent event = new SccEvent();
+        event.begin();
+        metrics.start();
+        int[] rest = trim();
+        if (rest.length > 0) {
+            int label = nextPart.getAndIncrement();
+            for (int v : rest) part[v] = label;
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.invoke(new PartitionTask(null, rest, label, false));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        metrics.stop();
+        event.end();
+        if (event.shouldCommit()) {
+            event.engine = "parallel";
+            event.vertices = g.n();
+            event.edges = g.m();
+            event.components = nextComp.get();
+            event.commit();
+        }
+        return SccResult.fromCompOf(compOf, nextComp.get());
+    }
+
+    /**
+     * Peels vertices whose remaining in- or out-degree is zero, and 2-cycles
+     * closed on one side (trim-1 and trim-2). A vertex is queued again
+     * whenever one of its degrees drops, so the peeling runs to a fixpoint.
+     *
+     * @return vertices that survive the trim
+     */
+    private int[] trim() {
+        int[] indeg = new int[n];
+        int[] outdeg = new int[n];
+        int[] targets = g.targets();
+        for (int v = 0; v < n; v++) {
+            outdeg[v] = g.degree(v);
+        }
+        for (int e = 0, m = g.m(); e < m; e++) {
+            indeg[targets[e]]++;
+        }
+        // circular queue; every vertex is in it at most once at a time
+        int[] queue = new int[Math.max(1, n)];
+        boolean[] queued = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            queue[v] = v;
+            queued[v] = true;
+        }
+        int head = 0;
+        int size = n;
+        int[] pair = new int[2];
+        int alive = n;
+        while (size > 0) {
+            int v = queue[head];
+            head = head + 1 == queue.length ? 0 : head + 1;
+            size--;
+            queued[v] = false;
+            if (part[v] == -1) continue;
+            int count;
+            if (indeg[v] == 0 || outdeg[v] == 0) {
+                pair[0] = v;
+                count = 1;
+            } else {
+                int w = closedTwoCycle(v, indeg, outdeg);
+                if (w == -1) continue;
+                pair[0] = v;
+                pair[1] = w;
+                count = 2;
+            }
+            int c = nextComp.getAndIncrement();
+            for (int i = 0; i < count; i++) {
+                part[pair[i]] = -1;
+                compOf[pair[i]] = c;
+            }
+            alive -= count;
+            for (int i = 0; i < count; i++) {
+                int x = pair[i];
+                for (int e = g.begin(x), end = g.end(x); e < end; e++) {
+                    int to = targets[e];
+                    if (part[to] == -1) continue;
+                    indeg[to]--;
+                    if (!queued[to]) {
+                        queued[to] = true;
+                        queue[(head + size++) % queue.length] = to;
+                    }
+                }
+                int[] rTargets = rev.targets();
+                for (int e = rev.begin(x), end = rev.end(x); e < end; e++) {
+                    int from = rTargets[e];
+                    if (part[from] == -1) continue;
+                    outdeg[from]--;
+                    if (!queued[from]) {
+                        queued[from] = true;
+                        queue[(head + size++) % queue.length] = from;
+                    }
+                }
+            }
+        }
+        int[] rest = new int[alive];
+        int k = 0;
+        for (int v = 0; v < n; v++) {
+            if (part[v] != -1) rest[k++] = v;
+        }
+        return rest;
+    }
+
+    /**
+     * @return w if v and w are each other's only remaining successor (or
+     *         each other's only remaining predecessor), so {v, w} is an SCC;
+     *         otherwise -1
+     */
+    private int closedTwoCycle(int v, int[] indeg, int[] outdeg) {
+        if (outdeg[v] == 1) {
+            int w = onlyRemaining(g, v);
+            if (w != v && outdeg[w] == 1 && onlyRemaining(g, w) == v) return w;
+        }
+        if (indeg[v] == 1) {
+            int w = onlyRemaining(rev, v);
+            if (w != v && indeg[w] == 1 && onlyRemaining(rev, w) == v) return w;
+        }
+        return -1;
+    }
+
+    /** First neighbour of v in dir that is not peeled yet. */
+    private int onlyRemaining(CsrGraph dir, int v) {
+        int[] targets = dir.targets();
+        for (int e = dir.begin(v), end = dir.end(v); e < end; e++) {
+            if (part[targets[e]] != -1) return targets[e];
+        }
+        return -1;
+    }
+
+    /**
+     * FW-BW on one partition, then on the largest remaining part in a loop;
+     * the other parts are forked as new tasks that are never joined, and the
+     * root completes once every task has.
+     */
+    @SuppressWarnings("serial")
+    private final class PartitionTask extends CountedCompleter<Void> {
+        private final int[] verts;
+        private final int label;
+        private final boolean sequential;
+
+        PartitionTask(CountedCompleter<?> parent, int[] verts, int label, boolean sequential) {
+            super(parent);
+            this.verts = verts;
+            this.label = label;
+            this.sequential = sequential;
+        }
+
+        @Override
+        public void compute() {
+            int[] vs = verts;
+            int lb = label;
+            boolean seq = sequential;
+            while (vs.length > 0) {
+                if (seq || vs.length <= SEQUENTIAL_THRESHOLD) {
+                    tarjanRestricted(vs, lb);
+                    break;
+                }
+                int[][] parts = new int[3][];
+                int[] labels = new int[3];
+                split(vs, lb, parts, labels);
+                int largest = 0;
+                for (int i = 1; i < 3; i++) {
+                    if (parts[i].length > parts[largest].length) largest = i;
+                }
+                // little progress: many small SCCs, which Tarjan handles in linear time
+                boolean slow = parts[largest].length > vs.length - vs.length / MIN_PROGRESS;
+                for (int i = 0; i < 3; i++) {
+                    if (i == largest || parts[i].length == 0) continue;
+                    addToPendingCount(1);
+                    new PartitionTask(this, parts[i], labels[i], slow).fork();
+                }
+                vs = parts[largest];
+                lb = labels[largest];
+                seq = slow;
+            }
+            tryComplete();
+        }
+    }
+
+    /**
+     * One FW-BW step: assigns the SCC of the pivot and relabels the rest of
+     * the partition into F \ B, B \ F and the remainder (parts[0..2]).
+     */
+    private void split(int[] verts, int label, int[][] parts, int[] labels) {
+        int pivot = verts[0];
+        reach(pivot, label, g, FW, verts.length);
+        reach(pivot, label, rev, BW, verts.length);
+
+        int scc = nextComp.getAndIncrement();
+        int fCount = 0;
+        int bCount = 0;
+        int rCount = 0;
+        for (int v : verts) {
+            int bits = mark[v];
+            if (bits == (FW | BW)) compOf[v] = scc;
+            else if (bits == FW) fCount++;
+            else if (bits == BW) bCount++;
+            else rCount++;
+        }
+        int[] f = new int[fCount];
+        int[] b = new int[bCount];
+        int[] r = new int[rCount];
+        int fLabel = nextPart.getAndIncrement();
+        int bLabel = nextPart.getAndIncrement();
+        int rLabel = nextPart.getAndIncrement();
+        fCount = bCount = rCount = 0;
+        for (int v : verts) {
+            int bits = mark[v];
+            mark[v] = 0;
+            if (bits == (FW | BW)) {
+                part[v] = -1;
+            } else if (bits == FW) {
+                part[v] = fLabel;
+                f[fCount++] = v;
+            } else if (bits == BW) {
+                part[v] = bLabel;
+                b[bCount++] = v;
+            } else {
+                part[v] = rLabel;
+                r[rCount++] = v;
+            }
+        }
+        parts[0] = f;
+        parts[1] = b;
+        parts[2] = r;
+        labels[0] = fLabel;
+        labels[1] = bLabel;
+        labels[2] = rLabel;
+    }
+
+    /**
+     * Level-synchronous BFS from pivot over edges of dir, restricted to
+     * vertices labelled {@code label}; sets {@code bit} in mark for every
+     * reached vertex.
+     */
+    private void reach(int pivot, int label, CsrGraph dir, int bit, int maxSize) {
+        Frontiers own = frontiers.get();
+        int depth = own.depth++;
+        try {
+            int[] frontier = own.buffer(2 * depth, maxSize);
+            int[] next = own.buffer(2 * depth + 1, maxSize);
+            MARK.getAndBitwiseOr(mark, pivot, bit);
+            frontier[0] = pivot;
+            int size = 1;
+            AtomicInteger nextSize = new AtomicInteger();
+            while (size > 0) {
+                nextSize.set(0);
+                if (size <= FRONTIER_GRAIN) {
+                    expand(frontier, 0, size, next, nextSize, label, dir, bit);
+                } else {
+                    new FrontierTask(frontier, 0, size, next, nextSize, label, dir, bit).invoke();
+                }
+                int[] tmp = frontier;
+                frontier = next;
+                next = tmp;
+                size = nextSize.get();
+            }
+        } finally {
+            own.depth--;
+        }
+    }
+
+    /**
+     * Frontier arrays of one worker, grown on demand and reused by every
+     * {@link #reach} on that thread. A worker that helps with other tasks
+     * while joining a frontier expansion may start a nested reach, which
+     * takes the next pair.
+     */
+    private static final class Frontiers {
+        private int[][] buffers = new int[2][];
+        private int depth;
+
+        int[] buffer(int i, int size) {
+            if (i >= buffers.length) buffers = Arrays.copyOf(buffers, Math.max(i + 1, 2 * buffers.length));
+            if (buffers[i] == null || buffers[i].length < size) buffers[i] = new int[size];
+            return buffers[i];
+        }
+    }
+
+    private void expand(int[] frontier, int lo, int hi, int[] next, AtomicInteger nextSize,
+                        int label, CsrGraph dir, int bit) {
+        int[] targets = dir.targets();
+        int[] offsets = dir.offsets();
+        for (int i = lo; i < hi; i++) {
+            int v = frontier[i];
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int to = targets[e];
+                if (part[to] == label
+                        && ((int) MARK.getAndBitwiseOr(mark, to, bit) & bit) == 0) {
+                    next[nextSize.getAndIncrement()] = to;
+                }
+            }
+        }
+    }
+
+    /** Splits a frontier slice across the pool. */
+    @SuppressWarnings("serial")
+    private final class FrontierTask extends RecursiveAction {
+        private final int[] frontier;
+        private final int lo;
+        private final int hi;
+        private final int[] next;
+        private final AtomicInteger nextSize;
+        private final int label;
+        private final transient CsrGraph dir;
+        private final int bit;
+
+        FrontierTask(int[] frontier, int lo, int hi, int[] next, AtomicInteger nextSize,
+                     int label, CsrGraph dir, int bit) {
+            this.frontier = frontier;
+            this.lo = lo;
+            this.hi = hi;
+            this.next = next;
+            this.nextSize = nextSize;
+            this.label = label;
+            this.dir = dir;
+            this.bit = bit;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= FRONTIER_GRAIN) {
+                expand(frontier, lo, hi, next, nextSize, label, dir, bit);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new FrontierTask(frontier, lo, mid, next, nextSize, label, dir, bit),
+                    new FrontierTask(frontier, mid, hi, next, nextSize, label, dir, bit));
+        }
+    }
+
+    /** Iterative Tarjan over the vertices of one partition. */
+    private void tarjanRestricted(int[] verts, int label) {
+        int size = verts.length;
+        int[] stack = new int[size];
+        int[] callStack = new int[size];
+        int[] nextEdge = new int[size];  // indexed by call-stack depth
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        int sp = 0;
+        int time = 0;
+
+        for (int root : verts) {
+            if (disc[root] != 0) continue;
+            int top = 0;
+            disc[root] = low[root] = ++time;
+            stack[sp++] = root;
+            onStack[root] = true;
+            callStack[top] = root;
+            nextEdge[top++] = offsets[root];
+
+            while (top > 0) {
+                int v = callStack[top - 1];
+                int e = nextEdge[top - 1];
+                if (e < offsets[v + 1]) {
+                    nextEdge[top - 1] = e + 1;
+                    int to = targets[e];
+                    if (part[to] != label) continue; // other partition or already assigned
+                    if (disc[to] == 0) {
+                        disc[to] = low[to] = ++time;
+                        stack[sp++] = to;
+                        onStack[to] = true;
+                        callStack[top] = to;
+                        nextEdge[top++] = offsets[to];
+                    } else if (onStack[to]) {
+                        low[v] = Math.min(low[v], disc[to]);
+                    }
+                } else {
+                    top--;
+                    if (low[v] == disc[v]) {
+                        int c = nextComp.getAndIncrement();
+                        while (true) {
+                            int x = stack[--sp];
+                            onStack[x] = false;
+                            compOf[x] = c;
+                            if (x == v) break;
+                        }
+                    }
+                    if (top > 0) {
+                        int p = callStack[top - 1];
+                        low[p] = Math.min(low[p], low[v]);
+                    }
+                }
+            }
+        }
+        for (int v : verts) {
+            part[v] = -1;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package graph.scc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primitive SCC partition.
+ * Component c consists of members[compStart[c] .. compStart[c + 1]),
+ * listed in the order the algorithm emitted them.
+ *
+ * @param count     number of components
+ * @param compOf    int[n]: vertex → component id
+ * @param members   int[n]: vertices grouped by component
+ * @param compStart int[count + 1]: start offset of each component in members
+ */
+public record SccResult(int count, int[] compOf, int[] members, int[] compStart) {
+
+    /** @return number of vertices in component c */
+    public int size(int c) {
+        return compStart[c + 1] - compStart[c];
+    }
+
+    /** @return size of the largest component (0 for an empty graph) */
+    public int maxSize() {
+        int best = 0;
+        for (int c = 0; c < count; c++) {
+            best = Math.max(best, size(c));
+        }
+        return best;
+    }
+
+    /** Converts to the list-of-lists form used by the list-based API. */
+    public List<List<Integer>> toLists() {
+        List<List<Integer>> comps = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            List<Integer> comp = new ArrayList<>(size(c));
+            for (int i = compStart[c]; i < compStart[c + 1]; i++) {
+                comp.add(members[i]);
+            }
+            comps.add(comp);
+        }
+        return comps;
+    }
+
+    /**
+     * Builds the primitive form from a component-id array.
+     * Members of each component are listed in increasing vertex order.
+     *
+     * @param compOf vertex → component id (ids must be 0..count-1)
+     * @param count  number of components
+     * @return SCC result
+     */
+    public static SccResult fromCompOf(int[] compOf, int count) {
+        int n = compOf.length;
+        int[] compStart = new int[count + 1];
+        for (int v = 0; v < n; v++) {
+            compStart[compOf[v] + 1]++;
+        }
+        for (int c = 0; c < count; c++) {
+            compStart[c + 1] += compStart[c];
+        }
+        int[] cursor = new int[count];
+        System.arraycopy(compStart, 0, cursor, 0, count);
+        int[] members = new int[n];
+        for (int v = 0; v < n; v++) {
+            members[cursor[compOf[v]]++] = v;
+        }
+        return new SccResult(count, compOf, members, compStart);
+    }
+
+    /**
+     * Builds the primitive form from the list-based component list.
+     *
+     * @param comps list of SCCs
+     * @param n     total number of vertices
+     * @return SCC result
+     */
+    public static SccResult fromLists(List<List<Integer>> comps, int n) {
+        int count = comps.size();
+        int[] compOf = new int[n];
+        int[] members = new int[n];
+        int[] compStart = new int[count + 1];
+        int pos = 0;
+        for (int c = 0; c < count; c++) {
+            compStart[c] = pos;
+            for (int v : comps.get(c)) {
+                compOf[v] = c;
+                members[pos++] = v;
+            }
+        }
+        compStart[count] = pos;
+        return new SccResult(count, compOf, members, compStart);
+    }
+}
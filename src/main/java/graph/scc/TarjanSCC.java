@@ -1,19 +1,25 @@
 package graph.scc;
 
-import java.util.ArrayList;
 import java.util.List;
-import metrics.MetricsTracker;
+import graph.util.CsrGraph;
+import metrics.Metrics;
+import metrics.jfr.SccEvent;
 
 /**
  * Tarjan's algorithm for strongly connected components.
- * Input: directed graph as adjacency list.
- * Output: list of SCCs (each is list of vertices).
+ * Input: directed graph as adjacency list or CSR graph.
+ * Output: list of SCCs (each is list of vertices) or a primitive {@link SccResult}.
+ *
+ * Two traversal modes produce identical results and metrics:
+ * the classic recursive DFS, and an explicit-stack DFS that does not
+ * depend on the thread stack size (use it for long chains / huge graphs).
  */
 public class TarjanSCC {
 
-    private final List<List<Integer>> g;
+    private final CsrGraph g;
     private final int n;
-    private final MetricsTracker metrics;
+    private final Metrics metrics;
+    private final boolean iterative;
 
     private int time = 0;
     private final int[] disc;
@@ -22,39 +28,94 @@ public class TarjanSCC {
     private final int[] stack;
     private int sp = 0;
 
-    private final List<List<Integer>> comps = new ArrayList<>();
+    // explicit DFS stack, allocated on first iterative run
+    private int[] callStack;
+    private int[] nextEdge;
 
-    public TarjanSCC(List<List<Integer>> g, MetricsTracker metrics) {
+    // components are written here as they are popped from the stack
+    private final int[] compOf;
+    private final int[] members;
+    private int[] compStart;
+    private int compCount = 0;
+    private int emitted = 0;
+
+    public TarjanSCC(List<List<Integer>> g, Metrics metrics) {
+        this(CsrGraph.fromAdjacency(g), metrics);
+    }
+
+    public TarjanSCC(CsrGraph g, Metrics metrics) {
+        this(g, metrics, false);
+    }
+
+    /**
+     * @param g         graph
+     * @param metrics   metrics tracker
+     * @param iterative true to use the explicit-stack DFS instead of recursion
+     */
+    public TarjanSCC(CsrGraph g, Metrics metrics, boolean iterative) {
         this.g = g;
-        this.n = g.size();
+        this.iterative = iterative;
+        this.n = g.n();
         this.metrics = metrics;
         this.disc = new int[n];
         this.low = new int[n];
         this.onStack = new boolean[n];
         this.stack = new int[n];
+        this.compOf = new int[n];
+        this.members = new int[n];
+        this.compStart = new int[Math.min(n, 16) + 1];
     }
 
     /**
      * Runs Tarjan and returns all SCCs.
      */
     public List<List<Integer>> run() {
+        return decompose().toLists();
+    }
+
+    /**
+     * Runs Tarjan and returns the SCC partition without boxing.
+     * Components are numbered in the order they are found
+     * (reverse topological order of the condensation).
+     */
+    public SccResult decompose() {
+        SccEvent event = new SccEvent();
+        event.begin();
         metrics.start();
+        int visitedBefore = time;
         for (int v = 0; v < n; v++) {
             if (disc[v] == 0) {
-                dfs(v);
+                if (iterative) {
+                    dfsIterative(v);
+                } else {
+                    dfs(v);
+                }
             }
         }
+        // every DFS visit advances the discovery clock by one
+        metrics.addDfs(time - visitedBefore);
         metrics.stop();
-        return comps;
+        event.end();
+        if (event.shouldCommit()) {
+            event.engine = iterative ? "tarjan" : "recursive";
+            event.vertices = n;
+            event.edges = g.m();
+            event.components = compCount;
+            event.dfsOps = time - visitedBefore;
+            event.commit();
+        }
+        compStart[compCount] = emitted;
+        int[] starts = new int[compCount + 1];
+        System.arraycopy(compStart, 0, starts, 0, compCount + 1);
+        return new SccResult(compCount, compOf, members, starts);
     }
 
     private void dfs(int v) {
-        metrics.incDfs();
-        disc[v] = low[v] = ++time;
-        stack[sp++] = v;
-        onStack[v] = true;
+        enter(v);
 
-        for (int to : g.get(v)) {
+        int[] targets = g.targets();
+        for (int e = g.begin(v), end = g.end(v); e < end; e++) {
+            int to = targets[e];
             if (disc[to] == 0) {
                 dfs(to);
                 low[v] = Math.min(low[v], low[to]);
@@ -64,14 +125,74 @@ public class TarjanSCC {
         }
 
         if (low[v] == disc[v]) {
-            List<Integer> comp = new ArrayList<>();
-            while (true) {
-                int x = stack[--sp];
-                onStack[x] = false;
-                comp.add(x);
-                if (x == v) break;
+            emitComponent(v);
+        }
+    }
+
+    /**
+     * Same traversal as {@link #dfs(int)}, with the call stack kept in arrays.
+     * callStack holds the active DFS path and nextEdge[v] the index of the
+     * next outgoing edge of v to examine (the "return address").
+     */
+    private void dfsIterative(int root) {
+        if (callStack == null) {
+            callStack = new int[n];
+            nextEdge = new int[n];
+        }
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        int top = 0;
+
+        enter(root);
+        nextEdge[root] = offsets[root];
+        callStack[top++] = root;
+
+        while (top > 0) {
+            int v = callStack[top - 1];
+            int e = nextEdge[v];
+            if (e < offsets[v + 1]) {
+                nextEdge[v] = e + 1;
+                int to = targets[e];
+                if (disc[to] == 0) {
+                    enter(to);
+                    nextEdge[to] = offsets[to];
+                    callStack[top++] = to; // "recursive call"
+                } else if (onStack[to]) {
+                    low[v] = Math.min(low[v], disc[to]);
+                }
+            } else {
+                top--; // "return" from v
+                if (low[v] == disc[v]) {
+                    emitComponent(v);
+                }
+                if (top > 0) {
+                    int parent = callStack[top - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
             }
-            comps.add(comp);
         }
     }
+
+    private void enter(int v) {
+        disc[v] = low[v] = ++time;
+        stack[sp++] = v;
+        onStack[v] = true;
+    }
+
+    private void emitComponent(int root) {
+        if (compCount + 1 >= compStart.length) {
+            int[] grown = new int[Math.min(n + 1, compStart.length * 2)];
+            System.arraycopy(compStart, 0, grown, 0, compStart.length);
+            compStart = grown;
+        }
+        compStart[compCount] = emitted;
+        while (true) {
+            int x = stack[--sp];
+            onStack[x] = false;
+            compOf[x] = compCount;
+            members[emitted++] = x;
+            if (x == root) break;
+        }
+        compCount++;
+    }
 }
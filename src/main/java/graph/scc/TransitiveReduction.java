@@ -0,0 +1,184 @@
+package graph.scc;
+
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Transitive reduction of a DAG: the subgraph without every edge u → w for
+ * which w is also reachable through another successor of u. It has the
+ * same reachability, so every topological order, level order and
+ * reachability answer of the reduced graph holds for the original one.
+ * Weighted path lengths are not preserved: a removed edge may be shorter
+ * or longer than the path that replaces it.
+ * <p>
+ * u → w is redundant iff w is strictly reachable from some successor of u.
+ * Strict reachability is computed as bitsets in reverse topological order,
+ * with bits indexed by topological position; when all n rows do not fit
+ * the memory budget, the positions are processed in column blocks that do.
+ * For each block, the sources are checked in parallel on a
+ * {@link ForkJoinPool}: every source only marks its own edges.
+ * Parallel edges must not occur (the condensation has none).
+ */
+public final class TransitiveReduction {
+
+    /** Default budget for the reachability rows of one column block. */
+    public static final long DEFAULT_BUDGET_BYTES = 64L << 20;
+
+    /** Sources checked by one task. */
+    private static final int GRAIN = 1024;
+
+    private TransitiveReduction() {}
+
+    /** Reduces with the default memory budget. */
+    public static CsrGraph reduce(CsrGraph dag, int[] topo, int parallelism) {
+        return reduce(dag, topo, parallelism, DEFAULT_BUDGET_BYTES);
+    }
+
+    /**
+     * @param dag         DAG without parallel edges
+     * @param topo        complete topological order of dag
+     * @param parallelism number of worker threads (1 = no pool)
+     * @param budgetBytes memory for the reachability rows; at least 64
+     *                    positions per block are used whatever the budget
+     * @return the reduced DAG; kept edges keep their weights and order
+     */
+    public static CsrGraph reduce(CsrGraph dag, int[] topo, int parallelism, long budgetBytes) {
+        int n = dag.n();
+        if (topo.length != n) {
+            throw new IllegalArgumentException("graph has a cycle: order covers " + topo.length + " of " + n + " vertices");
+        }
+        int[] rank = KahnTopologicalSort.positions(topo);
+        int words = (n + 63) >>> 6;
+        long perWord = Math.max(1L, (long) n * Long.BYTES);
+        // rows of one block live in a single long[]
+        int block = (int) Math.max(1, Math.min(Math.min(words, budgetBytes / perWord),
+                (Integer.MAX_VALUE - 8) / Math.max(1, n)));
+        boolean[] redundant = new boolean[dag.m()];
+
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (int w0 = 0; w0 < words; w0 += block) {
+                int bw = Math.min(block, words - w0);
+                long[] reach = strictReach(dag, topo, rank, w0, bw);
+                if (pool != null) pool.invoke(new MarkTask(dag, rank, reach, w0, bw, redundant, 0, n));
+                else mark(dag, rank, reach, w0, bw, redundant, 0, n);
+            }
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+        return keep(dag, redundant);
+    }
+
+    /**
+     * Rows of bw words: bit (rank[x] - 64 * w0) of row v is set iff x is
+     * reachable from v by at least one edge and rank[x] lies in the block.
+     */
+    private static long[] strictReach(CsrGraph dag, int[] topo, int[] rank, int w0, int bw) {
+        int n = dag.n();
+        int[] targets = dag.targets();
+        long[] reach = new long[n * bw];
+        long base = 64L * w0;
+        // vertices at or after the block only reach positions after it
+        int last = (int) Math.min(n, 64L * (w0 + bw));
+        for (int i = last - 1; i >= 0; i--) {
+            int v = topo[i];
+            int row = v * bw;
+            for (int e = dag.begin(v), end = dag.end(v); e < end; e++) {
+                int w = targets[e];
+                long bit = rank[w] - base;
+                if (bit >= 0 && bit < 64L * bw) reach[row + (int) (bit >>> 6)] |= 1L << bit;
+                if (rank[w] >= last) continue;
+                int succ = w * bw;
+                for (int k = 0; k < bw; k++) {
+                    reach[row + k] |= reach[succ + k];
+                }
+            }
+        }
+        return reach;
+    }
+
+    private static CsrGraph keep(CsrGraph dag, boolean[] redundant) {
+        int n = dag.n();
+        int[] offsets = new int[n + 1];
+        int kept = 0;
+        for (int v = 0; v < n; v++) {
+            for (int e = dag.begin(v), end = dag.end(v); e < end; e++) {
+                if (!redundant[e]) kept++;
+            }
+            offsets[v + 1] = kept;
+        }
+        int[] targets = new int[kept];
+        int[] weights = new int[kept];
+        int k = 0;
+        for (int e = 0; e < dag.m(); e++) {
+            if (redundant[e]) continue;
+            targets[k] = dag.target(e);
+            weights[k++] = dag.weight(e);
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    /** Splits the sources of one column block across the pool. */
+    @SuppressWarnings("serial")
+    private static final class MarkTask extends RecursiveAction {
+        private final transient CsrGraph dag;
+        private final int[] rank;
+        private final long[] reach;
+        private final int w0;
+        private final int bw;
+        private final boolean[] redundant;
+        private final int lo;
+        private final int hi;
+
+        MarkTask(CsrGraph dag, int[] rank, long[] reach, int w0, int bw, boolean[] redundant, int lo, int hi) {
+            this.dag = dag;
+            this.rank = rank;
+            this.reach = reach;
+            this.w0 = w0;
+            this.bw = bw;
+            this.redundant = redundant;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new MarkTask(dag, rank, reach, w0, bw, redundant, lo, mid),
+                        new MarkTask(dag, rank, reach, w0, bw, redundant, mid, hi));
+                return;
+            }
+            mark(dag, rank, reach, w0, bw, redundant, lo, hi);
+        }
+    }
+
+    /** Marks the redundant edges of sources [lo, hi) for one column block. */
+    private static void mark(CsrGraph dag, int[] rank, long[] reach, int w0, int bw,
+                             boolean[] redundant, int lo, int hi) {
+        int[] targets = dag.targets();
+        long[] covered = new long[bw];
+        long base = 64L * w0;
+        for (int u = lo; u < hi; u++) {
+            // a single successor cannot make its own edge redundant
+            if (dag.degree(u) < 2) continue;
+            Arrays.fill(covered, 0);
+            for (int e = dag.begin(u), end = dag.end(u); e < end; e++) {
+                int row = targets[e] * bw;
+                for (int k = 0; k < bw; k++) {
+                    covered[k] |= reach[row + k];
+                }
+            }
+            for (int e = dag.begin(u), end = dag.end(u); e < end; e++) {
+                long bit = rank[targets[e]] - base;
+                if (bit >= 0 && bit < 64L * bw && (covered[(int) (bit >>> 6)] & (1L << bit)) != 0) {
+                    redundant[e] = true;
+                }
+            }
+        }
+    }
+}
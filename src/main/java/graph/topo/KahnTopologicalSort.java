@@ -1,42 +1,246 @@
 package graph.topo;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
-import metrics.MetricsTracker;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import graph.util.CsrGraph;
+import metrics.Metrics;
+import metrics.jfr.TopoEvent;
 
 /**
  * Kahn's algorithm for topological sorting of a DAG.
  */
 public class KahnTopologicalSort {
 
-    public static List<Integer> topo(List<List<Integer>> g, MetricsTracker m) {
-        int n = g.size();
+    /** Frontier slices smaller than this are expanded on one thread. */
+    private static final int FRONTIER_GRAIN = 2048;
+    private static final VarHandle INDEG = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * Level-synchronous topological order.
+     * Level L = vertices order[levelStart[L] .. levelStart[L + 1]), sorted by id;
+     * level[v] is the length of the longest path (in edges) ending at v.
+     * If the graph has a cycle, order is shorter than n and level[v] = -1
+     * for vertices on or behind a cycle.
+     */
+    public record LevelOrder(int[] order, int[] level, int[] levelStart) {
+
+        public int levelCount() {
+            return levelStart.length - 1;
+        }
+
+        /** @return true if every vertex was ordered (the graph is a DAG) */
+        public boolean complete() {
+            return order.length == level.length;
+        }
+    }
+
+    public static List<Integer> topo(List<List<Integer>> g, Metrics m) {
+        int[] order = topo(CsrGraph.fromAdjacency(g), m);
+        List<Integer> result = new ArrayList<>(order.length);
+        for (int v : order) {
+            result.add(v);
+        }
+        return result;
+    }
+
+    /**
+     * Topological order of a CSR graph, using a primitive FIFO queue.
+     * If the graph has a cycle, the returned order is shorter than n.
+     *
+     * @param g graph
+     * @param m metrics tracker
+     * @return vertices in topological order
+     */
+    public static int[] topo(CsrGraph g, Metrics m) {
+        TopoEvent event = new TopoEvent();
+        event.begin();
+        int n = g.n();
+        int[] targets = g.targets();
         int[] indeg = new int[n];
+        for (int e = 0, total = g.m(); e < total; e++) {
+            indeg[targets[e]]++;
+        }
+        // every vertex enters the queue at most once, so the queue array
+        // doubles as the output order
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
         for (int v = 0; v < n; v++) {
-            for (int to : g.get(v)) {
-                indeg[to]++;
+            if (indeg[v] == 0) {
+                queue[tail++] = v;
+            }
+        }
+        int sources = tail;
+        m.addTopo(sources);
+        m.start();
+        while (head < tail) {
+            int v = queue[head++];
+            for (int e = g.begin(v), end = g.end(v); e < end; e++) {
+                int to = targets[e];
+                if (--indeg[to] == 0) {
+                    queue[tail++] = to;
+                }
             }
         }
-        Queue<Integer> q = new ArrayDeque<>();
+        // every queued vertex was popped once; all but the sources were pushed here
+        long ops = head + (long) (tail - sources);
+        m.addTopo(ops);
+        m.stop();
+        commit(event, g, tail, -1, sources + ops);
+        return tail == n ? queue : Arrays.copyOf(queue, tail);
+    }
+
+    /**
+     * Position of every vertex in a topological order: rank[order[i]] = i.
+     * Every edge u → v of the DAG has rank[u] &lt; rank[v].
+     *
+     * @param order complete topological order
+     * @return vertex → position
+     */
+    public static int[] positions(int[] order) {
+        int[] rank = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            rank[order[i]] = i;
+        }
+        return rank;
+    }
+
+    /**
+     * Level-by-level Kahn: all vertices of the current frontier are
+     * expanded together, and the vertices whose in-degree drops to zero form
+     * the next frontier. Frontiers larger than {@code FRONTIER_GRAIN} are
+     * split across a {@link ForkJoinPool}; in-degrees are decremented
+     * atomically through a VarHandle on a plain int[], and each level is
+     * sorted afterwards, so the result does not depend on thread timing.
+     *
+     * @param g           graph
+     * @param m           metrics tracker (updated per level, not per thread)
+     * @param parallelism number of worker threads (1 = no pool)
+     * @return order, per-vertex level and level boundaries
+     */
+    public static LevelOrder topoLevels(CsrGraph g, Metrics m, int parallelism) {
+        TopoEvent event = new TopoEvent();
+        event.begin();
+        int n = g.n();
+        int[] targets = g.targets();
+        int[] indeg = new int[n];
+        for (int e = 0, total = g.m(); e < total; e++) {
+            indeg[targets[e]]++;
+        }
+        int[] level = new int[n];
+        Arrays.fill(level, -1);
+        // frontiers are appended to order in place: [head, tail) is the
+        // current level, the next one is written right after it
+        int[] order = new int[n];
+        int[] levelStart = new int[n + 1];
+        int levels = 0;
+        int tail = 0;
         for (int v = 0; v < n; v++) {
             if (indeg[v] == 0) {
-                q.add(v);
-                m.incTopo();
+                order[tail++] = v;
             }
         }
+        m.addTopo(tail);
+        long ops = tail;
+
         m.start();
-        List<Integer> order = new ArrayList<>();
-        while (!q.isEmpty()) {
-            int v = q.remove();
-            m.incTopo(); // pop
-            order.add(v);
-            for (int to : g.get(v)) {
-                if (--indeg[to] == 0) {
-                    q.add(to);
-                    m.incTopo(); // push
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            int head = 0;
+            AtomicInteger next = new AtomicInteger();
+            while (head < tail) {
+                levelStart[levels] = head;
+                for (int i = head; i < tail; i++) {
+                    level[order[i]] = levels;
+                }
+                next.set(tail);
+                if (pool == null || tail - head <= FRONTIER_GRAIN) {
+                    expand(g, indeg, order, head, tail, next);
+                } else {
+                    pool.invoke(new LevelTask(g, indeg, order, head, tail, next));
                 }
+                int newTail = next.get();
+                if (pool != null && newTail - tail > FRONTIER_GRAIN) {
+                    Arrays.parallelSort(order, tail, newTail);
+                } else {
+                    Arrays.sort(order, tail, newTail);
+                }
+                m.addTopo(newTail - head); // pops of this level, pushes of the next
+                ops += newTail - head;
+                levels++;
+                head = tail;
+                tail = newTail;
             }
+        } finally {
+            if (pool != null) pool.shutdown();
         }
         m.stop();
-        return order;
+        commit(event, g, tail, levels, ops);
+        levelStart[levels] = tail;
+        return new LevelOrder(tail == n ? order : Arrays.copyOf(order, tail),
+                level, Arrays.copyOf(levelStart, levels + 1));
+    }
+
+    /** Ends the event and commits it if the recording wants it. */
+    private static void commit(TopoEvent event, CsrGraph g, int ordered, int levels, long ops) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.vertices = g.n();
+            event.edges = g.m();
+            event.ordered = ordered;
+            event.levels = levels;
+            event.queueOps = ops;
+            event.commit();
+        }
+    }
+
+    private static void expand(CsrGraph g, int[] indeg, int[] order, int lo, int hi, AtomicInteger next) {
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        for (int i = lo; i < hi; i++) {
+            int v = order[i];
+            for (int e = offsets[v], end = offsets[v + 1]; e < end; e++) {
+                int to = targets[e];
+                if ((int) INDEG.getAndAdd(indeg, to, -1) == 1) {
+                    order[next.getAndIncrement()] = to;
+                }
+            }
+        }
+    }
+
+    /** Splits a frontier slice across the pool. */
+    @SuppressWarnings("serial")
+    private static final class LevelTask extends RecursiveAction {
+        private final transient CsrGraph g;
+        private final int[] indeg;
+        private final int[] order;
+        private final int lo;
+        private final int hi;
+        private final AtomicInteger next;
+
+        LevelTask(CsrGraph g, int[] indeg, int[] order, int lo, int hi, AtomicInteger next) {
+            this.g = g;
+            this.indeg = indeg;
+            this.order = order;
+            this.lo = lo;
+            this.hi = hi;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= FRONTIER_GRAIN) {
+                expand(g, indeg, order, lo, hi, next);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new LevelTask(g, indeg, order, lo, mid, next),
+                    new LevelTask(g, indeg, order, mid, hi, next));
+        }
     }
 }
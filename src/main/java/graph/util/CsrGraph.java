@@ -0,0 +1,224 @@
+package graph.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Directed graph in compressed sparse row (CSR) form.
+ * Outgoing edges of vertex v occupy indices [offsets[v], offsets[v + 1])
+ * of the {@code targets} and {@code weights} arrays.
+ * Neighbor order is preserved from the input, so algorithms visit
+ * edges in exactly the same order as on the list-based representation.
+ */
+public final class CsrGraph {
+
+    private final int n;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    /**
+     * Wraps existing CSR arrays (no copy).
+     *
+     * @param n       number of vertices
+     * @param offsets int[n + 1] edge offsets
+     * @param targets int[m] edge targets
+     * @param weights int[m] edge weights
+     */
+    public CsrGraph(int n, int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length != n + 1) {
+            throw new IllegalArgumentException("offsets must have length n + 1");
+        }
+        if (targets.length < offsets[n] || weights.length < offsets[n]) {
+            throw new IllegalArgumentException("targets/weights shorter than edge count");
+        }
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /** @return number of vertices */
+    public int n() {
+        return n;
+    }
+
+    /** @return number of edges */
+    public int m() {
+        return offsets[n];
+    }
+
+    /** @return index of the first outgoing edge of v */
+    public int begin(int v) {
+        return offsets[v];
+    }
+
+    /** @return index one past the last outgoing edge of v */
+    public int end(int v) {
+        return offsets[v + 1];
+    }
+
+    /** @return out-degree of v */
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /** @return target vertex of edge e */
+    public int target(int e) {
+        return targets[e];
+    }
+
+    /** @return weight of edge e */
+    public int weight(int e) {
+        return weights[e];
+    }
+
+    /** Raw arrays for hot loops. Callers must not modify them. */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    public int[] targets() {
+        return targets;
+    }
+
+    public int[] weights() {
+        return weights;
+    }
+
+    /**
+     * Builds a CSR graph from an edge list using a stable counting sort,
+     * so edges of each vertex keep their input order.
+     *
+     * @param n  number of vertices
+     * @param us edge sources
+     * @param vs edge targets
+     * @param ws edge weights
+     * @param m  number of edges to take from the arrays
+     * @return CSR graph
+     */
+    public static CsrGraph fromEdges(int n, int[] us, int[] vs, int[] ws, int m) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[us[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        for (int i = 0; i < m; i++) {
+            int pos = cursor[us[i]]++;
+            targets[pos] = vs[i];
+            weights[pos] = ws[i];
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Adapter from an unweighted adjacency list. Every edge gets weight 1.
+     *
+     * @param adj adj[v] = list of outgoing neighbors
+     * @return CSR graph
+     */
+    public static CsrGraph fromAdjacency(List<List<Integer>> adj) {
+        int n = adj.size();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + adj.get(v).size();
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        int pos = 0;
+        for (int v = 0; v < n; v++) {
+            for (int to : adj.get(v)) {
+                targets[pos] = to;
+                weights[pos] = 1;
+                pos++;
+            }
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Adapter from a weighted adjacency list.
+     *
+     * @param adjW adjW[v] = list of {to, weight}
+     * @return CSR graph
+     */
+    public static CsrGraph fromWeightedAdjacency(List<List<int[]>> adjW) {
+        int n = adjW.size();
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + adjW.get(v).size();
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        int pos = 0;
+        for (int v = 0; v < n; v++) {
+            for (int[] e : adjW.get(v)) {
+                targets[pos] = e[0];
+                weights[pos] = e[1];
+                pos++;
+            }
+        }
+        return new CsrGraph(n, offsets, targets, weights);
+    }
+
+    /**
+     * Builds the reverse graph (every edge u→v becomes v→u with the same weight).
+     * Incoming edges of each vertex are ordered by source vertex.
+     *
+     * @return transposed CSR graph
+     */
+    public CsrGraph transpose() {
+        int m = m();
+        int[] rOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            rOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            rOffsets[v + 1] += rOffsets[v];
+        }
+        int[] cursor = new int[n];
+        System.arraycopy(rOffsets, 0, cursor, 0, n);
+        int[] rTargets = new int[m];
+        int[] rWeights = new int[m];
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int pos = cursor[targets[e]]++;
+                rTargets[pos] = u;
+                rWeights[pos] = weights[e];
+            }
+        }
+        return new CsrGraph(n, rOffsets, rTargets, rWeights);
+    }
+
+    /** Converts back to an unweighted adjacency list (for list-based callers). */
+    public List<List<Integer>> toAdjacency() {
+        List<List<Integer>> adj = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            List<Integer> row = new ArrayList<>(degree(v));
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                row.add(targets[e]);
+            }
+            adj.add(row);
+        }
+        return adj;
+    }
+
+    /** Converts back to a weighted adjacency list (for list-based callers). */
+    public List<List<int[]>> toWeightedAdjacency() {
+        List<List<int[]>> adjW = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            List<int[]> row = new ArrayList<>(degree(v));
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                row.add(new int[]{targets[e], weights[e]});
+            }
+            adjW.add(row);
+        }
+        return adjW;
+    }
+}
@@ -0,0 +1,107 @@
+package graph.util;
+
+/**
+ * CSR graph with {@code long} edge weights, for durations or costs that do
+ * not fit in an int (e.g. microseconds summed along a long critical path).
+ * <p>
+ * The structure (offsets and targets) is an ordinary {@link CsrGraph}, so
+ * SCC and topological sort run on {@link #structure()} unchanged; its int
+ * weights hold the long weights saturated to the int range and should not
+ * be used for path lengths. Long weights live in a parallel primitive
+ * {@code long[]} indexed like the targets.
+ */
+public final class LongCsrGraph {
+
+    private final CsrGraph structure;
+    private final long[] weights;
+
+    /**
+     * Wraps existing arrays (no copy).
+     *
+     * @param structure graph structure
+     * @param weights   long[m] edge weights, indexed like structure.targets()
+     */
+    public LongCsrGraph(CsrGraph structure, long[] weights) {
+        if (weights.length < structure.m()) {
+            throw new IllegalArgumentException("weights shorter than edge count");
+        }
+        this.structure = structure;
+        this.weights = weights;
+    }
+
+    /** @return the graph structure (int weights are saturated) */
+    public CsrGraph structure() {
+        return structure;
+    }
+
+    public int n() {
+        return structure.n();
+    }
+
+    public int m() {
+        return structure.m();
+    }
+
+    public int begin(int v) {
+        return structure.begin(v);
+    }
+
+    public int end(int v) {
+        return structure.end(v);
+    }
+
+    public int target(int e) {
+        return structure.target(e);
+    }
+
+    /** @return weight of edge e */
+    public long weight(int e) {
+        return weights[e];
+    }
+
+    /** Raw weight array for hot loops. Callers must not modify it. */
+    public long[] weights() {
+        return weights;
+    }
+
+    /** Widens the int weights of g (shares its structure). */
+    public static LongCsrGraph of(CsrGraph g) {
+        int[] w = g.weights();
+        long[] lw = new long[g.m()];
+        for (int e = 0; e < lw.length; e++) {
+            lw[e] = w[e];
+        }
+        return new LongCsrGraph(g, lw);
+    }
+
+    /**
+     * Builds a long-weight CSR graph from an edge list (stable counting sort,
+     * same edge order as {@link CsrGraph#fromEdges}).
+     */
+    public static LongCsrGraph fromEdges(int n, int[] us, int[] vs, long[] ws, int m) {
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            offsets[us[i] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        int[] targets = new int[m];
+        int[] intWeights = new int[m];
+        long[] weights = new long[m];
+        for (int i = 0; i < m; i++) {
+            int pos = cursor[us[i]]++;
+            targets[pos] = vs[i];
+            weights[pos] = ws[i];
+            intWeights[pos] = saturate(ws[i]);
+        }
+        return new LongCsrGraph(new CsrGraph(n, offsets, targets, intWeights), weights);
+    }
+
+    /** @return w clamped to [Integer.MIN_VALUE, Integer.MAX_VALUE] */
+    public static int saturate(long w) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, w));
+    }
+}
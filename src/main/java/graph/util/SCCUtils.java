@@ -1,6 +1,7 @@
 package graph.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -43,4 +44,35 @@ public final class SCCUtils {
         }
         return compOf;
     }
+
+    /**
+     * Checks whether two vertex → component labelings describe the same
+     * partition, regardless of how the components are numbered.
+     *
+     * @param a first labeling
+     * @param b second labeling
+     * @return true if u, v share a component in a iff they do in b
+     */
+    public static boolean samePartition(int[] a, int[] b) {
+        if (a.length != b.length) return false;
+        int maxA = -1;
+        int maxB = -1;
+        for (int i = 0; i < a.length; i++) {
+            maxA = Math.max(maxA, a[i]);
+            maxB = Math.max(maxB, b[i]);
+        }
+        int[] aToB = new int[maxA + 1];
+        int[] bToA = new int[maxB + 1];
+        Arrays.fill(aToB, -1);
+        Arrays.fill(bToA, -1);
+        for (int v = 0; v < a.length; v++) {
+            if (aToB[a[v]] == -1 && bToA[b[v]] == -1) {
+                aToB[a[v]] = b[v];
+                bToA[b[v]] = a[v];
+            } else if (aToB[a[v]] != b[v] || bToA[b[v]] != a[v]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
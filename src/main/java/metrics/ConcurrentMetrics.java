@@ -0,0 +1,148 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe {@link Metrics} for trackers shared by several threads.
+ * <p>
+ * Counters are striped {@link LongAdder}s, so concurrent increments do not
+ * contend on one cache line; reads sum the stripes and are only exact once
+ * the writers are done. start/stop pairs are per thread and their durations
+ * (and allocations) add up, so the elapsed time is the total busy time of
+ * all threads, not wall-clock time.
+ */
+public final class ConcurrentMetrics implements Metrics {
+
+    private static final class Start {
+        long ns;
+        long alloc;
+    }
+
+    private final ThreadLocal<Start> started = ThreadLocal.withInitial(Start::new);
+    private final LongAdder elapsedNs = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private volatile boolean allocUnknown;
+
+    private final LongAdder dfsOps = new LongAdder();
+    private final LongAdder topoOps = new LongAdder();
+    private final LongAdder relaxOps = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    /** Start timer of the calling thread. */
+    @Override
+    public void start() {
+        Start s = started.get();
+        s.alloc = ThreadAllocation.current();
+        s.ns = System.nanoTime();
+    }
+
+    /** Stop timer of the calling thread and add its duration. */
+    @Override
+    public void stop() {
+        long now = System.nanoTime();
+        Start s = started.get();
+        elapsedNs.add(now - s.ns);
+        long alloc = ThreadAllocation.current();
+        if (alloc < 0 || s.alloc < 0) {
+            allocUnknown = true;
+        } else {
+            allocatedBytes.add(alloc - s.alloc);
+        }
+    }
+
+    /** @return summed elapsed time of all start/stop pairs in nanoseconds */
+    @Override
+    public long getElapsedNs() {
+        return elapsedNs.sum();
+    }
+
+    @Override
+    public double getElapsedMs() {
+        return getElapsedNs() / 1_000_000.0;
+    }
+
+    @Override
+    public void incDfs() {
+        dfsOps.increment();
+    }
+
+    @Override
+    public void incTopo() {
+        topoOps.increment();
+    }
+
+    @Override
+    public void incRelax() {
+        relaxOps.increment();
+    }
+
+    @Override
+    public void incCacheHit() {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void incCacheMiss() {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public void addDfs(long count) {
+        dfsOps.add(count);
+    }
+
+    @Override
+    public void addTopo(long count) {
+        topoOps.add(count);
+    }
+
+    @Override
+    public void addRelax(long count) {
+        relaxOps.add(count);
+    }
+
+    @Override
+    public long getDfsOps() {
+        return dfsOps.sum();
+    }
+
+    @Override
+    public long getTopoOps() {
+        return topoOps.sum();
+    }
+
+    @Override
+    public long getRelaxOps() {
+        return relaxOps.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /** @return summed allocations of all start/stop pairs, or -1 if unknown */
+    @Override
+    public long getAllocatedBytes() {
+        return allocUnknown ? -1 : allocatedBytes.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "concurrentMetrics{" +
+                "timeMs=" + getElapsedMs() +
+                ", dfsOps=" + getDfsOps() +
+                ", topoOps=" + getTopoOps() +
+                ", relaxOps=" + getRelaxOps() +
+                ", cacheHits=" + getCacheHits() +
+                ", cacheMisses=" + getCacheMisses() +
+                ", allocatedBytes=" + getAllocatedBytes() +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe latency histogram with power-of-two nanosecond buckets:
+ * bucket 0 holds 0 and bucket b > 0 holds samples in [2^(b-1), 2^b). Recording is one
+ * {@link LongAdder} increment, so it is cheap enough for per-query use;
+ * percentiles are accurate to a factor of two.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = new LongAdder();
+        }
+    }
+
+    /** Records one sample (negative values count as 0). */
+    public void record(long ns) {
+        counts[bucket(ns)].increment();
+        total.increment();
+    }
+
+    /** @return number of samples */
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * Upper bound of the bucket containing the q-th quantile.
+     *
+     * @param q quantile in [0, 1]
+     * @return nanoseconds, or 0 if there are no samples
+     */
+    public long percentileNs(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("quantile " + q);
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            snapshot[b] = counts[b].sum();
+            n += snapshot[b];
+        }
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += snapshot[b];
+            if (seen >= rank) return upperBound(b);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /** @return bucket of ns, in [0, 63] */
+    private static int bucket(long ns) {
+        return ns <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(ns);
+    }
+
+    private static long upperBound(int b) {
+        return b == 63 ? Long.MAX_VALUE : (1L << b) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "latency{count=" + count() +
+                ", p50Ns<=" + percentileNs(0.5) +
+                ", p99Ns<=" + percentileNs(0.99) +
+                '}';
+    }
+}
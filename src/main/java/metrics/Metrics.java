@@ -10,8 +10,20 @@ public interface Metrics {
     void incDfs();
     void incTopo();
     void incRelax();
+    void incCacheHit();
+    void incCacheMiss();
+
+    /** Bulk counters: hot loops count locally and report once. */
+    void addDfs(long count);
+    void addTopo(long count);
+    void addRelax(long count);
 
     long getDfsOps();
     long getTopoOps();
     long getRelaxOps();
+    long getCacheHits();
+    long getCacheMisses();
+
+    /** @return bytes allocated by the timing thread between start and stop, or -1 if unknown */
+    long getAllocatedBytes();
 }
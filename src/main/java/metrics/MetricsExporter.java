@@ -0,0 +1,98 @@
+package metrics;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Writes run metrics in the format of {@code data/metrics.csv}: one row per
+ * dataset, with the SCC, topo, shortest and longest phase of a
+ * {@link PipelineMetrics}. The JSON form uses the column names as keys.
+ */
+public final class MetricsExporter {
+
+    public static final String CSV_HEADER = "file,vertices,edges,"
+            + "Tarjan_SCC_count,Tarjan_time_ms,Tarjan_DFS_ops,"
+            + "Kahn_time_ms,Kahn_queue_ops,"
+            + "DAGSP_short_time_ms,DAGSP_short_relax_ops,"
+            + "DAGSP_long_time_ms,DAGSP_long_relax_ops,DAGSP_long_max";
+
+    /**
+     * One dataset.
+     *
+     * @param file     dataset file name
+     * @param vertices vertex count
+     * @param edges    edge count
+     * @param sccCount number of SCCs
+     * @param metrics  per-phase metrics (SCC, TOPO, SP and LP are exported)
+     * @param longMax  longest distance from the source
+     */
+    public record Row(String file, int vertices, int edges, int sccCount,
+                      PipelineMetrics metrics, long longMax) {}
+
+    private MetricsExporter() {}
+
+    /** Writes the header line. */
+    public static void writeHeader(Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write('\n');
+    }
+
+    /** Writes one CSV line. Times use {@link Double#toString}, as in metrics.csv. */
+    public static void writeRow(Writer out, Row r) throws IOException {
+        PipelineMetrics pm = r.metrics();
+        Metrics scc = pm.phase(Phase.SCC);
+        Metrics topo = pm.phase(Phase.TOPO);
+        Metrics sp = pm.phase(Phase.SP);
+        Metrics lp = pm.phase(Phase.LP);
+        out.write(String.join(",",
+                r.file(),
+                String.valueOf(r.vertices()),
+                String.valueOf(r.edges()),
+                String.valueOf(r.sccCount()),
+                String.valueOf(scc.getElapsedMs()),
+                String.valueOf(scc.getDfsOps()),
+                String.valueOf(topo.getElapsedMs()),
+                String.valueOf(topo.getTopoOps()),
+                String.valueOf(sp.getElapsedMs()),
+                String.valueOf(sp.getRelaxOps()),
+                String.valueOf(lp.getElapsedMs()),
+                String.valueOf(lp.getRelaxOps()),
+                String.valueOf(r.longMax())));
+        out.write('\n');
+    }
+
+    /** Writes the metric columns (all but file, vertices, edges) as fields of an open JSON object. */
+    public static void writeJson(JsonGenerator gen, Row r) throws IOException {
+        PipelineMetrics pm = r.metrics();
+        gen.writeNumberField("Tarjan_SCC_count", r.sccCount());
+        gen.writeNumberField("Tarjan_time_ms", pm.phase(Phase.SCC).getElapsedMs());
+        gen.writeNumberField("Tarjan_DFS_ops", pm.phase(Phase.SCC).getDfsOps());
+        gen.writeNumberField("Kahn_time_ms", pm.phase(Phase.TOPO).getElapsedMs());
+        gen.writeNumberField("Kahn_queue_ops", pm.phase(Phase.TOPO).getTopoOps());
+        gen.writeNumberField("DAGSP_short_time_ms", pm.phase(Phase.SP).getElapsedMs());
+        gen.writeNumberField("DAGSP_short_relax_ops", pm.phase(Phase.SP).getRelaxOps());
+        gen.writeNumberField("DAGSP_long_time_ms", pm.phase(Phase.LP).getElapsedMs());
+        gen.writeNumberField("DAGSP_long_relax_ops", pm.phase(Phase.LP).getRelaxOps());
+        gen.writeNumberField("DAGSP_long_max", r.longMax());
+    }
+
+    /**
+     * Full phase breakdown (all phases, including parse and condensation,
+     * with allocated bytes) as a JSON object keyed by phase name.
+     */
+    public static void putPhases(ObjectNode node, PipelineMetrics pm) {
+        for (Phase p : Phase.values()) {
+            Metrics m = pm.phase(p);
+            ObjectNode one = node.putObject(p.name().toLowerCase(Locale.ROOT));
+            one.put("time_ms", m.getElapsedMs());
+            one.put("dfs_ops", m.getDfsOps());
+            one.put("topo_ops", m.getTopoOps());
+            one.put("relax_ops", m.getRelaxOps());
+            one.put("allocated_bytes", m.getAllocatedBytes());
+        }
+    }
+}
@@ -2,19 +2,29 @@ package metrics;
 
 /**
  * Tracks execution time and operation counts for graph algorithms.
+ * <p>
+ * Plain fields: one tracker belongs to one thread. Parallel code counts
+ * into its own striped counters and reports the totals here, or uses
+ * {@link ConcurrentMetrics}. start/stop also sample the allocation counter
+ * of the calling thread.
  */
 public final class MetricsTracker implements Metrics {
 
     private long startNs;
     private long elapsedNs;
+    private long startAlloc;
+    private long allocatedBytes = -1;
 
     private long dfsOps;
     private long topoOps;
     private long relaxOps;
+    private long cacheHits;
+    private long cacheMisses;
 
     /** Start timer. */
     @Override
     public void start() {
+        startAlloc = ThreadAllocation.current();
         startNs = System.nanoTime();
     }
 
@@ -22,6 +32,8 @@ public final class MetricsTracker implements Metrics {
     @Override
     public void stop() {
         elapsedNs = System.nanoTime() - startNs;
+        long alloc = ThreadAllocation.current();
+        allocatedBytes = alloc < 0 || startAlloc < 0 ? -1 : alloc - startAlloc;
     }
 
     /** @return elapsed time in nanoseconds */
@@ -54,6 +66,33 @@ public final class MetricsTracker implements Metrics {
         relaxOps++;
     }
 
+    @Override
+    public void addDfs(long count) {
+        dfsOps += count;
+    }
+
+    @Override
+    public void addTopo(long count) {
+        topoOps += count;
+    }
+
+    @Override
+    public void addRelax(long count) {
+        relaxOps += count;
+    }
+
+    /** Count result-cache hit. */
+    @Override
+    public void incCacheHit() {
+        cacheHits++;
+    }
+
+    /** Count result-cache miss. */
+    @Override
+    public void incCacheMiss() {
+        cacheMisses++;
+    }
+
     /** Getters. **/
     @Override
     public long getDfsOps() {
@@ -70,6 +109,21 @@ public final class MetricsTracker implements Metrics {
         return relaxOps;
     }
 
+    @Override
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
     /** Summary string with time and counters. */
     @Override
     public String toString() {
@@ -78,6 +132,9 @@ public final class MetricsTracker implements Metrics {
                 ", dfsOps=" + dfsOps +
                 ", topoOps=" + topoOps +
                 ", relaxOps=" + relaxOps +
+                ", cacheHits=" + cacheHits +
+                ", cacheMisses=" + cacheMisses +
+                ", allocatedBytes=" + allocatedBytes +
                 '}';
     }
 }
@@ -0,0 +1,81 @@
+package metrics;
+
+/**
+ * {@link Metrics} that records nothing. Every method is an empty body, so
+ * once a call site only sees this class the JIT inlines the calls away.
+ * Useful for benchmarks and for repeated internal runs whose counters
+ * nobody reads.
+ */
+public enum NoopMetrics implements Metrics {
+    INSTANCE;
+
+    @Override
+    public void start() {}
+
+    @Override
+    public void stop() {}
+
+    @Override
+    public long getElapsedNs() {
+        return 0;
+    }
+
+    @Override
+    public double getElapsedMs() {
+        return 0;
+    }
+
+    @Override
+    public void incDfs() {}
+
+    @Override
+    public void incTopo() {}
+
+    @Override
+    public void incRelax() {}
+
+    @Override
+    public void incCacheHit() {}
+
+    @Override
+    public void incCacheMiss() {}
+
+    @Override
+    public void addDfs(long count) {}
+
+    @Override
+    public void addTopo(long count) {}
+
+    @Override
+    public void addRelax(long count) {}
+
+    @Override
+    public long getDfsOps() {
+        return 0;
+    }
+
+    @Override
+    public long getTopoOps() {
+        return 0;
+    }
+
+    @Override
+    public long getRelaxOps() {
+        return 0;
+    }
+
+    @Override
+    public long getCacheHits() {
+        return 0;
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return 0;
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return -1;
+    }
+}
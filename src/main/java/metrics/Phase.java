@@ -0,0 +1,14 @@
+package metrics;
+
+/**
+ * Stages of the analysis pipeline, in execution order.
+ */
+public enum Phase {
+    PARSE,
+    SCC,
+    CONDENSATION,
+    REDUCTION,
+    TOPO,
+    SP,
+    LP
+}
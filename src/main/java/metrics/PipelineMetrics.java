@@ -0,0 +1,74 @@
+package metrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * One {@link Metrics} per pipeline {@link Phase}, so a run reports a
+ * time / counter / allocation breakdown instead of a single total.
+ * <p>
+ * All phase trackers are created up front and the map is never modified
+ * afterwards, so {@link #phase(Phase)} may be called from any thread; the
+ * trackers themselves are only as thread-safe as their implementation
+ * ({@link #concurrent()} for shared use).
+ */
+public final class PipelineMetrics {
+
+    private final Map<Phase, Metrics> phases = new EnumMap<>(Phase.class);
+
+    /** Phases tracked by {@link MetricsTracker} (one thread). */
+    public PipelineMetrics() {
+        this(MetricsTracker::new);
+    }
+
+    private PipelineMetrics(Supplier<? extends Metrics> factory) {
+        for (Phase p : Phase.values()) {
+            phases.put(p, factory.get());
+        }
+    }
+
+    /** @return phases tracked by {@link ConcurrentMetrics} */
+    public static PipelineMetrics concurrent() {
+        return new PipelineMetrics(ConcurrentMetrics::new);
+    }
+
+    /** @return tracker of the given phase */
+    public Metrics phase(Phase p) {
+        return phases.get(p);
+    }
+
+    /** @return summed elapsed time of all phases in nanoseconds */
+    public long totalNs() {
+        long total = 0;
+        for (Metrics m : phases.values()) {
+            total += m.getElapsedNs();
+        }
+        return total;
+    }
+
+    /** @return summed allocations of the phases that recorded any, or -1 if none did */
+    public long totalAllocatedBytes() {
+        long total = -1;
+        for (Metrics m : phases.values()) {
+            if (m.getAllocatedBytes() >= 0) total = Math.max(total, 0) + m.getAllocatedBytes();
+        }
+        return total;
+    }
+
+    /** Summary with one line per phase that was timed. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Phase, Metrics> e : phases.entrySet()) {
+            Metrics m = e.getValue();
+            if (m.getElapsedNs() == 0) continue;
+            sb.append(String.format(Locale.ROOT,
+                    "%-12s %10.3f ms  dfs=%d topo=%d relax=%d alloc=%d%n",
+                    e.getKey(), m.getElapsedMs(), m.getDfsOps(), m.getTopoOps(), m.getRelaxOps(),
+                    m.getAllocatedBytes()));
+        }
+        return sb.toString();
+    }
+}
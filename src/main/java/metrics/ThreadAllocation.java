@@ -0,0 +1,32 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Per-thread allocation counter of the HotSpot {@code ThreadMXBean}.
+ * Returns -1 where the counter is not available or disabled.
+ */
+final class ThreadAllocation {
+
+    private static final com.sun.management.ThreadMXBean BEAN = lookup();
+
+    private ThreadAllocation() {}
+
+    /** @return bytes allocated so far by the current thread, or -1 */
+    static long current() {
+        return BEAN == null ? -1 : BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean lookup() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()
+                    && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean;
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // no com.sun.management on this VM
+        }
+        return null;
+    }
+}
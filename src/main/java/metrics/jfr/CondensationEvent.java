@@ -0,0 +1,33 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One condensation build. */
+@Name("graph.Condensation")
+@Label("Condensation")
+@Category({"Graph", "Pipeline"})
+@Description("Condensation DAG built from an SCC partition")
+@StackTrace(false)
+public final class CondensationEvent extends Event {
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Edges")
+    public int edges;
+
+    @Label("Components")
+    public int components;
+
+    @Label("DAG Edges")
+    @Description("Edges between components after merging parallel edges")
+    public int dagEdges;
+
+    @Label("Long Weights")
+    public boolean longWeights;
+}
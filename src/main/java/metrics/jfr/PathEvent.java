@@ -0,0 +1,40 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One DAG path computation (shortest, longest or CPM). */
+@Name("graph.Path")
+@Label("DAG Path")
+@Category({"Graph", "Pipeline"})
+@Description("Shortest / longest path relaxation over a topological order")
+@StackTrace(false)
+public final class PathEvent extends Event {
+
+    @Label("Kind")
+    @Description("shortest, longest, shortest-pair, longest-pair, k-shortest, k-longest, shortest-many, level-shortest, level-longest or cpm")
+    public String kind;
+
+    @Label("Source")
+    @Description("Source vertex, or -1 for several sources or none")
+    public int source;
+
+    @Label("Sources")
+    public int sources;
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Edges")
+    public int edges;
+
+    @Label("Relaxations")
+    public long relaxOps;
+
+    @Label("Long Weights")
+    public boolean longWeights;
+}
@@ -0,0 +1,60 @@
+package metrics.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+/**
+ * A flight recording with the JDK "profile" settings (GC, allocation,
+ * execution samples) plus the pipeline events, dumped to a file on close.
+ */
+public final class PipelineRecording implements AutoCloseable {
+
+    /** Event classes emitted by the pipeline. */
+    public static final List<Class<? extends Event>> EVENTS =
+            List.of(SccEvent.class, CondensationEvent.class, TopoEvent.class, PathEvent.class);
+
+    private final Recording recording;
+    private final Path out;
+
+    private PipelineRecording(Recording recording, Path out) {
+        this.recording = recording;
+        this.out = out;
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param out file written by {@link #close()}
+     */
+    public static PipelineRecording start(Path out) throws IOException {
+        Recording r;
+        try {
+            r = new Recording(Configuration.getConfiguration("profile"));
+        } catch (ParseException e) {
+            throw new IOException("cannot read the JFR profile settings", e);
+        }
+        r.setName("graph-pipeline");
+        for (Class<? extends Event> event : EVENTS) {
+            r.enable(event);
+        }
+        r.start();
+        return new PipelineRecording(r, out);
+    }
+
+    /** Stops the recording and writes it to the output file. */
+    @Override
+    public void close() throws IOException {
+        try {
+            recording.stop();
+            recording.dump(out);
+        } finally {
+            recording.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One SCC decomposition. */
+@Name("graph.Scc")
+@Label("SCC Decomposition")
+@Category({"Graph", "Pipeline"})
+@Description("Strongly connected components of the input graph")
+@StackTrace(false)
+public final class SccEvent extends Event {
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Edges")
+    public int edges;
+
+    @Label("Components")
+    public int components;
+
+    @Label("DFS Operations")
+    public long dfsOps;
+}
@@ -0,0 +1,34 @@
+package metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One topological sort. */
+@Name("graph.Topo")
+@Label("Topological Sort")
+@Category({"Graph", "Pipeline"})
+@Description("Kahn topological sort")
+@StackTrace(false)
+public final class TopoEvent extends Event {
+
+    @Label("Vertices")
+    public int vertices;
+
+    @Label("Edges")
+    public int edges;
+
+    @Label("Ordered")
+    @Description("Vertices in the order; fewer than Vertices if the graph has a cycle")
+    public int ordered;
+
+    @Label("Levels")
+    @Description("Number of levels, or -1 for the plain queue order")
+    public int levels;
+
+    @Label("Queue Operations")
+    public long queueOps;
+}
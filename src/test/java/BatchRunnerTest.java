@@ -0,0 +1,96 @@
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graph.batch.BatchRunner;
+import graph.batch.DatasetAnalysis;
+import graph.io.JsonGraphLoader;
+import graph.io.LoadedGraph;
+import metrics.PipelineMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent batch over a directory: same results as the sequential
+ * analysis, bad files skipped; node-model datasets use component durations.
+ */
+public class BatchRunnerTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void batchMatchesSequentialAnalysis(@TempDir Path tmp) throws Exception {
+        Path in = Files.createDirectory(tmp.resolve("in"));
+        List<Path> datasets = BatchRunner.listDatasets(DATA_DIR);
+        for (Path p : datasets) {
+            Files.copy(p, in.resolve(p.getFileName()));
+        }
+        Files.writeString(in.resolve("broken.json"), "{\"n\": 2, \"edges\": [");
+
+        Path outJson = tmp.resolve("output.json");
+        Path outCsv = tmp.resolve("metrics.csv");
+        BatchRunner.Summary s = new BatchRunner(3).run(BatchRunner.listDatasets(in), outJson, outCsv);
+        assertEquals(datasets.size(), s.files());
+        assertEquals(1, s.failed());
+
+        Map<String, JsonNode> byFile = new HashMap<>();
+        ObjectMapper mapper = new ObjectMapper();
+        for (JsonNode r : mapper.readTree(outJson.toFile()).get("results")) {
+            byFile.put(r.get("file").asText(), r);
+        }
+        assertEquals(datasets.size(), byFile.size());
+        List<String> csv = Files.readAllLines(outCsv);
+        assertEquals(datasets.size() + 1, csv.size());
+
+        for (Path p : datasets) {
+            String name = p.getFileName().toString();
+            DatasetAnalysis.Report report =
+                    DatasetAnalysis.analyze(JsonGraphLoader.load(p), name, new PipelineMetrics());
+            StringWriter sw = new StringWriter();
+            try (JsonGenerator gen = mapper.createGenerator(sw)) {
+                report.writeJson(gen);
+            }
+            JsonNode expected = mapper.readTree(sw.toString());
+            JsonNode actual = byFile.get(name);
+            for (String key : List.of("scc", "componentTopo", "taskOrder", "shortest", "criticalPath",
+                    "Tarjan_DFS_ops", "Kahn_queue_ops", "DAGSP_short_relax_ops", "DAGSP_long_relax_ops")) {
+                assertEquals(expected.get(key), actual.get(key), name + ": " + key);
+            }
+        }
+    }
+
+    @Test
+    void nodeModelUsesComponentDurations() throws Exception {
+        // 0 → {1, 2} (cycle) → 3, and 0 → 4 → 3; durations on the vertices
+        String tasks = "{\"n\": 5, \"weight_model\": \"node\", \"source\": 0,"
+                + " \"node_weights\": [1, 2, 3, 4, 10],"
+                + " \"edges\": [{\"u\": 0, \"v\": 1}, {\"u\": 1, \"v\": 2}, {\"u\": 2, \"v\": 1},"
+                + " {\"u\": 2, \"v\": 3}, {\"u\": 0, \"v\": 4}, {\"u\": 4, \"v\": 3}]}";
+        DatasetAnalysis.Report r = DatasetAnalysis.analyze(load(tasks), "tasks.json", new PipelineMetrics());
+        int[] compOf = r.scc().compOf();
+        assertEquals(1 + 5 + 4, r.dist()[compOf[3]]);
+        assertEquals(1 + 10 + 4, r.row().longMax());
+        assertEquals(List.of(compOf[0], compOf[4], compOf[3]), r.criticalPath());
+
+        // already a DAG: the paths run on the input vertices and their own weights
+        String chain = "{\"n\": 3, \"weight_model\": \"node\", \"source\": 0,"
+                + " \"node_weights\": [1, 2, 3],"
+                + " \"edges\": [{\"u\": 0, \"v\": 1}, {\"u\": 1, \"v\": 2}]}";
+        r = DatasetAnalysis.analyze(load(chain), "chain.json", new PipelineMetrics());
+        assertArrayEquals(new int[]{1, 3, 6}, r.dist());
+        assertEquals(6, r.row().longMax());
+    }
+
+    private static LoadedGraph load(String json) throws Exception {
+        return JsonGraphLoader.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
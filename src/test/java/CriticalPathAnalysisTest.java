@@ -0,0 +1,98 @@
+import graph.dagsp.CriticalPathAnalysis;
+import graph.dagsp.DAGLongestPath;
+import graph.io.JsonGraphLoader;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CPM schedule: hand-checked example plus consistency with single-source
+ * longest paths on the datasets.
+ */
+public class CriticalPathAnalysisTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void diamondWithTwoCriticalPaths() {
+        // 0 → 1 (3), 0 → 2 (3), 1 → 3 (2), 2 → 3 (2), 0 → 4 (1), 4 → 3 (1)
+        CsrGraph g = CsrGraph.fromEdges(5,
+                new int[]{0, 0, 1, 2, 0, 4},
+                new int[]{1, 2, 3, 3, 4, 3},
+                new int[]{3, 3, 2, 2, 1, 1}, 6);
+        int[] topo = KahnTopologicalSort.topo(g, new MetricsTracker());
+        CriticalPathAnalysis cpm = CriticalPathAnalysis.analyze(g, topo, new MetricsTracker());
+
+        assertEquals(5, cpm.projectLength());
+        CriticalPathAnalysis.Times t = cpm.componentTimes();
+        assertArrayEquals(new long[]{0, 3, 3, 5, 1}, t.earliest());
+        assertArrayEquals(new long[]{0, 3, 3, 5, 4}, t.latest());
+        assertArrayEquals(new long[]{0, 0, 0, 0, 3}, t.slack());
+
+        List<String> paths = new ArrayList<>();
+        for (int[] p : cpm.criticalPaths()) paths.add(Arrays.toString(p));
+        assertEquals(List.of("[0, 1, 3]", "[0, 2, 3]"), paths);
+
+        // tasks 5 and 6 share component 4
+        CriticalPathAnalysis.Times v = cpm.vertexTimes(new int[]{0, 1, 2, 3, 4, 4, 4});
+        assertEquals(3, v.slack()[6]);
+        assertEquals(1, v.earliest()[5]);
+    }
+
+    @Test
+    void scheduleMatchesLongestPathsOnDatasets() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*[0-9].json")) {
+            for (Path file : files) {
+                CsrGraph g = JsonGraphLoader.load(file).graph();
+                SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+                CsrGraph dag = CondensationBuilder.buildCondensation(g, scc);
+                int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+                CriticalPathAnalysis cpm = CriticalPathAnalysis.analyze(dag, topo, new MetricsTracker());
+
+                // ES = max over start components of their longest distance
+                long[] es = new long[dag.n()];
+                int[] indeg = new int[dag.n()];
+                for (int t : dag.targets()) indeg[t]++;
+                for (int s = 0; s < dag.n(); s++) {
+                    if (indeg[s] != 0) continue;
+                    int[] d = DAGLongestPath.longestFrom(s, topo, dag, new MetricsTracker()).dist();
+                    for (int c = 0; c < d.length; c++) {
+                        if (d[c] != Integer.MIN_VALUE) es[c] = Math.max(es[c], d[c]);
+                    }
+                }
+                assertArrayEquals(es, cpm.componentTimes().earliest(), file + ": earliest");
+
+                int count = 0;
+                for (int[] path : cpm.criticalPaths()) {
+                    long len = 0;
+                    for (int i = 0; i + 1 < path.length; i++) {
+                        assertTrue(cpm.isCritical(path[i]), file + ": critical");
+                        len += edgeWeight(dag, path[i], path[i + 1]);
+                    }
+                    assertEquals(0, cpm.earliestStart(path[0]), file + ": path start");
+                    assertEquals(cpm.projectLength(), len, file + ": path length");
+                    count++;
+                }
+                assertTrue(count > 0, file + ": at least one critical path");
+            }
+        }
+    }
+
+    private static long edgeWeight(CsrGraph g, int u, int v) {
+        for (int e = g.begin(u); e < g.end(u); e++) {
+            if (g.target(e) == v) return g.weight(e);
+        }
+        throw new AssertionError("no edge " + u + " -> " + v);
+    }
+}
@@ -0,0 +1,430 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.LevelRelaxation;
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphFiles;
+import graph.io.JsonGraphLoader;
+import graph.io.LoadedGraph;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the CSR algorithms against hand-computed values and against
+ * brute-force references (reachability closure, Bellman-Ford) on every
+ * dataset in /data; the list-based API, which delegates to the CSR code,
+ * must still give the same answers.
+ */
+public class CsrGraphAlgorithmsTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void smallFixtureExpectedValues() {
+        // {0, 1, 2} → {3, 4} → {5}, plus {0, 1, 2} → {5}
+        int[] us = {0, 1, 2, 2, 3, 4, 1, 4, 0};
+        int[] vs = {1, 2, 0, 3, 4, 3, 5, 5, 3};
+        int[] ws = {2, 3, 1, 4, 1, 5, 7, 2, 10};
+        CsrGraph g = CsrGraph.fromEdges(6, us, vs, ws, us.length);
+        SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+        assertEquals(3, scc.count());
+        int[] compOf = scc.compOf();
+        int a = compOf[0];
+        int b = compOf[3];
+        int c = compOf[5];
+        assertEquals(a, compOf[1]);
+        assertEquals(a, compOf[2]);
+        assertEquals(b, compOf[4]);
+        assertEquals(3, new HashSet<>(List.of(a, b, c)).size());
+
+        CsrGraph cond = CondensationBuilder.buildCondensation(g, scc);
+        assertEquals(3, cond.m());
+        assertEquals(4, edgeWeight(cond, a, b), "min of 2 → 3 (4) and 0 → 3 (10)");
+        assertEquals(7, edgeWeight(cond, a, c));
+        assertEquals(2, edgeWeight(cond, b, c));
+
+        assertArrayEquals(new int[]{a, b, c}, KahnTopologicalSort.topo(cond, new MetricsTracker()));
+        int[] topo = {a, b, c};
+        int[] shortest = DAGShortestPath.shortestFrom(a, topo, cond, new MetricsTracker());
+        assertEquals(0, shortest[a]);
+        assertEquals(4, shortest[b]);
+        assertEquals(6, shortest[c]);
+        assertEquals(DAGShortestPath.INF, DAGShortestPath.shortestFrom(c, topo, cond, new MetricsTracker())[a]);
+        DAGLongestPath.LongestResult longest = DAGLongestPath.longestFrom(a, topo, cond, new MetricsTracker());
+        assertEquals(4, longest.dist()[b]);
+        assertEquals(7, longest.dist()[c]);
+        assertEquals(a, longest.parent()[c]);
+        assertEquals(Integer.MIN_VALUE, DAGLongestPath.longestFrom(b, topo, cond, new MetricsTracker()).dist()[a]);
+    }
+
+    @Test
+    void parallelInterComponentEdgesKeepMinimum() {
+        // A = {0, 1}, B = {2, 3}, C = {4}; every crossing pair has several
+        // parallel edges, interleaved so the last source of each target changes
+        int[] us = {0, 1, 2, 3, 0, 0, 1, 2, 1, 0, 3, 1};
+        int[] vs = {1, 0, 3, 2, 2, 4, 3, 4, 2, 3, 4, 4};
+        int[] ws = {1, 1, 1, 1, 9, 8, 4, 7, 5, 6, 1, 3};
+        CsrGraph g = CsrGraph.fromEdges(5, us, vs, ws, us.length);
+        SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+        assertEquals(3, scc.count());
+        int[] compOf = scc.compOf();
+        int a = compOf[0];
+        int b = compOf[2];
+        int c = compOf[4];
+
+        CsrGraph cond = CondensationBuilder.buildCondensation(g, scc);
+        assertEquals(3, cond.m());
+        assertEquals(4, edgeWeight(cond, a, b));
+        assertEquals(3, edgeWeight(cond, a, c));
+        assertEquals(1, edgeWeight(cond, b, c));
+
+        long[] big = new long[us.length];
+        for (int i = 0; i < big.length; i++) big[i] = ws[i] + (1L << 40);
+        LongCsrGraph lcond = CondensationBuilder.buildCondensation(LongCsrGraph.fromEdges(5, us, vs, big, us.length), scc);
+        assertEquals(3, lcond.m());
+        assertEquals(4 + (1L << 40), longEdgeWeight(lcond, a, b));
+        assertEquals(3 + (1L << 40), longEdgeWeight(lcond, a, c));
+        assertEquals(1 + (1L << 40), longEdgeWeight(lcond, b, c));
+    }
+
+    @Test
+    void csrMatchesReferenceOnAllDatasets() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*.json")) {
+            for (Path json : files) {
+                if (json.getFileName().toString().equals("output.json")) continue;
+                JsonNode root = mapper.readTree(json.toFile());
+                compare(json.getFileName().toString(), root);
+            }
+        }
+    }
+
+    @Test
+    void iterativeTarjanHandlesLongChain() {
+        // 0 → 1 → ... → n-1 → 0: one SCC reached through a path of length n
+        int n = 1_000_000;
+        int[] us = new int[n];
+        int[] vs = new int[n];
+        int[] ws = new int[n];
+        for (int i = 0; i < n; i++) {
+            us[i] = i;
+            vs[i] = (i + 1) % n;
+            ws[i] = 1;
+        }
+        CsrGraph ring = CsrGraph.fromEdges(n, us, vs, ws, n);
+        MetricsTracker m = new MetricsTracker();
+        SccResult scc = new TarjanSCC(ring, m, true).decompose();
+        assertEquals(1, scc.count());
+        assertEquals(n, scc.size(0));
+        assertEquals(n, m.getDfsOps());
+    }
+
+    @Test
+    void levelTopoMatchesOnWideDag() {
+        // random forward edges u < v: wide early levels exercise the parallel frontier
+        Random rnd = new Random(7);
+        int n = 200_000;
+        int m = 3 * n;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = rnd.nextInt(n - 1);
+            vs[i] = us[i] + 1 + rnd.nextInt(n - 1 - us[i]);
+        }
+        CsrGraph dag = CsrGraph.fromEdges(n, us, vs, new int[m], m);
+        KahnTopologicalSort.LevelOrder seq = KahnTopologicalSort.topoLevels(dag, new MetricsTracker(), 1);
+        KahnTopologicalSort.LevelOrder par = KahnTopologicalSort.topoLevels(dag, new MetricsTracker(), 4);
+        assertTrue(seq.complete());
+        assertArrayEquals(seq.order(), par.order());
+        assertArrayEquals(seq.level(), par.level());
+        assertArrayEquals(seq.levelStart(), par.levelStart());
+
+        // level = longest path in edges, which also makes the order topological
+        int[] longest = new int[n];
+        for (int u = 0; u < n; u++) {
+            for (int e = dag.begin(u); e < dag.end(u); e++) {
+                longest[dag.target(e)] = Math.max(longest[dag.target(e)], longest[u] + 1);
+            }
+        }
+        assertArrayEquals(longest, par.level());
+        for (int l = 0; l < par.levelCount(); l++) {
+            for (int i = par.levelStart()[l]; i < par.levelStart()[l + 1]; i++) {
+                assertEquals(l, par.level()[par.order()[i]]);
+            }
+        }
+    }
+
+    @Test
+    void levelRelaxationMatchesPushSweep() {
+        Random rnd = new Random(9);
+        int n = 100_000;
+        int m = 4 * n;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int[] ws = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = rnd.nextInt(n - 1);
+            vs[i] = us[i] + 1 + rnd.nextInt(Math.min(64, n - 1 - us[i]));
+            ws[i] = 1 + rnd.nextInt(3); // small weights: many ties between parents
+        }
+        CsrGraph dag = CsrGraph.fromEdges(n, us, vs, ws, m);
+        KahnTopologicalSort.LevelOrder levels = KahnTopologicalSort.topoLevels(dag, new MetricsTracker(), 4);
+        int[] order = levels.order();
+        for (int src : new int[]{0, 17, n / 2}) {
+            int[] shortest = DAGShortestPath.shortestFrom(src, order, dag, new MetricsTracker());
+            DAGLongestPath.LongestResult longest = DAGLongestPath.longestFrom(src, order, dag, new MetricsTracker());
+            for (int threads : new int[]{1, 4}) {
+                LevelRelaxation lr = new LevelRelaxation(dag, levels, threads);
+                assertArrayEquals(shortest, lr.shortestFrom(src, new MetricsTracker()).dist());
+                LevelRelaxation.Result res = lr.longestFrom(src, new MetricsTracker());
+                assertArrayEquals(longest.dist(), res.dist());
+                assertArrayEquals(longest.parent(), res.parent());
+                assertEquals(levels.levelCount(), res.levelNs().length);
+            }
+        }
+    }
+
+    @Test
+    void levelTopoStopsAtCycle() {
+        // 0 → 1 → 2 → 1, 0 → 3
+        CsrGraph g = CsrGraph.fromEdges(4, new int[]{0, 1, 2, 0}, new int[]{1, 2, 1, 3}, new int[4], 4);
+        KahnTopologicalSort.LevelOrder lo = KahnTopologicalSort.topoLevels(g, new MetricsTracker(), 2);
+        assertFalse(lo.complete());
+        assertArrayEquals(new int[]{0, 3}, lo.order());
+        assertArrayEquals(new int[]{0, -1, -1, 1}, lo.level());
+    }
+
+    @Test
+    void binaryFormatRoundTrip(@TempDir Path tmp) throws Exception {
+        Path json = DATA_DIR.resolve("large2.json");
+        LoadedGraph original = JsonGraphLoader.load(json);
+        Path bin = tmp.resolve("large2.bin");
+        BinaryGraphFormat.write(original, bin);
+
+        assertTrue(BinaryGraphFormat.isBinary(bin));
+        assertFalse(BinaryGraphFormat.isBinary(json));
+        LoadedGraph copy = GraphFiles.load(bin);
+        assertEquals(original.n(), copy.n());
+        assertEquals(original.directed(), copy.directed());
+        assertEquals(original.weightModel(), copy.weightModel());
+        assertEquals(original.source(), copy.source());
+        assertArrayEquals(original.graph().offsets(), copy.graph().offsets());
+        assertArrayEquals(original.graph().targets(), copy.graph().targets());
+        assertArrayEquals(original.graph().weights(), copy.graph().weights());
+    }
+
+    @Test
+    void binaryFormatRejectsCorruptArrays(@TempDir Path tmp) throws Exception {
+        LoadedGraph original = JsonGraphLoader.load(DATA_DIR.resolve("small1.json"));
+        Path bin = tmp.resolve("small1.bin");
+        BinaryGraphFormat.write(original, bin);
+        byte[] bytes = Files.readAllBytes(bin);
+        int n = original.n();
+        int offsets = BinaryGraphFormat.HEADER_BYTES;
+        int targets = offsets + (n + 1) * Integer.BYTES;
+
+        // offsets[0], a decreasing offset, offsets[n], a target
+        int[][] patches = {{offsets, 1}, {offsets + Integer.BYTES, -1}, {targets - Integer.BYTES, 0}, {targets, n}};
+        for (int[] patch : patches) {
+            byte[] copy = bytes.clone();
+            ByteBuffer.wrap(copy).order(ByteOrder.LITTLE_ENDIAN).putInt(patch[0], patch[1]);
+            Path bad = tmp.resolve("bad.bin");
+            Files.write(bad, copy);
+            assertThrows(IOException.class, () -> BinaryGraphFormat.read(bad), "patch at " + patch[0]);
+        }
+    }
+
+    private static void compare(String name, JsonNode root) {
+        int n = root.get("n").asInt();
+        List<List<Integer>> adj = new ArrayList<>();
+        List<List<int[]>> adjW = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            adj.add(new ArrayList<>());
+            adjW.add(new ArrayList<>());
+        }
+        for (JsonNode e : root.get("edges")) {
+            int u = e.get("u").asInt();
+            int v = e.get("v").asInt();
+            int w = Math.max(1, e.get("w").asInt());
+            adj.get(u).add(v);
+            adjW.get(u).add(new int[]{v, w});
+        }
+        CsrGraph g = CsrGraph.fromWeightedAdjacency(adjW);
+
+        List<List<Integer>> comps = new TarjanSCC(adj, new MetricsTracker()).run();
+        SccResult scc = new TarjanSCC(g, new MetricsTracker()).decompose();
+        assertEquals(comps, scc.toLists(), name + ": SCC");
+        checkAgainstReference(name, g, scc, root.has("source") ? root.get("source").asInt() : 0);
+        MetricsTracker recM = new MetricsTracker();
+        MetricsTracker itM = new MetricsTracker();
+        SccResult rec = new TarjanSCC(g, recM).decompose();
+        SccResult it = new TarjanSCC(g, itM, true).decompose();
+        assertEquals(rec.toLists(), it.toLists(), name + ": iterative SCC");
+        assertEquals(recM.getDfsOps(), itM.getDfsOps(), name + ": iterative DFS ops");
+
+        List<List<Integer>> dag = CondensationBuilder.buildCondensation(adj, comps);
+        List<List<int[]>> dagW = CondensationBuilder.buildWeightedCondensation(adj, adjW, comps);
+        CsrGraph cond = CondensationBuilder.buildCondensation(g, scc);
+        assertEquals(dag, cond.toAdjacency(), name + ": condensation");
+        List<List<int[]>> condW = cond.toWeightedAdjacency();
+        for (int c = 0; c < dagW.size(); c++) {
+            assertEquals(dagW.get(c).size(), condW.get(c).size(), name + ": weighted condensation");
+            for (int i = 0; i < dagW.get(c).size(); i++) {
+                assertArrayEquals(dagW.get(c).get(i), condW.get(c).get(i), name + ": weighted condensation");
+            }
+        }
+        CondensationBuilder.Condensation both = CondensationBuilder.buildBoth(adjW, comps);
+        assertEquals(dag, both.dag(), name + ": buildBoth");
+
+        List<Integer> topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+        int[] topoCsr = KahnTopologicalSort.topo(cond, new MetricsTracker());
+        assertEquals(topo, Arrays.stream(topoCsr).boxed().toList(), name + ": topo");
+
+        int src = scc.compOf()[root.has("source") ? root.get("source").asInt() : 0];
+        assertArrayEquals(
+                DAGShortestPath.shortestFrom(src, topo, dagW, new MetricsTracker()),
+                DAGShortestPath.shortestFrom(src, topoCsr, cond, new MetricsTracker()),
+                name + ": shortest");
+        int[] all = new int[cond.n()];
+        for (int c = 0; c < all.length; c++) all[c] = c;
+        for (int threads : new int[]{1, 3}) {
+            DAGShortestPath.DistanceMatrix many =
+                    DAGShortestPath.shortestFromMany(all, topoCsr, cond, new MetricsTracker(), threads);
+            for (int c = 0; c < all.length; c++) {
+                assertArrayEquals(DAGShortestPath.shortestFrom(c, topoCsr, cond, new MetricsTracker()),
+                        many.row(c), name + ": multi-source row " + c);
+            }
+        }
+        assertArrayEquals(
+                DAGLongestPath.longestFrom(src, topo, dagW, new MetricsTracker()).dist(),
+                DAGLongestPath.longestFrom(src, topoCsr, cond, new MetricsTracker()).dist(),
+                name + ": longest");
+    }
+
+    /**
+     * Independent of the algorithms under test: SCCs from the reachability
+     * closure, condensation edges as the minimum over all crossing edges,
+     * and distances by Bellman-Ford.
+     */
+    private static void checkAgainstReference(String name, CsrGraph g, SccResult scc, int source) {
+        int n = g.n();
+        boolean[][] reach = new boolean[n][n];
+        for (int u = 0; u < n; u++) {
+            reach[u][u] = true;
+            for (int e = g.begin(u); e < g.end(u); e++) reach[u][g.target(e)] = true;
+        }
+        for (int k = 0; k < n; k++) {
+            for (int u = 0; u < n; u++) {
+                if (!reach[u][k]) continue;
+                for (int v = 0; v < n; v++) reach[u][v] |= reach[k][v];
+            }
+        }
+        int[] compOf = scc.compOf();
+        for (int u = 0; u < n; u++) {
+            for (int v = 0; v < n; v++) {
+                assertEquals(reach[u][v] && reach[v][u], compOf[u] == compOf[v],
+                        name + ": SCC of " + u + " and " + v);
+            }
+        }
+
+        int k = scc.count();
+        int[][] minW = new int[k][k];
+        for (int[] row : minW) Arrays.fill(row, Integer.MAX_VALUE);
+        for (int u = 0; u < n; u++) {
+            for (int e = g.begin(u); e < g.end(u); e++) {
+                int a = compOf[u];
+                int b = compOf[g.target(e)];
+                if (a != b) minW[a][b] = Math.min(minW[a][b], g.weight(e));
+            }
+        }
+        CsrGraph cond = CondensationBuilder.buildCondensation(g, scc);
+        int edges = 0;
+        for (int a = 0; a < k; a++) {
+            for (int b = 0; b < k; b++) {
+                if (minW[a][b] != Integer.MAX_VALUE) {
+                    edges++;
+                    assertEquals(minW[a][b], edgeWeight(cond, a, b), name + ": condensation " + a + " → " + b);
+                }
+            }
+        }
+        assertEquals(edges, cond.m(), name + ": condensation edge count");
+
+        int[] topo = KahnTopologicalSort.topo(cond, new MetricsTracker());
+        int[] pos = new int[k];
+        Arrays.fill(pos, -1);
+        for (int i = 0; i < topo.length; i++) pos[topo[i]] = i;
+        for (int a = 0; a < k; a++) {
+            assertTrue(pos[a] >= 0, name + ": topo misses " + a);
+            for (int e = cond.begin(a); e < cond.end(a); e++) {
+                assertTrue(pos[a] < pos[cond.target(e)], name + ": topo edge " + a + " → " + cond.target(e));
+            }
+        }
+
+        int src = compOf[source];
+        long[] shortest = new long[k];
+        long[] longest = new long[k];
+        Arrays.fill(shortest, Long.MAX_VALUE);
+        Arrays.fill(longest, Long.MIN_VALUE);
+        shortest[src] = 0;
+        longest[src] = 0;
+        for (int round = 0; round < k; round++) {
+            for (int a = 0; a < k; a++) {
+                for (int e = cond.begin(a); e < cond.end(a); e++) {
+                    int b = cond.target(e);
+                    if (shortest[a] != Long.MAX_VALUE) shortest[b] = Math.min(shortest[b], shortest[a] + cond.weight(e));
+                    if (longest[a] != Long.MIN_VALUE) longest[b] = Math.max(longest[b], longest[a] + cond.weight(e));
+                }
+            }
+        }
+        int[] dist = DAGShortestPath.shortestFrom(src, topo, cond, new MetricsTracker());
+        int[] far = DAGLongestPath.longestFrom(src, topo, cond, new MetricsTracker()).dist();
+        for (int c = 0; c < k; c++) {
+            assertEquals(shortest[c] == Long.MAX_VALUE ? DAGShortestPath.INF : shortest[c], dist[c],
+                    name + ": shortest to " + c);
+            assertEquals(longest[c] == Long.MIN_VALUE ? Integer.MIN_VALUE : longest[c], far[c],
+                    name + ": longest to " + c);
+        }
+    }
+
+    /** Weight of the edge a → b; fails if there is none or more than one. */
+    private static int edgeWeight(CsrGraph g, int a, int b) {
+        int found = -1;
+        for (int e = g.begin(a); e < g.end(a); e++) {
+            if (g.target(e) == b) {
+                assertEquals(-1, found, "parallel edges " + a + " → " + b);
+                found = e;
+            }
+        }
+        assertNotEquals(-1, found, "no edge " + a + " → " + b);
+        return g.weight(found);
+    }
+
+    /** Weight of the edge a → b of a long-weight graph; fails unless there is exactly one. */
+    private static long longEdgeWeight(LongCsrGraph g, int a, int b) {
+        int found = -1;
+        for (int e = g.begin(a); e < g.end(a); e++) {
+            if (g.target(e) == b) {
+                assertEquals(-1, found, "parallel edges " + a + " → " + b);
+                found = e;
+            }
+        }
+        assertNotEquals(-1, found, "no edge " + a + " → " + b);
+        return g.weight(found);
+    }
+}
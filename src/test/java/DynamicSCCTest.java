@@ -0,0 +1,73 @@
+import graph.scc.DynamicSCC;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.util.CsrGraph;
+import graph.util.SCCUtils;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Random insert / delete sequences: after every update the maintained
+ * partition must equal a fresh Tarjan run, and the maintained order must
+ * be a topological order of the condensation.
+ */
+public class DynamicSCCTest {
+
+    @Test
+    void randomUpdatesMatchRecomputation() {
+        Random rnd = new Random(11);
+        int n = 300;
+        DynamicSCC dyn = new DynamicSCC(n, new MetricsTracker());
+        List<int[]> edges = new ArrayList<>();
+
+        for (int step = 0; step < 3000; step++) {
+            if (edges.isEmpty() || rnd.nextInt(4) != 0) {
+                int u = rnd.nextInt(n);
+                int v = rnd.nextInt(n);
+                edges.add(new int[]{u, v});
+                dyn.addEdge(u, v, 1 + rnd.nextInt(9));
+            } else {
+                int[] e = edges.remove(rnd.nextInt(edges.size()));
+                assertTrue(dyn.removeEdge(e[0], e[1]));
+            }
+            if (step % 50 == 0) check(dyn);
+        }
+        check(dyn);
+    }
+
+    @Test
+    void cycleInsertionMergesAndDeletionSplits() {
+        DynamicSCC dyn = new DynamicSCC(4, new MetricsTracker());
+        dyn.addEdge(0, 1, 1);
+        dyn.addEdge(1, 2, 1);
+        dyn.addEdge(2, 3, 1);
+        assertEquals(4, dyn.componentCount());
+        assertTrue(dyn.addEdge(3, 1, 1));
+        assertEquals(2, dyn.componentCount());
+        assertTrue(dyn.sameComponent(1, 3));
+        check(dyn);
+
+        dyn.removeEdge(2, 3);
+        assertEquals(4, dyn.componentCount());
+        check(dyn);
+    }
+
+    private static void check(DynamicSCC dyn) {
+        DynamicSCC.Snapshot snap = dyn.snapshot();
+        SccResult fresh = new TarjanSCC(snap.graph(), new MetricsTracker(), true).decompose();
+        assertEquals(fresh.count(), dyn.componentCount());
+        assertTrue(SCCUtils.samePartition(fresh.compOf(), snap.scc().compOf()));
+        CsrGraph dag = snap.condensation();
+        for (int c = 0; c < dag.n(); c++) {
+            for (int e = dag.begin(c); e < dag.end(c); e++) {
+                assertTrue(c < dag.target(e), "order violated by " + c + " -> " + dag.target(e));
+            }
+        }
+    }
+}
@@ -1,19 +1,13 @@
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import graph.dagsp.DAGShortestPath;
-import graph.dagsp.DAGLongestPath;
-import graph.scc.TarjanSCC;
-import graph.scc.CondensationBuilder;
-import graph.topo.KahnTopologicalSort;
-import graph.util.SCCUtils;
-import metrics.MetricsTracker;
+import graph.batch.DatasetAnalysis;
+import graph.io.JsonGraphLoader;
+import graph.io.JsonResultWriter;
+import graph.io.LoadedGraph;
+import metrics.MetricsExporter;
+import metrics.PipelineMetrics;
 import org.junit.jupiter.api.Test;
 
 import java.io.BufferedWriter;
 import java.nio.file.*;
-import java.util.*;
 
 /**
  * Integration test that runs SCC → Condensation → Topo → DAG-SP
@@ -25,247 +19,33 @@ public class GraphAlgorithmsIntegrationTest {
     private static final Path OUT_JSON = DATA_DIR.resolve("output.json");
     private static final Path OUT_CSV = DATA_DIR.resolve("metrics.csv");
 
-    /** Edge format in JSON. */
-    public static class EdgeDTO { public int u, v, w; }
-
-    /** Dataset format for JSON files. */
-    public static class DatasetDTO {
-        public boolean directed;
-        public int n;
-        public List<EdgeDTO> edges;
-        public Integer source;
-        public String weight_model;
-    }
-
     @Test
     void runAllJsonDatasets() throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        ArrayNode results = mapper.createArrayNode();
-
         if (!Files.exists(DATA_DIR)) throw new IllegalStateException("data/ folder missing");
         Files.deleteIfExists(OUT_CSV);
 
-        try (BufferedWriter csv = Files.newBufferedWriter(OUT_CSV, StandardOpenOption.CREATE)) {
-            csv.write("file,vertices,edges,"
-                    + "Tarjan_SCC_count,Tarjan_time_ms,Tarjan_DFS_ops,"
-                    + "Kahn_time_ms,Kahn_queue_ops,"
-                    + "DAGSP_short_time_ms,DAGSP_short_relax_ops,"
-                    + "DAGSP_long_time_ms,DAGSP_long_relax_ops,DAGSP_long_max\n");
+        try (BufferedWriter csv = Files.newBufferedWriter(OUT_CSV, StandardOpenOption.CREATE);
+             JsonResultWriter json = new JsonResultWriter(OUT_JSON)) {
+            MetricsExporter.writeHeader(csv);
 
             try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*.json")) {
-                for (Path json : files) {
-                    String name = json.getFileName().toString();
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
                     if (name.equals("output.json")) continue;
-                    DatasetDTO ds = mapper.readValue(json.toFile(), new TypeReference<>() {});
-                    runAlgorithms(ds, name, results, csv);
+                    LoadedGraph ds = JsonGraphLoader.load(file);
+                    runAlgorithms(ds, name, json, csv);
                 }
             }
         }
-
-        ObjectNode root = new ObjectMapper().createObjectNode();
-        root.set("results", results);
-        new ObjectMapper()
-                .writerWithDefaultPrettyPrinter()
-                .writeValue(OUT_JSON.toFile(), root);
     }
 
-    /** Executes all algorithms on a single dataset and writes metrics. */
-    private static void runAlgorithms(DatasetDTO ds,
+    /** Executes all algorithms on a single dataset and streams its results. */
+    private static void runAlgorithms(LoadedGraph ds,
                                       String name,
-                                      ArrayNode results,
+                                      JsonResultWriter json,
                                       BufferedWriter csv) throws Exception {
-
-        ObjectMapper mapper = new ObjectMapper();
-
-        // 1) build graphs
-        List<List<Integer>> adj = buildAdj(ds);
-        List<List<int[]>> adjW = buildWeightedAdj(ds);
-
-        // 2) run SCC
-        MetricsTracker sccM = new MetricsTracker();
-        TarjanSCC scc = new TarjanSCC(adj, sccM);
-        List<List<Integer>> comps = scc.run();
-        int compCount = comps.size();
-
-        // vertex -> component id
-        int[] compOf = SCCUtils.buildVertexToComp(comps, ds.n);
-
-        // metrics for other parts
-        MetricsTracker topoM = new MetricsTracker();
-        MetricsTracker shortM = new MetricsTracker();
-        MetricsTracker longM = new MetricsTracker();
-
-        List<Integer> topoOrder;
-        List<List<int[]>> dagWeighted;
-        int srcComp;
-
-        // 3) decide: original DAG or condensation
-        if (compCount == ds.n) {
-            // try topo on original
-            topoOrder = KahnTopologicalSort.topo(adj, topoM);
-            if (topoOrder.size() < ds.n) {
-                // still cyclic -> use condensation
-                List<List<Integer>> cond = CondensationBuilder.buildCondensation(adj, comps);
-                List<List<int[]>> condW = CondensationBuilder.buildWeightedCondensation(adj, adjW, comps);
-                topoOrder = KahnTopologicalSort.topo(cond, topoM);
-                dagWeighted = condW;
-                int originalSrc = (ds.source != null) ? ds.source : 0;
-                srcComp = compOf[originalSrc];
-            } else {
-                // original is DAG
-                dagWeighted = adjW;
-                int originalSrc = (ds.source != null) ? ds.source : 0;
-                srcComp = originalSrc;
-            }
-        } else {
-            // multiple SCCs -> build condensation
-            List<List<Integer>> cond = CondensationBuilder.buildCondensation(adj, comps);
-            List<List<int[]>> condW = CondensationBuilder.buildWeightedCondensation(adj, adjW, comps);
-            topoOrder = KahnTopologicalSort.topo(cond, topoM);
-            dagWeighted = condW;
-            int originalSrc = (ds.source != null) ? ds.source : 0;
-            srcComp = compOf[originalSrc];
-        }
-
-        // 4) DAG shortest path: in your project it returns int[]
-        int[] dist = DAGShortestPath.shortestFrom(srcComp, topoOrder, dagWeighted, shortM);
-
-        // 5) DAG longest path: returns LongestResult(dist, parent)
-        DAGLongestPath.LongestResult longRes =
-                DAGLongestPath.longestFrom(srcComp, topoOrder, dagWeighted, longM);
-
-        int[] longDist = longRes.dist();
-
-        // find vertex with max distance
-        int bestV = -1;
-        int maxLen = Integer.MIN_VALUE;
-        for (int v = 0; v < longDist.length; v++) {
-            if (longDist[v] > maxLen) {
-                maxLen = longDist[v];
-                bestV = v;
-            }
-        }
-        if (maxLen == Integer.MIN_VALUE) {
-            maxLen = 0;
-            bestV = srcComp;
-        }
-
-        // rebuild critical path using existing method
-        List<Integer> critPath = DAGLongestPath.rebuildPath(bestV, longRes);
-
-        // 6) build JSON for this dataset
-        ObjectNode one = mapper.createObjectNode();
-        one.put("file", name);
-        one.put("vertices", ds.n);
-        one.put("edges", ds.edges.size());
-        if (ds.weight_model != null) {
-            one.put("weight_model", ds.weight_model);
-        }
-
-        // 6.1 SCC list
-        ArrayNode sccArr = mapper.createArrayNode();
-        for (int cid = 0; cid < comps.size(); cid++) {
-            List<Integer> compVerts = comps.get(cid);
-            ObjectNode cNode = mapper.createObjectNode();
-            cNode.put("id", cid);
-            cNode.put("size", compVerts.size());
-            ArrayNode vs = mapper.createArrayNode();
-            for (int v : compVerts) {
-                vs.add(v);
-            }
-            cNode.set("vertices", vs);
-            sccArr.add(cNode);
-        }
-        one.set("scc", sccArr);
-
-        // 6.2 component topo order
-        ArrayNode topoArr = mapper.createArrayNode();
-        for (int c : topoOrder) {
-            topoArr.add(c);
-        }
-        one.set("componentTopo", topoArr);
-
-        // 6.3 expanded order (components -> original vertices)
-        ArrayNode taskOrder = mapper.createArrayNode();
-        for (int c : topoOrder) {
-            if (c < comps.size()) {
-                for (int v : comps.get(c)) {
-                    taskOrder.add(v);
-                }
-            }
-        }
-        one.set("taskOrder", taskOrder);
-
-        // 6.4 shortest distances (no path, because your class does not store parents)
-        ObjectNode shortestNode = mapper.createObjectNode();
-        shortestNode.put("sourceComp", srcComp);
-        ArrayNode distArr = mapper.createArrayNode();
-        for (int d : dist) {
-            distArr.add(d);
-        }
-        shortestNode.set("dist", distArr);
-        one.set("shortest", shortestNode);
-
-        // 6.5 critical path
-        ObjectNode critNode = mapper.createObjectNode();
-        critNode.put("length", maxLen);
-        ArrayNode cpArr = mapper.createArrayNode();
-        for (int v : critPath) {
-            cpArr.add(v);
-        }
-        critNode.set("path", cpArr);
-        one.set("criticalPath", critNode);
-
-        // 6.6 metrics
-        one.put("Tarjan_SCC_count", compCount);
-        one.put("Tarjan_time_ms", sccM.getElapsedMs());
-        one.put("Tarjan_DFS_ops", sccM.getDfsOps());
-        one.put("Kahn_time_ms", topoM.getElapsedMs());
-        one.put("Kahn_queue_ops", topoM.getTopoOps());
-        one.put("DAGSP_short_time_ms", shortM.getElapsedMs());
-        one.put("DAGSP_short_relax_ops", shortM.getRelaxOps());
-        one.put("DAGSP_long_time_ms", longM.getElapsedMs());
-        one.put("DAGSP_long_relax_ops", longM.getRelaxOps());
-        one.put("DAGSP_long_max", maxLen);
-
-        // add to global JSON array
-        results.add(one);
-
-        // 7) CSV stays the same
-        csv.write(String.join(",",
-                name,
-                String.valueOf(ds.n),
-                String.valueOf(ds.edges.size()),
-                String.valueOf(compCount),
-                String.valueOf(sccM.getElapsedMs()),
-                String.valueOf(sccM.getDfsOps()),
-                String.valueOf(topoM.getElapsedMs()),
-                String.valueOf(topoM.getTopoOps()),
-                String.valueOf(shortM.getElapsedMs()),
-                String.valueOf(shortM.getRelaxOps()),
-                String.valueOf(longM.getElapsedMs()),
-                String.valueOf(longM.getRelaxOps()),
-                String.valueOf(maxLen)
-        ));
-        csv.write("\n");
-    }
-
-    /** Builds adjacency list from dataset. */
-    private static List<List<Integer>> buildAdj(DatasetDTO ds) {
-        List<List<Integer>> g = new ArrayList<>();
-        for (int i = 0; i < ds.n; i++) g.add(new ArrayList<>());
-        for (EdgeDTO e : ds.edges) g.get(e.u).add(e.v);
-        return g;
-    }
-
-    /** Builds weighted adjacency list from dataset. */
-    private static List<List<int[]>> buildWeightedAdj(DatasetDTO ds) {
-        List<List<int[]>> g = new ArrayList<>();
-        for (int i = 0; i < ds.n; i++) g.add(new ArrayList<>());
-        for (EdgeDTO e : ds.edges) {
-            int w = (e.w == 0) ? 1 : e.w;
-            g.get(e.u).add(new int[]{e.v, w});
-        }
-        return g;
+        DatasetAnalysis.Report report = DatasetAnalysis.analyze(ds, name, new PipelineMetrics());
+        report.writeJson(json.generator());
+        MetricsExporter.writeRow(csv, report.row());
     }
 }
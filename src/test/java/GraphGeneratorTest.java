@@ -0,0 +1,58 @@
+import graph.gen.GraphGenerator;
+import graph.gen.GraphGenerator.SizeDistribution;
+import graph.io.JsonGraphLoader;
+import graph.io.LoadedGraph;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that generated graphs have the requested size, SCC structure and DAG depth.
+ */
+public class GraphGeneratorTest {
+
+    @Test
+    void generatedStructureMatchesSpec(@TempDir Path tmp) throws Exception {
+        GraphGenerator.Spec spec = new GraphGenerator.Spec(
+                20_000, 80_000, 1, 30, SizeDistribution.GEOMETRIC,
+                25, 0.3, 1, 9, true, 7L);
+        GraphGenerator gen = new GraphGenerator(spec);
+        Path json = tmp.resolve("gen.json");
+        gen.writeJson(json);
+
+        LoadedGraph data = JsonGraphLoader.load(json);
+        assertEquals(spec.n(), data.n());
+        assertEquals(spec.m(), data.edgeCount());
+        assertEquals(gen.source(), data.sourceOrDefault());
+        assertTrue(Arrays.stream(data.graph().weights()).allMatch(w -> w >= 1 && w <= 9));
+
+        CsrGraph g = data.graph();
+        SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+        assertEquals(gen.componentCount(), scc.count());
+        assertTrue(scc.maxSize() <= 30);
+
+        // longest chain of components (in edges) is depth - 1
+        CsrGraph dag = CondensationBuilder.buildCondensation(g, scc);
+        int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+        int[] level = new int[dag.n()];
+        int deepest = 0;
+        for (int c : topo) {
+            deepest = Math.max(deepest, level[c]);
+            for (int e = dag.begin(c); e < dag.end(c); e++) {
+                int to = dag.target(e);
+                level[to] = Math.max(level[to], level[c] + 1);
+            }
+        }
+        assertEquals(spec.depth() - 1, deepest);
+    }
+}
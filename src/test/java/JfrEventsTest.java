@@ -0,0 +1,81 @@
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.io.JsonGraphLoader;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import metrics.MetricsTracker;
+import metrics.jfr.PipelineRecording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pipeline stages emit their JFR events with the counts of the run.
+ */
+public class JfrEventsTest {
+
+    @Test
+    void pipelineEventsAreRecorded(@TempDir Path tmp) throws Exception {
+        Path out = tmp.resolve("run.jfr");
+        CsrGraph g = JsonGraphLoader.load(Paths.get("data", "medium1.json")).graph();
+        MetricsTracker sccM = new MetricsTracker();
+        MetricsTracker topoM = new MetricsTracker();
+        MetricsTracker longM = new MetricsTracker();
+        MetricsTracker manyM = new MetricsTracker();
+        SccResult scc;
+        CsrGraph dag;
+        try (PipelineRecording ignored = PipelineRecording.start(out)) {
+            scc = new TarjanSCC(g, sccM, true).decompose();
+            dag = CondensationBuilder.buildCondensation(g, scc);
+            int[] topo = KahnTopologicalSort.topo(dag, topoM);
+            DAGShortestPath.shortestFrom(0, topo, dag, new MetricsTracker());
+            DAGLongestPath.longestFrom(0, topo, dag, longM);
+            DAGShortestPath.shortestFromMany(new int[]{0, 1, 2}, topo, dag, manyM);
+        }
+
+        Map<String, RecordedEvent> byName = new HashMap<>();
+        Map<String, RecordedEvent> paths = new HashMap<>();
+        for (RecordedEvent e : RecordingFile.readAllEvents(out)) {
+            String name = e.getEventType().getName();
+            if (!name.startsWith("graph.")) continue;
+            byName.put(name, e);
+            if (name.equals("graph.Path")) paths.put(e.getString("kind"), e);
+        }
+
+        RecordedEvent s = byName.get("graph.Scc");
+        assertNotNull(s);
+        assertEquals("tarjan", s.getString("engine"));
+        assertEquals(g.n(), s.getInt("vertices"));
+        assertEquals(scc.count(), s.getInt("components"));
+        assertEquals(sccM.getDfsOps(), s.getLong("dfsOps"));
+
+        RecordedEvent c = byName.get("graph.Condensation");
+        assertNotNull(c);
+        assertEquals(dag.m(), c.getInt("dagEdges"));
+
+        RecordedEvent t = byName.get("graph.Topo");
+        assertNotNull(t);
+        assertEquals(dag.n(), t.getInt("ordered"));
+        assertEquals(topoM.getTopoOps(), t.getLong("queueOps"));
+
+        assertEquals(3, paths.size());
+        RecordedEvent lp = paths.get("longest");
+        assertEquals(longM.getRelaxOps(), lp.getLong("relaxOps"));
+        assertFalse(lp.getDuration().isNegative());
+
+        RecordedEvent many = paths.get("shortest-many");
+        assertEquals(3, many.getInt("sources"));
+        assertTrue(manyM.getRelaxOps() > 0);
+        assertEquals(manyM.getRelaxOps(), many.getLong("relaxOps"));
+    }
+}
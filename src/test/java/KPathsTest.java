@@ -0,0 +1,123 @@
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.KPaths;
+import graph.io.JsonGraphLoader;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * K shortest / longest paths: lengths against exhaustive enumeration on
+ * small DAGs, and the best path against the single-path algorithms.
+ */
+public class KPathsTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void matchesEnumerationOnRandomDags() {
+        Random rnd = new Random(3);
+        for (int round = 0; round < 30; round++) {
+            int n = 2 + rnd.nextInt(11);
+            List<int[]> edges = new ArrayList<>();
+            for (int u = 0; u < n; u++) {
+                for (int v = u + 1; v < n; v++) {
+                    if (rnd.nextInt(3) == 0) edges.add(new int[]{u, v, rnd.nextInt(7)});
+                }
+            }
+            int m = edges.size();
+            int[] us = new int[m], vs = new int[m], ws = new int[m];
+            for (int e = 0; e < m; e++) {
+                us[e] = edges.get(e)[0];
+                vs[e] = edges.get(e)[1];
+                ws[e] = edges.get(e)[2];
+            }
+            LongCsrGraph g = LongCsrGraph.of(CsrGraph.fromEdges(n, us, vs, ws, m));
+            int[] topo = KahnTopologicalSort.topo(g.structure(), new MetricsTracker());
+            int k = 1 + rnd.nextInt(5);
+            KPaths longest = KPaths.longest(new int[]{0}, topo, g, k, new MetricsTracker());
+            KPaths shortest = KPaths.shortest(new int[]{0}, topo, g, k, new MetricsTracker());
+            for (int t = 0; t < n; t++) {
+                List<Long> all = new ArrayList<>();
+                enumerate(g, 0, t, 0, all);
+                all.sort(Comparator.reverseOrder());
+                assertEquals(all.subList(0, Math.min(k, all.size())), lengths(longest.paths(t), g), "round " + round);
+                Collections.reverse(all);
+                assertEquals(all.subList(0, Math.min(k, all.size())), lengths(shortest.paths(t), g), "round " + round);
+            }
+        }
+    }
+
+    @Test
+    void bestPathMatchesSinglePathAlgorithms() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*[0-9].json")) {
+            for (Path file : files) {
+                CsrGraph g = JsonGraphLoader.load(file).graph();
+                SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+                CsrGraph dag = CondensationBuilder.buildCondensation(g, scc);
+                int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+                LongCsrGraph ldag = LongCsrGraph.of(dag);
+                int src = topo[0];
+                KPaths longest = KPaths.longest(new int[]{src}, topo, ldag, 3, new MetricsTracker());
+                KPaths shortest = KPaths.shortest(new int[]{src}, topo, ldag, 3, new MetricsTracker());
+                DAGLongestPath.LongestResult lr = DAGLongestPath.longestFrom(src, topo, dag, new MetricsTracker());
+                int[] dist = DAGShortestPath.shortestFrom(src, topo, dag, new MetricsTracker());
+                for (int t = 0; t < dag.n(); t++) {
+                    if (dist[t] == DAGShortestPath.INF) {
+                        assertEquals(0, longest.count(t), file + ": " + t);
+                        continue;
+                    }
+                    assertEquals(lr.dist()[t], longest.length(t, 0), file + ": " + t);
+                    assertEquals(DAGLongestPath.rebuildPath(t, lr),
+                            Arrays.stream(longest.path(t, 0).vertices()).boxed().toList(), file + ": " + t);
+                    assertEquals(dist[t], shortest.length(t, 0), file + ": " + t);
+                }
+                // merged over the sinks: best first, at most k per sink
+                long prev = Long.MAX_VALUE;
+                for (KPaths.Path p : longest.pathsToSinks()) {
+                    assertTrue(p.length() <= prev, file.toString());
+                    prev = p.length();
+                    int last = p.vertices()[p.vertices().length - 1];
+                    assertEquals(0, dag.degree(last), file.toString());
+                }
+            }
+        }
+    }
+
+    private static void enumerate(LongCsrGraph g, int v, int target, long len, List<Long> out) {
+        if (v == target) out.add(len);
+        for (int e = g.begin(v); e < g.end(v); e++) {
+            enumerate(g, g.target(e), target, len + g.weight(e), out);
+        }
+    }
+
+    /** Lengths of the iterated paths, checking that each path is made of edges of g. */
+    private static List<Long> lengths(Iterable<KPaths.Path> paths, LongCsrGraph g) {
+        List<Long> out = new ArrayList<>();
+        for (KPaths.Path p : paths) {
+            int[] vs = p.vertices();
+            assertEquals(0, vs[0]);
+            out.add(p.length());
+            assertTrue(hasPathOfLength(g, vs, 0, p.length()), Arrays.toString(vs));
+        }
+        return out;
+    }
+
+    private static boolean hasPathOfLength(LongCsrGraph g, int[] vs, int i, long rest) {
+        if (i == vs.length - 1) return rest == 0;
+        for (int e = g.begin(vs[i]); e < g.end(vs[i]); e++) {
+            if (g.target(e) == vs[i + 1] && hasPathOfLength(g, vs, i + 1, rest - g.weight(e))) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.io.JsonGraphLoader;
+import graph.io.LoadedGraph;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Long-weight path engine and overflow detection of the int path.
+ */
+public class LongWeightPathTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void longEngineMatchesIntEngineOnDatasets() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*[0-9].json")) {
+            for (Path file : files) {
+                LoadedGraph data = JsonGraphLoader.load(file, true);
+                CsrGraph g = JsonGraphLoader.load(file).graph();
+                SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+                CsrGraph dag = CondensationBuilder.buildCondensation(g, scc);
+                LongCsrGraph ldag = CondensationBuilder.buildCondensation(data.longGraph(), scc);
+                assertArrayEquals(dag.targets(), ldag.structure().targets(), file + ": condensation");
+                int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+                int src = scc.compOf()[data.sourceOrDefault()];
+
+                int[] dist = DAGShortestPath.shortestFrom(src, topo, dag, new MetricsTracker());
+                long[] ldist = DAGShortestPath.shortestFrom(src, topo, ldag, new MetricsTracker());
+                DAGLongestPath.LongestResult lr = DAGLongestPath.longestFrom(src, topo, dag, new MetricsTracker());
+                DAGLongestPath.LongLongestResult llr = DAGLongestPath.longestFrom(src, topo, ldag, new MetricsTracker());
+                for (int c = 0; c < dag.n(); c++) {
+                    long expected = dist[c] == DAGShortestPath.INF ? DAGShortestPath.INF_LONG : dist[c];
+                    assertEquals(expected, ldist[c], file + ": shortest " + c);
+                    expected = lr.dist()[c] == Integer.MIN_VALUE ? Long.MIN_VALUE : lr.dist()[c];
+                    assertEquals(expected, llr.dist()[c], file + ": longest " + c);
+                }
+                assertArrayEquals(lr.parent(), llr.parent(), file + ": parents");
+            }
+        }
+    }
+
+    @Test
+    void longWeightsBeyondIntRange() throws Exception {
+        String json = "{\"n\": 3, \"edges\": [{\"u\": 0, \"v\": 1, \"w\": 5000000000},"
+                + " {\"u\": 1, \"v\": 2, \"w\": 5000000000}]}";
+        assertThrows(IOException.class, () -> JsonGraphLoader.load(stream(json)));
+
+        LongCsrGraph g = JsonGraphLoader.load(stream(json), true).longGraph();
+        assertEquals(Integer.MAX_VALUE, g.structure().weight(0));
+        int[] topo = {0, 1, 2};
+        assertArrayEquals(new long[]{0, 5_000_000_000L, 10_000_000_000L},
+                DAGShortestPath.shortestFrom(0, topo, g, new MetricsTracker()));
+        assertArrayEquals(new long[]{0, 5_000_000_000L, 10_000_000_000L},
+                DAGLongestPath.longestFrom(0, topo, g, new MetricsTracker()).dist());
+    }
+
+    @Test
+    void intPathDetectsOverflow() {
+        // 0 → 1 → 2 with 1.5e9 per edge: 3e9 wraps an int
+        CsrGraph chain = CsrGraph.fromEdges(3, new int[]{0, 1}, new int[]{1, 2},
+                new int[]{1_500_000_000, 1_500_000_000}, 2);
+        int[] topo = {0, 1, 2};
+        assertThrows(ArithmeticException.class,
+                () -> DAGShortestPath.shortestFrom(0, topo, chain, new MetricsTracker()));
+        assertThrows(ArithmeticException.class,
+                () -> DAGLongestPath.longestFrom(0, topo, chain, new MetricsTracker()));
+        assertThrows(ArithmeticException.class,
+                () -> DAGShortestPath.shortestFromMany(new int[]{0, 1}, topo, chain, new MetricsTracker()));
+    }
+
+    @Test
+    void heavyEdgeWithShorterAlternativeIsNotAnOverflow() {
+        // 0 → 2 costs 2e9, but 0 → 1 → 2 costs 2
+        CsrGraph g = CsrGraph.fromEdges(3, new int[]{0, 0, 1}, new int[]{2, 1, 2},
+                new int[]{2_000_000_000, 1, 1}, 3);
+        int[] topo = {0, 1, 2};
+        assertArrayEquals(new int[]{0, 1, 2}, DAGShortestPath.shortestFrom(0, topo, g, new MetricsTracker()));
+        assertArrayEquals(new int[]{0, 1, 2},
+                DAGShortestPath.shortestFromMany(new int[]{0}, topo, g, new MetricsTracker()).row(0));
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
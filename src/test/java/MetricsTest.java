@@ -0,0 +1,123 @@
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.io.JsonGraphLoader;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.ConcurrentMetrics;
+import metrics.LatencyHistogram;
+import metrics.MetricsExporter;
+import metrics.MetricsTracker;
+import metrics.NoopMetrics;
+import metrics.Phase;
+import metrics.PipelineMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.file.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Metrics implementations, phase breakdown and the metrics.csv exporter.
+ */
+public class MetricsTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void bulkCountersMatchPerOperationDefinitions() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*[0-9].json")) {
+            for (Path file : files) {
+                CsrGraph g = JsonGraphLoader.load(file).graph();
+                PipelineMetrics pm = new PipelineMetrics();
+                SccResult scc = new TarjanSCC(g, pm.phase(Phase.SCC), true).decompose();
+                CsrGraph dag = CondensationBuilder.buildCondensation(g, scc);
+                int[] topo = KahnTopologicalSort.topo(dag, pm.phase(Phase.TOPO));
+                int[] dist = DAGShortestPath.shortestFrom(0, topo, dag, pm.phase(Phase.SP));
+
+                // one DFS visit per vertex; every component pushed and popped once
+                assertEquals(g.n(), pm.phase(Phase.SCC).getDfsOps(), file.toString());
+                assertEquals(2L * dag.n(), pm.phase(Phase.TOPO).getTopoOps(), file.toString());
+                long reached = IntStream.of(dist).filter(d -> d != DAGShortestPath.INF).count();
+                assertTrue(pm.phase(Phase.SP).getRelaxOps() >= reached - 1, file.toString());
+
+                // no-op metrics give the same results
+                assertArrayEquals(dist, DAGShortestPath.shortestFrom(0, topo, dag, NoopMetrics.INSTANCE));
+                assertArrayEquals(DAGLongestPath.longestFrom(0, topo, dag, new MetricsTracker()).dist(),
+                        DAGLongestPath.longestFrom(0, topo, dag, NoopMetrics.INSTANCE).dist());
+                assertEquals(0, NoopMetrics.INSTANCE.getRelaxOps());
+            }
+        }
+    }
+
+    @Test
+    void concurrentCountersAndTimers() throws Exception {
+        ConcurrentMetrics m = new ConcurrentMetrics();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                m.start();
+                for (int i = 0; i < 10_000; i++) m.incRelax();
+                m.addDfs(5);
+                m.stop();
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        assertEquals(40_000, m.getRelaxOps());
+        assertEquals(20, m.getDfsOps());
+        assertTrue(m.getElapsedNs() > 0);
+    }
+
+    @Test
+    void histogramPercentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.percentileNs(0.5));
+        for (int i = 0; i < 99; i++) h.record(100);      // bucket [64, 128)
+        h.record(1_000_000);                             // bucket [2^19, 2^20)
+        assertEquals(100, h.count());
+        assertEquals(127, h.percentileNs(0.5));
+        assertEquals(127, h.percentileNs(0.99));
+        assertEquals((1L << 20) - 1, h.percentileNs(1.0));
+    }
+
+    @Test
+    void exporterMatchesMetricsCsvLayout() throws Exception {
+        String header = Files.readAllLines(DATA_DIR.resolve("metrics.csv")).get(0);
+        assertEquals(header, MetricsExporter.CSV_HEADER);
+
+        PipelineMetrics pm = new PipelineMetrics();
+        pm.phase(Phase.SCC).addDfs(7);
+        pm.phase(Phase.LP).addRelax(3);
+        MetricsExporter.Row row = new MetricsExporter.Row("x.json", 7, 9, 4, pm, 12);
+        StringWriter out = new StringWriter();
+        MetricsExporter.writeRow(out, row);
+        String[] cols = out.toString().trim().split(",");
+        assertEquals(header.split(",").length, cols.length);
+        assertEquals("x.json", cols[0]);
+        assertEquals("7", cols[5]);
+        assertEquals("3", cols[11]);
+        assertEquals("12", cols[12]);
+
+        ObjectMapper mapper = new ObjectMapper();
+        StringWriter text = new StringWriter();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(text)) {
+            gen.writeStartObject();
+            MetricsExporter.writeJson(gen, row);
+            gen.writeEndObject();
+        }
+        JsonNode json = mapper.readTree(text.toString());
+        assertEquals(header.split(",").length - 3, json.size());
+        assertEquals(4, json.get("Tarjan_SCC_count").asInt());
+        assertEquals(7, json.get("Tarjan_DFS_ops").asLong());
+        assertEquals(3, json.get("DAGSP_long_relax_ops").asLong());
+        assertEquals(12, json.get("DAGSP_long_max").asLong());
+    }
+}
@@ -0,0 +1,145 @@
+import graph.dagsp.CriticalPathAnalysis;
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.io.BinaryGraphFormat;
+import graph.io.GraphFiles;
+import graph.io.JsonGraphLoader;
+import graph.io.LoadedGraph;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import graph.util.LongCsrGraph;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * "node" weight model: loading, per-component aggregation and path lengths.
+ */
+public class NodeWeightModelTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    // 0 → {1, 2} (cycle) → 3, and 0 → 4 → 3; edges carry no weight
+    private static final String TASKS = "{\"n\": 5, \"weight_model\": \"node\","
+            + " \"node_weights\": [1, 2, 3, 4, 10],"
+            + " \"edges\": [{\"u\": 0, \"v\": 1}, {\"u\": 1, \"v\": 2}, {\"u\": 2, \"v\": 1},"
+            + " {\"u\": 2, \"v\": 3}, {\"u\": 0, \"v\": 4}, {\"u\": 4, \"v\": 3}]}";
+
+    @Test
+    void componentDurationsAndPaths() throws Exception {
+        LoadedGraph data = JsonGraphLoader.load(stream(TASKS));
+        assertTrue(data.nodeModel());
+        assertEquals(0, data.graph().weight(0), "no 0 → 1 rule in the node model");
+
+        SccResult scc = new TarjanSCC(data.graph(), new MetricsTracker(), true).decompose();
+        int[] sum = CondensationBuilder.componentWeights(scc, data.nodeWeights(), CondensationBuilder.NodeAggregation.SUM);
+        int[] max = CondensationBuilder.componentWeights(scc, data.nodeWeights(), CondensationBuilder.NodeAggregation.MAX);
+        int[] compOf = scc.compOf();
+        assertEquals(5, sum[compOf[1]]);
+        assertEquals(3, max[compOf[1]]);
+        assertEquals(10, sum[compOf[4]]);
+
+        CsrGraph dag = CondensationBuilder.buildCondensation(data.graph(), scc);
+        int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+        int src = compOf[0];
+        int[] shortest = DAGShortestPath.shortestFrom(src, topo, dag, sum, new MetricsTracker());
+        DAGLongestPath.LongestResult longest =
+                DAGLongestPath.longestFrom(src, topo, dag, sum, new MetricsTracker());
+        assertEquals(1, shortest[src]);
+        assertEquals(1 + 5 + 4, shortest[compOf[3]]);
+        assertEquals(1 + 10 + 4, longest.dist()[compOf[3]]);
+        assertEquals(compOf[4], longest.parent()[compOf[3]]);
+    }
+
+    @Test
+    void scheduleUsesComponentDurations() throws Exception {
+        LoadedGraph data = JsonGraphLoader.load(stream(TASKS));
+        SccResult scc = new TarjanSCC(data.graph(), new MetricsTracker(), true).decompose();
+        int[] sum = CondensationBuilder.componentWeights(scc, data.nodeWeights(), CondensationBuilder.NodeAggregation.SUM);
+        CsrGraph dag = CondensationBuilder.buildCondensation(data.graph(), scc);
+        int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+        int[] compOf = scc.compOf();
+
+        CriticalPathAnalysis cpm =
+                CriticalPathAnalysis.analyze(LongCsrGraph.of(dag), topo, sum, new MetricsTracker());
+        assertEquals(1 + 10 + 4, cpm.projectLength());
+        assertEquals(0, cpm.earliestStart(compOf[0]));
+        assertEquals(1, cpm.earliestStart(compOf[1]));
+        assertEquals(1, cpm.earliestStart(compOf[4]));
+        assertEquals(11, cpm.earliestStart(compOf[3]));
+        // the cycle finishes at 6 but only has to finish by 11
+        assertEquals(6, cpm.latestStart(compOf[1]));
+        assertEquals(5, cpm.slack(compOf[1]));
+        assertEquals(0, cpm.slack(compOf[4]));
+
+        List<int[]> paths = new ArrayList<>();
+        cpm.criticalPaths().forEach(paths::add);
+        assertEquals(1, paths.size());
+        assertArrayEquals(new int[]{compOf[0], compOf[4], compOf[3]}, paths.get(0));
+    }
+
+    @Test
+    void levelRelaxationRejectsNodeModel(@TempDir Path tmp) throws Exception {
+        Path file = tmp.resolve("tasks.json");
+        Files.writeString(file, TASKS);
+        assertThrows(IllegalArgumentException.class,
+                () -> Main.main(new String[]{"dagsp-levels", file.toString()}));
+        assertThrows(IllegalArgumentException.class,
+                () -> Main.main(new String[]{"cpm", file.toString(), "--k=2"}));
+    }
+
+    @Test
+    void zeroNodeWeightsReduceToEdgeModel() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*[0-9].json")) {
+            for (Path file : files) {
+                CsrGraph g = JsonGraphLoader.load(file).graph();
+                SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+                CsrGraph dag = CondensationBuilder.buildCondensation(g, scc);
+                int[] zero = CondensationBuilder.componentWeights(scc, new int[g.n()],
+                        CondensationBuilder.NodeAggregation.SUM);
+                int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+                assertArrayEquals(
+                        DAGShortestPath.shortestFrom(0, topo, dag, new MetricsTracker()),
+                        DAGShortestPath.shortestFrom(0, topo, dag, zero, new MetricsTracker()),
+                        file.toString());
+                assertArrayEquals(
+                        DAGLongestPath.longestFrom(0, topo, dag, new MetricsTracker()).dist(),
+                        DAGLongestPath.longestFrom(0, topo, dag, zero, new MetricsTracker()).dist(),
+                        file.toString());
+            }
+        }
+    }
+
+    @Test
+    void nodeWeightsSurviveBinaryFormat(@TempDir Path tmp) throws Exception {
+        LoadedGraph data = JsonGraphLoader.load(stream(TASKS));
+        Path bin = tmp.resolve("tasks.bin");
+        BinaryGraphFormat.write(data, bin);
+        LoadedGraph copy = GraphFiles.load(bin);
+        assertTrue(copy.nodeModel());
+        assertArrayEquals(data.nodeWeights(), copy.nodeWeights());
+        assertArrayEquals(data.graph().weights(), copy.graph().weights());
+    }
+
+    @Test
+    void nodeModelRequiresNodeWeights() {
+        String json = "{\"n\": 2, \"weight_model\": \"node\", \"edges\": [{\"u\": 0, \"v\": 1}]}";
+        assertThrows(IOException.class, () -> JsonGraphLoader.load(stream(json)));
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
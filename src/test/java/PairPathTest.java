@@ -0,0 +1,98 @@
+import graph.dagsp.DAGLongestPath;
+import graph.dagsp.DAGShortestPath;
+import graph.dagsp.PairPath;
+import graph.io.JsonGraphLoader;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.MetricsTracker;
+import metrics.NoopMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Source → target queries agree with the single-source sweeps and relax
+ * no more edges than they do.
+ */
+public class PairPathTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void allPairsMatchSingleSourceSweeps() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*[0-9].json")) {
+            for (Path file : files) {
+                CsrGraph g = JsonGraphLoader.load(file).graph();
+                SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+                CsrGraph dag = CondensationBuilder.buildCondensation(g, scc);
+                int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+                int[] rank = KahnTopologicalSort.positions(topo);
+
+                for (int s = 0; s < dag.n(); s++) {
+                    MetricsTracker fullM = new MetricsTracker();
+                    int[] dist = DAGShortestPath.shortestFrom(s, topo, dag, fullM);
+                    DAGLongestPath.LongestResult lr = DAGLongestPath.longestFrom(s, topo, dag, NoopMetrics.INSTANCE);
+                    for (int t = 0; t < dag.n(); t++) {
+                        String at = file + ": " + s + " -> " + t;
+                        MetricsTracker pairM = new MetricsTracker();
+                        PairPath sp = DAGShortestPath.shortestPath(s, t, topo, rank, dag, null, pairM);
+                        PairPath lp = DAGLongestPath.longestPath(s, t, topo, rank, dag, null, NoopMetrics.INSTANCE);
+                        assertTrue(pairM.getRelaxOps() <= fullM.getRelaxOps(), at);
+                        if (dist[t] == DAGShortestPath.INF) {
+                            assertFalse(sp.reachable(), at);
+                            assertFalse(lp.reachable(), at);
+                            assertEquals(Integer.MIN_VALUE, lp.length(), at);
+                            continue;
+                        }
+                        assertEquals(dist[t], sp.length(), at);
+                        assertEquals(dist[t], pathLength(dag, sp.path()), at);
+                        assertEquals(s, sp.path()[0], at);
+                        assertEquals(lr.dist()[t], lp.length(), at);
+                        assertEquals(DAGLongestPath.rebuildPath(t, lr), toList(lp.path()), at);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void nodeWeightsCountBothEndpoints() {
+        // 0 → 1 → 3, 0 → 2 → 3; durations 1, 5, 2, 4
+        CsrGraph g = CsrGraph.fromEdges(4,
+                new int[]{0, 1, 0, 2}, new int[]{1, 3, 2, 3}, new int[]{0, 0, 0, 0}, 4);
+        int[] w = {1, 5, 2, 4};
+        int[] topo = KahnTopologicalSort.topo(g, new MetricsTracker());
+        int[] rank = KahnTopologicalSort.positions(topo);
+        PairPath sp = DAGShortestPath.shortestPath(0, 3, topo, rank, g, w, new MetricsTracker());
+        PairPath lp = DAGLongestPath.longestPath(0, 3, topo, rank, g, w, new MetricsTracker());
+        assertEquals(7, sp.length());
+        assertArrayEquals(new int[]{0, 2, 3}, sp.path());
+        assertEquals(10, lp.length());
+        assertArrayEquals(new int[]{0, 1, 3}, lp.path());
+        assertArrayEquals(new int[]{2}, DAGShortestPath.shortestPath(2, 2, topo, rank, g, w, new MetricsTracker()).path());
+    }
+
+    private static long pathLength(CsrGraph g, int[] path) {
+        long len = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            int best = Integer.MAX_VALUE;
+            for (int e = g.begin(path[i]); e < g.end(path[i]); e++) {
+                if (g.target(e) == path[i + 1]) best = Math.min(best, g.weight(e));
+            }
+            assertNotEquals(Integer.MAX_VALUE, best, "no edge " + path[i] + " -> " + path[i + 1]);
+            len += best;
+        }
+        return len;
+    }
+
+    private static List<Integer> toList(int[] a) {
+        return Arrays.stream(a).boxed().toList();
+    }
+}
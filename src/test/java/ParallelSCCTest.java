@@ -0,0 +1,110 @@
+import graph.scc.ParallelSCC;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.util.CsrGraph;
+import graph.util.SCCUtils;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the parallel SCC engine with Tarjan on graphs large enough
+ * to exercise the FW-BW and parallel frontier code paths.
+ */
+public class ParallelSCCTest {
+
+    @Test
+    void randomSparseGraph() {
+        Random rnd = new Random(42);
+        int n = 60_000;
+        int m = 2 * n;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = rnd.nextInt(n);
+            vs[i] = rnd.nextInt(n);
+        }
+        check(CsrGraph.fromEdges(n, us, vs, new int[m], m));
+    }
+
+    @Test
+    void ringsJoinedByDagEdges() {
+        // 8 rings of 10_000 vertices, ring i → ring i+1, plus a tail chain
+        int ring = 10_000;
+        int rings = 8;
+        int chain = 5_000;
+        int n = ring * rings + chain;
+        int m = ring * rings + (rings - 1) + chain;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int k = 0;
+        for (int r = 0; r < rings; r++) {
+            int base = r * ring;
+            for (int i = 0; i < ring; i++) {
+                us[k] = base + i;
+                vs[k++] = base + (i + 1) % ring;
+            }
+            if (r + 1 < rings) {
+                us[k] = base;
+                vs[k++] = base + ring;
+            }
+        }
+        for (int i = 0; i < chain; i++) {
+            us[k] = (i == 0) ? 0 : ring * rings + i - 1;
+            vs[k++] = ring * rings + i;
+        }
+        CsrGraph g = CsrGraph.fromEdges(n, us, vs, new int[m], m);
+        SccResult res = check(g);
+        assertEquals(rings + chain, res.count());
+    }
+
+    @Test
+    void chainOfTwoCycles() {
+        // a_i ⇄ b_i, b_i → a_{i+1}: every FW-BW step would peel only one pair
+        int k = 100_000;
+        SccResult res = check(chainOfCycles(k, 2));
+        assertEquals(k, res.count());
+    }
+
+    @Test
+    void chainOfThreeCycles() {
+        // not peeled by the trim; FW-BW has to hand the parts to Tarjan
+        int k = 30_000;
+        SccResult res = check(chainOfCycles(k, 3));
+        assertEquals(k, res.count());
+    }
+
+    /** k cycles of the given length, the last vertex of cycle i → the first of cycle i + 1. */
+    private static CsrGraph chainOfCycles(int k, int len) {
+        int n = k * len;
+        int m = n + k - 1;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        int e = 0;
+        for (int c = 0; c < k; c++) {
+            int base = c * len;
+            for (int i = 0; i < len; i++) {
+                us[e] = base + i;
+                vs[e++] = base + (i + 1) % len;
+            }
+            if (c + 1 < k) {
+                us[e] = base + len - 1;
+                vs[e++] = base + len;
+            }
+        }
+        return CsrGraph.fromEdges(n, us, vs, new int[m], m);
+    }
+
+    private static SccResult check(CsrGraph g) {
+        SccResult expected = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+        for (int threads : new int[]{1, 4}) {
+            SccResult actual = new ParallelSCC(g, new MetricsTracker(), threads).decompose();
+            assertEquals(expected.count(), actual.count(), "threads=" + threads);
+            assertTrue(SCCUtils.samePartition(expected.compOf(), actual.compOf()), "threads=" + threads);
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,62 @@
+import graph.dagsp.DAGLongestPath;
+import graph.query.PreparedGraph;
+import graph.util.CsrGraph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Result cache of a prepared graph: hits return the shared result, and the
+ * least recently used source is evicted once the capacity is exceeded.
+ */
+public class PreparedGraphTest {
+
+    /** Chain 0 → 1 → 2 → 3: four single-vertex components. */
+    private static CsrGraph chain() {
+        return new CsrGraph(4, new int[]{0, 1, 2, 3, 3}, new int[]{1, 2, 3}, new int[]{1, 2, 3});
+    }
+
+    @Test
+    void repeatedSourceIsAHit() {
+        PreparedGraph pg = PreparedGraph.prepare(chain(), 2);
+        int c = pg.compOf()[0];
+
+        int[] first = pg.shortestFrom(c);
+        assertEquals(0, pg.cacheMetrics().getCacheHits());
+        assertEquals(1, pg.cacheMetrics().getCacheMisses());
+
+        assertSame(first, pg.shortestFrom(c));
+        assertEquals(1, pg.cacheMetrics().getCacheHits());
+        assertEquals(1, pg.cacheMetrics().getCacheMisses());
+
+        DAGLongestPath.LongestResult lr = pg.longestFrom(c);
+        assertSame(lr, pg.longestFrom(c));
+        assertEquals(2, pg.cacheMetrics().getCacheHits());
+        assertEquals(2, pg.cacheMetrics().getCacheMisses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        PreparedGraph pg = PreparedGraph.prepare(chain(), 2);
+        int[] comp = pg.compOf();
+        int a = comp[0];
+        int b = comp[1];
+        int c = comp[2];
+
+        int[] distA = pg.shortestFrom(a);
+        pg.shortestFrom(b);
+        // touching a leaves b as the least recently used entry
+        assertSame(distA, pg.shortestFrom(a));
+        pg.shortestFrom(c);
+        assertEquals(1, pg.cacheMetrics().getCacheHits());
+        assertEquals(3, pg.cacheMetrics().getCacheMisses());
+
+        assertSame(distA, pg.shortestFrom(a));
+        assertEquals(2, pg.cacheMetrics().getCacheHits());
+
+        int[] distB = pg.shortestFrom(b);
+        assertEquals(4, pg.cacheMetrics().getCacheMisses());
+        assertSame(distB, pg.shortestFrom(b));
+        assertEquals(3, pg.cacheMetrics().getCacheHits());
+    }
+}
@@ -0,0 +1,133 @@
+import graph.io.JsonGraphLoader;
+import graph.io.TextResultWriter;
+import graph.query.PreparedGraph;
+import graph.query.QueryServer;
+import graph.util.CsrGraph;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query server: answers match the one-shot output, bad requests are
+ * reported, and socket sessions run concurrently on one prepared graph.
+ */
+public class QueryServerTest {
+
+    private static PreparedGraph prepare() throws IOException {
+        return PreparedGraph.prepare(JsonGraphLoader.load(Paths.get("data", "small2.json")).graph(), 16);
+    }
+
+    @Test
+    void answersOverStreams() throws Exception {
+        PreparedGraph pg = prepare();
+        QueryServer server = new QueryServer(pg);
+        String requests = "scc\n\ndagsp 0\npath 0 5\npath 5 0\nnope\ndagsp 99\npath 1\nquit\ntopo\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int answered = server.serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out);
+        assertEquals(7, answered);
+
+        StringWriter expected = new StringWriter();
+        TextResultWriter w = new TextResultWriter(expected);
+        QueryServer.writeScc(pg.scc(), w);
+        w.line("");
+        int c0 = pg.compOf()[0];
+        QueryServer.writePaths(pg.shortestFrom(c0), pg.longestFrom(c0), w);
+        w.line("");
+        int c5 = pg.compOf()[5];
+        QueryServer.writePair(pg.shortestPath(c0, c5), pg.longestPath(c0, c5), w);
+        w.line("");
+        w.flush();
+
+        String text = out.toString(StandardCharsets.UTF_8);
+        String[] answers = text.split(System.lineSeparator() + System.lineSeparator(), -1);
+        assertTrue(text.startsWith(expected.toString()), text);
+        assertEquals("Unreachable", answers[3]);
+        assertEquals("error: unknown command nope", answers[4]);
+        assertTrue(answers[5].startsWith("error: dagsp: vertex 99 out of range"), answers[5]);
+        assertEquals("error: path: missing vertex", answers[6]);
+
+        assertEquals(1, server.latency(QueryServer.Command.SCC).count());
+        assertEquals(1, server.latency(QueryServer.Command.DAGSP).count());
+        assertEquals(2, server.latency(QueryServer.Command.PATH).count());
+        assertEquals(0, server.latency(QueryServer.Command.TOPO).count());
+    }
+
+    @Test
+    void overflowIsAnErrorAnswer() throws Exception {
+        // 0 -> 1 -> 2: the distance to 2 is past the int distance range
+        CsrGraph g = new CsrGraph(3, new int[]{0, 1, 2, 2}, new int[]{1, 2}, new int[]{600_000_000, 600_000_000});
+        QueryServer server = new QueryServer(PreparedGraph.prepare(g, 4));
+        String requests = "dagsp 0\npath 0 2\nreach 0 2\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(3, server.serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out));
+
+        String[] answers = out.toString(StandardCharsets.UTF_8).split(System.lineSeparator() + System.lineSeparator(), -1);
+        assertTrue(answers[0].startsWith("error: distance to vertex"), answers[0]);
+        assertTrue(answers[1].startsWith("error: distance to vertex"), answers[1]);
+        assertEquals("0 -> 2: true", answers[2]);
+        assertEquals(0, server.latency(QueryServer.Command.DAGSP).count());
+        assertEquals(1, server.latency(QueryServer.Command.REACH).count());
+    }
+
+    @Test
+    void concurrentSocketSessions() throws Exception {
+        PreparedGraph pg = prepare();
+        QueryServer server = new QueryServer(pg);
+        ExecutorService pool = Executors.newCachedThreadPool();
+        try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.INET)) {
+            channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            Future<?> accepting = pool.submit(() -> {
+                server.serve(channel);
+                return null;
+            });
+
+            List<Future<String>> clients = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int src = i % pg.graph().n();
+                clients.add(pool.submit(() -> query(channel, "dagsp " + src)));
+            }
+            for (int i = 0; i < clients.size(); i++) {
+                int c = pg.compOf()[i % pg.graph().n()];
+                StringWriter expected = new StringWriter();
+                TextResultWriter w = new TextResultWriter(expected);
+                QueryServer.writePaths(pg.shortestFrom(c), pg.longestFrom(c), w);
+                w.flush();
+                assertEquals(expected.toString(), clients.get(i).get(10, TimeUnit.SECONDS));
+            }
+            channel.close();
+            accepting.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(8, server.latency(QueryServer.Command.DAGSP).count());
+    }
+
+    /** Sends one request and reads its answer up to the terminating empty line. */
+    private static String query(ServerSocketChannel server, String request) throws IOException {
+        try (SocketChannel ch = SocketChannel.open(server.getLocalAddress())) {
+            Writer w = new OutputStreamWriter(Channels.newOutputStream(ch), StandardCharsets.UTF_8);
+            w.write(request + "\nquit\n");
+            w.flush();
+            BufferedReader r = new BufferedReader(new InputStreamReader(Channels.newInputStream(ch), StandardCharsets.UTF_8));
+            StringBuilder answer = new StringBuilder();
+            String line;
+            while ((line = r.readLine()) != null && !line.isEmpty()) {
+                answer.append(line).append(System.lineSeparator());
+            }
+            return answer.toString();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import graph.io.JsonGraphLoader;
+import graph.query.ReachabilityIndex;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reachability index, with and without the closure, against a plain
+ * traversal from every vertex.
+ */
+public class ReachabilityIndexTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void condensationsOfDatasets() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*[0-9].json")) {
+            for (Path file : files) {
+                CsrGraph g = JsonGraphLoader.load(file).graph();
+                SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+                checkAllPairs(CondensationBuilder.buildCondensation(g, scc), file.toString());
+            }
+        }
+    }
+
+    @Test
+    void randomDags() {
+        Random rnd = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + rnd.nextInt(300);
+            int m = rnd.nextInt(4 * n);
+            int[] perm = new int[n];
+            for (int i = 0; i < n; i++) perm[i] = i;
+            for (int i = n - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                int t = perm[i]; perm[i] = perm[j]; perm[j] = t;
+            }
+            int[] us = new int[m], vs = new int[m], ws = new int[m];
+            int k = 0;
+            for (int e = 0; e < m && n > 1; e++) {
+                int a = rnd.nextInt(n), b = rnd.nextInt(n);
+                if (a == b) continue;
+                // edges go from lower to higher position in a hidden order
+                us[k] = perm[Math.min(a, b)];
+                vs[k] = perm[Math.max(a, b)];
+                ws[k++] = 1;
+            }
+            checkAllPairs(CsrGraph.fromEdges(n, us, vs, ws, k), "round " + round);
+        }
+    }
+
+    @Test
+    void budgetSelectsClosure() {
+        CsrGraph chain = CsrGraph.fromEdges(3, new int[]{0, 1}, new int[]{1, 2}, new int[]{1, 1}, 2);
+        int[] topo = KahnTopologicalSort.topo(chain, new MetricsTracker());
+        assertTrue(ReachabilityIndex.build(chain, topo).hasClosure());
+        assertFalse(ReachabilityIndex.build(chain, topo, ReachabilityIndex.closureBytes(3) - 1).hasClosure());
+    }
+
+    private static void checkAllPairs(CsrGraph dag, String at) {
+        int n = dag.n();
+        int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+        ReachabilityIndex full = ReachabilityIndex.build(dag, topo);
+        ReachabilityIndex labels = ReachabilityIndex.build(dag, topo, 0);
+        assertTrue(full.hasClosure(), at);
+        assertFalse(labels.hasClosure(), at);
+
+        int[] from = new int[n * n];
+        int[] to = new int[n * n];
+        boolean[] expected = new boolean[n * n];
+        for (int a = 0; a < n; a++) {
+            boolean[] seen = traverse(dag, a);
+            for (int b = 0; b < n; b++) {
+                int i = a * n + b;
+                from[i] = a;
+                to[i] = b;
+                expected[i] = seen[b];
+                assertEquals(seen[b], full.canReach(a, b), at + ": " + a + " -> " + b);
+                assertEquals(seen[b], labels.canReach(a, b), at + ": " + a + " -> " + b);
+            }
+        }
+        assertArrayEquals(expected, labels.canReach(from, to), at);
+    }
+
+    private static boolean[] traverse(CsrGraph g, int src) {
+        boolean[] seen = new boolean[g.n()];
+        List<Integer> stack = new ArrayList<>();
+        stack.add(src);
+        seen[src] = true;
+        while (!stack.isEmpty()) {
+            int v = stack.remove(stack.size() - 1);
+            for (int e = g.begin(v); e < g.end(v); e++) {
+                int w = g.target(e);
+                if (!seen[w]) {
+                    seen[w] = true;
+                    stack.add(w);
+                }
+            }
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,119 @@
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graph.io.JsonGraphLoader;
+import graph.io.JsonResultWriter;
+import graph.io.TextResultWriter;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import graph.util.SCCUtils;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streaming writers produce the same text and JSON as the List-based output.
+ */
+public class ResultWriterTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    void textMatchesToStringFormats() throws Exception {
+        CsrGraph g = JsonGraphLoader.load(Paths.get("data", "medium2.json")).graph();
+        SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+        int[] topo = KahnTopologicalSort.topo(CondensationBuilder.buildCondensation(g, scc), new MetricsTracker());
+        List<List<Integer>> comps = scc.toLists();
+        List<Integer> topoList = new ArrayList<>();
+        for (int c : topo) topoList.add(c);
+
+        StringWriter sw = new StringWriter();
+        TextResultWriter out = new TextResultWriter(sw);
+        out.components(scc);
+        out.ints("Topo: ", topo);
+        out.expandedOrder("Tasks: ", topo, scc);
+        out.longs("L: ", new long[]{Long.MIN_VALUE, -1, 0, Long.MAX_VALUE});
+        out.ints("E: ", new int[0]);
+        out.flush();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < comps.size(); i++) expected.append(i).append(": ").append(comps.get(i)).append(NL);
+        expected.append("Topo: ").append(topoList).append(NL);
+        expected.append("Tasks: ").append(SCCUtils.expandOrder(topoList, comps)).append(NL);
+        expected.append("L: ").append(Arrays.toString(new long[]{Long.MIN_VALUE, -1, 0, Long.MAX_VALUE})).append(NL);
+        expected.append("E: []").append(NL);
+        assertEquals(expected.toString(), sw.toString());
+    }
+
+    @Test
+    void csvRowsHaveHeaderAndOneRowPerEntry() throws Exception {
+        CsrGraph g = JsonGraphLoader.load(Paths.get("data", "medium2.json")).graph();
+        SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+        int[] topo = KahnTopologicalSort.topo(CondensationBuilder.buildCondensation(g, scc), new MetricsTracker());
+
+        StringWriter sw = new StringWriter();
+        TextResultWriter out = new TextResultWriter(sw);
+        out.csvComponents(scc);
+        out.csvRows("position", new String[]{"component"}, topo);
+        out.csvRows("vertex", new String[]{"a", "b"}, new long[]{Long.MIN_VALUE, 5}, new long[]{-1, Long.MAX_VALUE});
+        out.flush();
+
+        StringBuilder expected = new StringBuilder("component,vertex").append(NL);
+        List<List<Integer>> comps = scc.toLists();
+        for (int c = 0; c < comps.size(); c++) {
+            for (int v : comps.get(c)) expected.append(c).append(',').append(v).append(NL);
+        }
+        expected.append("position,component").append(NL);
+        for (int i = 0; i < topo.length; i++) expected.append(i).append(',').append(topo[i]).append(NL);
+        expected.append("vertex,a,b").append(NL)
+                .append("0,").append(Long.MIN_VALUE).append(",-1").append(NL)
+                .append("1,5,").append(Long.MAX_VALUE).append(NL);
+        assertEquals(expected.toString(), sw.toString());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> out.csvRows("vertex", new String[]{"a"}, new int[1], new int[1]));
+    }
+
+    @Test
+    void jsonFieldsMatchListSerialization(@TempDir Path tmp) throws Exception {
+        CsrGraph g = JsonGraphLoader.load(Paths.get("data", "small1.json")).graph();
+        SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+        int[] topo = KahnTopologicalSort.topo(CondensationBuilder.buildCondensation(g, scc), new MetricsTracker());
+        List<Integer> topoList = new ArrayList<>();
+        for (int c : topo) topoList.add(c);
+
+        Path file = tmp.resolve("out.json");
+        try (JsonResultWriter w = new JsonResultWriter(file)) {
+            JsonGenerator gen = w.generator();
+            gen.writeStartObject();
+            JsonResultWriter.writeComponents(gen, "scc", scc);
+            JsonResultWriter.writeInts(gen, "componentTopo", topo);
+            JsonResultWriter.writeExpandedOrder(gen, "taskOrder", topo, scc);
+            gen.writeEndObject();
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode r = mapper.readTree(file.toFile()).get("results").get(0);
+        List<List<Integer>> comps = scc.toLists();
+        assertEquals(comps.size(), r.get("scc").size());
+        for (int c = 0; c < comps.size(); c++) {
+            JsonNode comp = r.get("scc").get(c);
+            assertEquals(c, comp.get("id").asInt());
+            assertEquals(comps.get(c).size(), comp.get("size").asInt());
+            assertEquals(mapper.valueToTree(comps.get(c)), comp.get("vertices"));
+        }
+        assertEquals(mapper.valueToTree(topoList), r.get("componentTopo"));
+        assertEquals(mapper.valueToTree(SCCUtils.expandOrder(topoList, comps)), r.get("taskOrder"));
+    }
+}
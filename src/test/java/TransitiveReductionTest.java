@@ -0,0 +1,102 @@
+import graph.io.JsonGraphLoader;
+import graph.query.ReachabilityIndex;
+import graph.scc.CondensationBuilder;
+import graph.scc.SccResult;
+import graph.scc.TarjanSCC;
+import graph.scc.TransitiveReduction;
+import graph.topo.KahnTopologicalSort;
+import graph.util.CsrGraph;
+import metrics.MetricsTracker;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Transitive reduction keeps reachability and removes exactly the edges
+ * implied by other paths, whatever the block size and thread count.
+ */
+public class TransitiveReductionTest {
+
+    private static final Path DATA_DIR = Paths.get("data");
+
+    @Test
+    void diamondWithShortcut() {
+        // 0 → 1 → 3, 0 → 2 → 3, shortcut 0 → 3, and 3 → 4
+        CsrGraph g = CsrGraph.fromEdges(5,
+                new int[]{0, 0, 0, 1, 2, 3}, new int[]{1, 2, 3, 3, 3, 4}, new int[]{1, 2, 9, 4, 5, 6}, 6);
+        CsrGraph r = TransitiveReduction.reduce(g, KahnTopologicalSort.topo(g, new MetricsTracker()), 1);
+        assertEquals(5, r.m());
+        assertEquals(Set.of("0-1:1", "0-2:2", "1-3:4", "2-3:5", "3-4:6"), edges(r));
+    }
+
+    @Test
+    void datasetsAndRandomDags() throws Exception {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*[0-9].json")) {
+            for (Path file : files) {
+                CsrGraph g = JsonGraphLoader.load(file).graph();
+                SccResult scc = new TarjanSCC(g, new MetricsTracker(), true).decompose();
+                check(CondensationBuilder.buildCondensation(g, scc), file.toString());
+            }
+        }
+        Random rnd = new Random(11);
+        for (int round = 0; round < 10; round++) {
+            int n = 2 + rnd.nextInt(400);
+            Set<Long> seen = new HashSet<>();
+            int m = 3 * n;
+            int[] us = new int[m], vs = new int[m], ws = new int[m];
+            int k = 0;
+            for (int e = 0; e < m; e++) {
+                int a = rnd.nextInt(n), b = rnd.nextInt(n);
+                if (a == b || !seen.add((long) Math.min(a, b) * n + Math.max(a, b))) continue;
+                us[k] = Math.min(a, b);
+                vs[k] = Math.max(a, b);
+                ws[k++] = 1 + rnd.nextInt(10);
+            }
+            check(CsrGraph.fromEdges(n, us, vs, ws, k), "round " + round);
+        }
+    }
+
+    private static void check(CsrGraph dag, String at) {
+        int n = dag.n();
+        int[] topo = KahnTopologicalSort.topo(dag, new MetricsTracker());
+        CsrGraph reduced = TransitiveReduction.reduce(dag, topo, 1);
+        // one 64-position block at a time, on a pool
+        CsrGraph blocked = TransitiveReduction.reduce(dag, topo, 4, 1);
+        assertEquals(edges(reduced), edges(blocked), at);
+        assertTrue(edges(dag).containsAll(edges(reduced)), at);
+
+        ReachabilityIndex full = ReachabilityIndex.build(dag, topo);
+        ReachabilityIndex small = ReachabilityIndex.build(reduced, KahnTopologicalSort.topo(reduced, new MetricsTracker()));
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                assertEquals(full.canReach(a, b), small.canReach(a, b), at + ": " + a + " -> " + b);
+            }
+        }
+        // minimal: no kept edge u → w is implied by another kept successor of u
+        for (int u = 0; u < n; u++) {
+            for (int e = reduced.begin(u); e < reduced.end(u); e++) {
+                for (int f = reduced.begin(u); f < reduced.end(u); f++) {
+                    if (e != f) {
+                        assertFalse(small.canReach(reduced.target(f), reduced.target(e)),
+                                at + ": " + u + " -> " + reduced.target(e) + " is redundant");
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> edges(CsrGraph g) {
+        Set<String> out = new HashSet<>();
+        for (int u = 0; u < g.n(); u++) {
+            for (int e = g.begin(u); e < g.end(u); e++) {
+                out.add(u + "-" + g.target(e) + ":" + g.weight(e));
+            }
+        }
+        return out;
+    }
+}